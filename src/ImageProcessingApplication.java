@@ -2,25 +2,53 @@ import controller.ImageProcessorController;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import logger.ViewLogger;
 import model.imageprocessingmodel.ImageProcessorModel;
+import model.imageprocessingmodel.ImageStore;
+import model.imageprocessingmodel.InMemoryImageStore;
+import model.imageprocessingmodel.ResultCache;
+import model.imageprocessingmodel.SpillingImageStore;
 
 /**
  * This class represents the main class for the image processing application and runs this program.
  */
 public class ImageProcessingApplication {
 
+  private static final long RESULT_CACHE_BUDGET = 256L * 1024 * 1024;
+
   /**
-   * Main method for starting the application.
+   * Main method for starting the application. The arguments may start with -memory-budget
+   * followed by a number of megabytes, which keeps at most that much image data on the heap and
+   * spills the least recently used images to disk, and with -result-cache followed by a directory,
+   * which keeps every computed image in that directory so later runs of the same commands on the
+   * same inputs reuse it.
    *
    * @param args argument
    * @throws IOException Exception
    */
   public static void main(String[] args) throws IOException {
+    ImageStore images = new InMemoryImageStore();
+    ResultCache resultCache = null;
+    while (args.length > 1) {
+      if (args[0].equals("-memory-budget")) {
+        images = new SpillingImageStore(Long.parseLong(args[1]) * 1024 * 1024);
+      } else if (args[0].equals("-result-cache")) {
+        Path directory = Files.createDirectories(Paths.get(args[1]));
+        resultCache = new ResultCache(RESULT_CACHE_BUDGET, directory);
+      } else {
+        break;
+      }
+      args = Arrays.copyOfRange(args, 2, args.length);
+    }
+    ImageProcessorModel model = new ImageProcessorModel(images, resultCache);
     if (args.length > 0 && args[0].equals("-file")) {
       ImageProcessorController imageProcessorController =
           new ImageProcessorController(new ViewLogger(System.out),
-              new ImageProcessorModel(),
+              model,
               new InputStreamReader(new ByteArrayInputStream(("run " + args[1]).getBytes())),
               System.out);
       imageProcessorController.startImageProcessingController();
@@ -28,7 +56,7 @@ public class ImageProcessingApplication {
     }
     ImageProcessorController imageProcessorController =
         new ImageProcessorController(new ViewLogger(System.out),
-            new ImageProcessorModel(), new InputStreamReader(System.in), System.out);
+            model, new InputStreamReader(System.in), System.out);
     imageProcessorController.startImageProcessingController();
   }
 }
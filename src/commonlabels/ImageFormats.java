@@ -7,7 +7,11 @@ public enum ImageFormats {
   JPEG("jpeg"),
   JPG("jpeg"),
   PNG("png"),
-  PPM("ppm");
+  PPM("ppm"),
+  PPM_BINARY("ppm"),
+  PGM("pgm"),
+  HAAR("haar"),
+  RAWIMG("rawimg");
 
   private final String stringValue;
 
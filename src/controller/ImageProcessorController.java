@@ -1,14 +1,19 @@
 package controller;
 
+import java.awt.Rectangle;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 import logger.ViewLogger;
+import model.imageio.SaveOptions;
+import model.imageio.SaveOptions.SaveOptionsBuilder;
 import model.imageprocessingmodel.ImageProcessorModelInterface;
 
 /**
@@ -16,6 +21,12 @@ import model.imageprocessingmodel.ImageProcessorModelInterface;
  */
 public class ImageProcessorController implements ControllerInterface {
 
+  private static final int PREFETCH_WINDOW = 4;
+  private static final String LOAD_USAGE = "Invalid load command. Usage: load <image-path> "
+      + "<image-name> [--region <x>,<y>,<width>,<height>] [--subsample <factor>]";
+  private static final String SAVE_USAGE = "Invalid save command. Usage: save <image-path> "
+      + "<image-name> [--quality <0-100>] [--compression <0-9|fastest>] [--ascii]";
+
   private final Readable in;
   private final ViewLogger viewLogger;
   private final ImageProcessorModelInterface imageProcessorModel;
@@ -63,7 +74,7 @@ public class ImageProcessorController implements ControllerInterface {
         if (parts.length == 1 && parts[0].isBlank()) {
           continue;
         }
-        if (parts.length == 1 && !parts[0].equals("exit")) {
+        if (parts.length == 1 && !parts[0].equals("exit") && !parts[0].equals("flush")) {
           throw new IllegalArgumentException("Invalid command. Try again.");
         }
         if (parts[0].equals("exit")) {
@@ -79,6 +90,12 @@ public class ImageProcessorController implements ControllerInterface {
         viewLogger.logException(e);
       }
     }
+    // Saves still being written in the background finish before the controller stops
+    try {
+      imageProcessorModel.flushSaves();
+    } catch (Exception e) {
+      viewLogger.logException(e);
+    }
   }
 
   /**
@@ -95,20 +112,18 @@ public class ImageProcessorController implements ControllerInterface {
       File scriptFile = new File(commandInput[1]);
 
       if (scriptFile.exists() && scriptFile.isFile()) {
+        List<String[]> commands = new ArrayList<>();
         try (BufferedReader reader = new BufferedReader(new FileReader(scriptFile))) {
           String line;
           while ((line = reader.readLine()) != null) {
-            try {
-              String[] parts = line.split(" ");
-              if (parts.length == 0) {
-                throw new IllegalArgumentException("Invalid command in the script file.");
-              }
-              processCommands(parts);
-            } catch (Exception e) {
-              viewLogger.logException(e);
-            }
+            commands.add(line.split(" "));
           }
         }
+        try {
+          runScript(commands);
+        } finally {
+          imageProcessorModel.discardPrefetchedImages();
+        }
       } else {
         throw new IllegalArgumentException("Invalid command : "
             + "File does not exist with name " + commandInput[1]);
@@ -116,6 +131,59 @@ public class ImageProcessorController implements ControllerInterface {
     }
   }
 
+  /**
+   * Runs the commands of a script. Up to PREFETCH_WINDOW upcoming plain loads are decoded in the
+   * background while earlier commands run, except for a file that an earlier save in the script
+   * has yet to write.
+   *
+   * @param commands the commands of the script, split on spaces
+   * @throws IOException if there is an issue with output
+   */
+  private void runScript(List<String[]> commands) throws IOException {
+    boolean[] prefetched = new boolean[commands.size()];
+    int outstanding = 0;
+    int scanned = 0;
+    for (int i = 0; i < commands.size(); i++) {
+      scanned = Math.max(scanned, i + 1);
+      while (outstanding < PREFETCH_WINDOW && scanned < commands.size()) {
+        String[] next = commands.get(scanned);
+        if (next.length == 3 && next[0].equals("load")) {
+          if (isSavedBetween(commands, i, scanned, next[1])) {
+            break;
+          }
+          imageProcessorModel.prefetchImage(next[1]);
+          prefetched[scanned] = true;
+          outstanding++;
+        }
+        scanned++;
+      }
+      if (prefetched[i]) {
+        outstanding--;
+      }
+      try {
+        String[] parts = commands.get(i);
+        if (parts.length == 0) {
+          throw new IllegalArgumentException("Invalid command in the script file.");
+        }
+        processCommands(parts);
+      } catch (Exception e) {
+        viewLogger.logException(e);
+      }
+    }
+  }
+
+  private boolean isSavedBetween(List<String[]> commands, int start, int end, String path) {
+    Path target = Paths.get(path).toAbsolutePath().normalize();
+    for (int i = start; i < end; i++) {
+      String[] parts = commands.get(i);
+      if (parts.length >= 3 && parts[0].equals("save")
+          && Paths.get(parts[1]).toAbsolutePath().normalize().equals(target)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private void processCommands(String[] parts) throws IOException {
     if (parts.length == 0) {
       throw new IllegalArgumentException("Invalid command. Try again.");
@@ -123,23 +191,59 @@ public class ImageProcessorController implements ControllerInterface {
     String command = parts[0];
     switch (command) {
       case "load":
-        if (parts.length != 3) {
+        if (parts.length == 3) {
+          imageProcessorModel.loadImage(parts[1], parts[2]);
+        } else if (parts.length == 5 || parts.length == 7) {
+          loadWithOptions(parts);
+        } else {
+          throw new IllegalArgumentException(LOAD_USAGE);
+        }
+        break;
+      case "load-preview":
+        if (parts.length != 4) {
           throw new IllegalArgumentException(
-              "Invalid load command. Usage: load <image-path> <image-name>");
+              "Invalid load command. Usage: load-preview <image-path> <level> <image-name>");
         } else {
-          imageProcessorModel.loadImage(parts[1], parts[2]);
+          imageProcessorModel.loadImagePreview(parts[1], parseInteger(parts[2], "Preview level"),
+              parts[3]);
         }
         break;
       case "save":
-        if (parts.length != 3) {
+        if (parts.length == 3) {
+          imageProcessorModel.saveImage(parts[1], parts[2]);
+        } else if (parts.length > 3) {
+          imageProcessorModel.saveImage(parts[1], parts[2], parseSaveOptions(parts));
+        } else {
+          throw new IllegalArgumentException(SAVE_USAGE);
+        }
+        break;
+      case "write-behind":
+        if (parts.length != 2 || !(parts[1].equals("on") || parts[1].equals("off"))) {
           throw new IllegalArgumentException(
-              "Invalid save command. Usage: save <image-path> <image-name>");
+              "Invalid write-behind command. Usage: write-behind <on|off>");
         } else {
-          imageProcessorModel.saveImage(parts[1], parts[2]);
+          imageProcessorModel.setWriteBehind(parts[1].equals("on"));
+        }
+        break;
+      case "lazy":
+        if (parts.length != 2 || !(parts[1].equals("on") || parts[1].equals("off"))) {
+          throw new IllegalArgumentException("Invalid lazy command. Usage: lazy <on|off>");
+        } else {
+          imageProcessorModel.setLazy(parts[1].equals("on"));
+        }
+        break;
+      case "flush":
+        if (parts.length != 1) {
+          throw new IllegalArgumentException("Invalid flush command. Usage: flush");
+        } else {
+          imageProcessorModel.flushSaves();
         }
         break;
       case "compress":
-        if (parts.length != 4) {
+        if (parts.length == 6 && parts[4].equals("tile")) {
+          imageProcessorModel.compressImage(parts[2], parts[3], parts[1],
+              parseInteger(parts[5], "Tile size"));
+        } else if (parts.length != 4) {
           throw new IllegalArgumentException(
               "Invalid save command. Usage: brighten <brightness-factor> "
                   + "<current-image-name> <new-image-name>");
@@ -230,10 +334,17 @@ public class ImageProcessorController implements ControllerInterface {
         }
         break;
       case "blur":
-        if (parts.length != 3 && parts.length != 5) {
+        if ((parts.length == 5 || (parts.length == 7 && parts[5].equals("split")))
+            && parts[3].equals("radius")) {
+          int radius = parseInteger(parts[4], "Blur radius");
+          imageProcessorModel.blurImage(parts[1], parts[2], radius,
+              parts.length == 7 ? parts[6] : "100");
+        } else if (parts.length != 3 && parts.length != 5) {
           throw new IllegalArgumentException(
               "Invalid component command. Usage: command <image-name> <dest-image-name> "
-                  + "or command <image-name> <dest-image-name> <percentage>");
+                  + "or command <image-name> <dest-image-name> <percentage> "
+                  + "or command <image-name> <dest-image-name> radius <radius> "
+                  + "or command <image-name> <dest-image-name> radius <radius> split <percentage>");
         } else {
           if (parts.length == 3) {
             imageProcessorModel.blurImage(parts[1], parts[2]);
@@ -242,6 +353,16 @@ public class ImageProcessorController implements ControllerInterface {
           }
         }
         break;
+      case "convolve":
+        if (parts.length != 4 && (parts.length != 6 || !parts[4].equals("split"))) {
+          throw new IllegalArgumentException(
+              "Invalid component command. Usage: command <kernel> <image-name> <dest-image-name> "
+                  + "or command <kernel> <image-name> <dest-image-name> split <percentage>");
+        } else {
+          imageProcessorModel.convolveImage(parts[2], parts[3], parts[1],
+              parts.length == 6 ? parts[5] : "100");
+        }
+        break;
       case "sepia":
         if (parts.length != 3 && parts.length != 5) {
           throw new IllegalArgumentException(
@@ -335,4 +456,58 @@ public class ImageProcessorController implements ControllerInterface {
             "Unknown command. Try again or type 'exit' to quit.");
     }
   }
+
+  private void loadWithOptions(String[] parts) throws IOException {
+    Rectangle region = null;
+    int subsample = 1;
+    for (int i = 3; i < parts.length; i += 2) {
+      switch (parts[i]) {
+        case "--region":
+          String[] values = parts[i + 1].split(",");
+          if (values.length != 4) {
+            throw new IllegalArgumentException(LOAD_USAGE);
+          }
+          region = new Rectangle(parseInteger(values[0], "Region x"),
+              parseInteger(values[1], "Region y"), parseInteger(values[2], "Region width"),
+              parseInteger(values[3], "Region height"));
+          break;
+        case "--subsample":
+          subsample = parseInteger(parts[i + 1], "Subsampling factor");
+          break;
+        default:
+          throw new IllegalArgumentException(LOAD_USAGE);
+      }
+    }
+    imageProcessorModel.loadImage(parts[1], parts[2], region, subsample);
+  }
+
+  private SaveOptions parseSaveOptions(String[] parts) {
+    SaveOptionsBuilder options = new SaveOptionsBuilder();
+    for (int i = 3; i < parts.length; i++) {
+      if (parts[i].equals("--ascii")) {
+        options.setAscii(true);
+      } else if (i + 1 == parts.length) {
+        throw new IllegalArgumentException(SAVE_USAGE);
+      } else if (parts[i].equals("--quality")) {
+        options.setQuality(parseInteger(parts[++i], "JPEG quality"));
+      } else if (parts[i].equals("--compression")) {
+        if (parts[++i].equals("fastest")) {
+          options.setFastest();
+        } else {
+          options.setCompressionLevel(parseInteger(parts[i], "PNG compression level"));
+        }
+      } else {
+        throw new IllegalArgumentException(SAVE_USAGE);
+      }
+    }
+    return options.build();
+  }
+
+  private int parseInteger(String value, String name) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(name + " should be an integer value");
+    }
+  }
 }
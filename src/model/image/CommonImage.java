@@ -1,6 +1,7 @@
 package model.image;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -11,6 +12,7 @@ public class CommonImage implements ImageInterface {
   private final int height;
   private final int width;
   private final List<int[][]> channels;
+  private final List<int[][]> channelView;
 
   /**
    * Constructs a RGB image object with the given height, width and channels.
@@ -27,18 +29,31 @@ public class CommonImage implements ImageInterface {
       }
     }
     this.channels = channels;
+    this.channelView = Collections.unmodifiableList(channels);
     this.height = channels.get(0).length;
     this.width = channels.get(0)[0].length;
   }
 
   /**
-   * The channels of the image is returned by this method.
+   * A read-only view of the channels of the image is returned by this method. The same view is
+   * returned on every call.
    *
    * @return the channels of the image
    */
   @Override
   public List<int[][]> getChannel() {
-    return new ArrayList<>(channels);
+    return channelView;
+  }
+
+  /**
+   * A single channel of the image is returned by this method.
+   *
+   * @param index the channel index
+   * @return the channel
+   */
+  @Override
+  public int[][] getChannel(int index) {
+    return channels.get(index);
   }
 
   /**
@@ -61,6 +76,42 @@ public class CommonImage implements ImageInterface {
     return width;
   }
 
+  /**
+   * The number of channels of the image is returned by this method.
+   *
+   * @return the number of channels
+   */
+  @Override
+  public int getChannelCount() {
+    return channels.size();
+  }
+
+  /**
+   * The value of a single sample is returned by this method.
+   *
+   * @param channel the channel index
+   * @param row     the row index
+   * @param col     the column index
+   * @return the sample value
+   */
+  @Override
+  public int getPixel(int channel, int row, int col) {
+    return channels.get(channel)[row][col];
+  }
+
+  /**
+   * Copies one row of a channel into the given array.
+   *
+   * @param channel the channel index
+   * @param row     the row index
+   * @param dest    the array to copy into
+   * @param offset  the position in the array of the first sample
+   */
+  @Override
+  public void getRow(int channel, int row, int[] dest, int offset) {
+    System.arraycopy(channels.get(channel)[row], 0, dest, offset, width);
+  }
+
   /**
    * This class helps to make builder of the image.
    */
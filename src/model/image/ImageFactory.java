@@ -2,6 +2,7 @@ package model.image;
 
 import java.util.List;
 import model.image.CommonImage.ImageBuilder;
+import model.image.PackedImage.PackedImageBuilder;
 
 /**
  * This class represents an image factory.
@@ -9,23 +10,112 @@ import model.image.CommonImage.ImageBuilder;
 public class ImageFactory {
 
   /**
-   * Creates an image with the given height, width and channels.
+   * Creates an image with the given height, width and channels. Channels whose samples fit in 8 or
+   * 16 bits are packed into planar storage, anything else is kept as it is.
    *
    * @param channelList the channels of the image
    * @return the image
    * @throws IllegalArgumentException if the number of channels is not 1 or 3
    */
   public static ImageInterface createImage(List<int[][]> channelList) {
-    if (channelList.size() == 1 || channelList.size() == 3) {
+    checkChannelCount(channelList.size());
+    int bitDepth = findBitDepth(channelList);
+    if (bitDepth == -1) {
       ImageBuilder imageBuilder = new CommonImage.ImageBuilder();
       for (int[][] ints : channelList) {
         imageBuilder.addChannel(ints);
       }
       return imageBuilder.build();
-    } else {
-      throw new IllegalArgumentException(channelList.size()
+    }
+    int height = channelList.get(0).length;
+    int width = channelList.get(0)[0].length;
+    PackedImageBuilder builder = new PackedImageBuilder(height, width, channelList.size(),
+        bitDepth);
+    for (int c = 0; c < channelList.size(); c++) {
+      int[][] channel = channelList.get(c);
+      for (int i = 0; i < height; i++) {
+        builder.setRow(c, i, channel[i], 0);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Creates a builder for an 8-bit packed image whose planes are filled in by the caller.
+   *
+   * @param height       the height of the image
+   * @param width        the width of the image
+   * @param channelCount the number of channels
+   * @return the image builder
+   * @throws IllegalArgumentException if the number of channels is not 1 or 3
+   */
+  public static PackedImageBuilder createImageBuilder(int height, int width, int channelCount) {
+    checkChannelCount(channelCount);
+    return new PackedImageBuilder(height, width, channelCount);
+  }
+
+  /**
+   * Creates a builder for a packed image of the given bit depth whose planes are filled in by the
+   * caller. Operations that copy samples of their source pass the bit depth of the source, so
+   * deep samples are not cut down to 8 bits.
+   *
+   * @param height       the height of the image
+   * @param width        the width of the image
+   * @param channelCount the number of channels
+   * @param bitDepth     the bit depth of the samples, 8 or 16
+   * @return the image builder
+   * @throws IllegalArgumentException if the number of channels is not 1 or 3 or the bit depth is
+   *                                  not 8 or 16
+   */
+  public static PackedImageBuilder createImageBuilder(int height, int width, int channelCount,
+      int bitDepth) {
+    checkChannelCount(channelCount);
+    return new PackedImageBuilder(height, width, channelCount, bitDepth);
+  }
+
+  private static void checkChannelCount(int channelCount) {
+    if (channelCount != 1 && channelCount != 3) {
+      throw new IllegalArgumentException(channelCount
           + " number of channel is not supported");
     }
   }
 
+  /**
+   * Finds the smallest packed bit depth that holds every sample of the channels.
+   *
+   * @param channelList the channels of the image
+   * @return 8 or 16, or -1 if the channels cannot be packed
+   */
+  private static int findBitDepth(List<int[][]> channelList) {
+    if (channelList.get(0).length == 0) {
+      return -1;
+    }
+    int height = channelList.get(0).length;
+    int width = channelList.get(0)[0].length;
+    if (width == 0) {
+      return -1;
+    }
+    int max = 0;
+    for (int[][] channel : channelList) {
+      if (channel.length != height) {
+        return -1;
+      }
+      for (int[] row : channel) {
+        if (row.length != width) {
+          return -1;
+        }
+        for (int value : row) {
+          if (value < 0) {
+            return -1;
+          }
+          max = Math.max(max, value);
+        }
+      }
+    }
+    if (max <= 0xFF) {
+      return 8;
+    }
+    return max <= 0xFFFF ? 16 : -1;
+  }
+
 }
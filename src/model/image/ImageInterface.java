@@ -8,12 +8,20 @@ import java.util.List;
 public interface ImageInterface {
 
   /**
-   * Returns the channels of the image.
+   * Returns a read-only view of the channels of the image.
    *
    * @return the channels of the image
    */
   List<int[][]> getChannel();
 
+  /**
+   * Returns a single channel of the image without building the whole channel list.
+   *
+   * @param index the channel index
+   * @return the channel
+   */
+  int[][] getChannel(int index);
+
   /**
    * Returns the height of the image.
    *
@@ -28,4 +36,53 @@ public interface ImageInterface {
    */
   int getWidth();
 
+  /**
+   * Returns the number of channels of the image.
+   *
+   * @return the number of channels
+   */
+  int getChannelCount();
+
+  /**
+   * Returns the value of a single sample of the image.
+   *
+   * @param channel the channel index
+   * @param row     the row index
+   * @param col     the column index
+   * @return the sample value
+   */
+  int getPixel(int channel, int row, int col);
+
+  /**
+   * Copies one row of a channel into the given array.
+   *
+   * @param channel the channel index
+   * @param row     the row index
+   * @param dest    the array to copy into
+   * @param offset  the position in the array of the first sample
+   */
+  void getRow(int channel, int row, int[] dest, int offset);
+
+  /**
+   * Returns the number of bits a packed copy of the image needs for each sample, 8 if every
+   * sample is between 0 and 255 and 16 otherwise. The samples are scanned unless the image knows
+   * its bit depth.
+   *
+   * @return 8 or 16
+   */
+  default int getBitDepth() {
+    int[] row = new int[getWidth()];
+    for (int c = 0; c < getChannelCount(); c++) {
+      for (int i = 0; i < getHeight(); i++) {
+        getRow(c, i, row, 0);
+        for (int value : row) {
+          if (value < 0 || value > 0xFF) {
+            return 16;
+          }
+        }
+      }
+    }
+    return 8;
+  }
+
 }
@@ -0,0 +1,430 @@
+package model.image;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents an image whose channels are stored as contiguous planar arrays. Every
+ * channel is one row-major plane with a row stride equal to the width of the image. 8-bit images
+ * are stored as bytes and deeper images as shorts, so a pixel costs one or two bytes per channel
+ * instead of a full int. The planes can also live outside the heap, in buffers mapped from a
+ * file, in which case the samples are only read from the file when they are first used.
+ */
+public class PackedImage implements ImageInterface {
+
+  private final int height;
+  private final int width;
+  private final int bitDepth;
+  private final byte[][] bytePlanes;
+  private final short[][] shortPlanes;
+  private final ByteBuffer[] bufferPlanes;
+
+  /**
+   * Constructs a packed image over the given planes. The planes are not copied.
+   *
+   * @param height       the height of the image
+   * @param width        the width of the image
+   * @param bitDepth     the bit depth of the samples, 8 or 16
+   * @param bytePlanes   the planes of an 8-bit image held in arrays, null otherwise
+   * @param shortPlanes  the planes of a 16-bit image held in arrays, null otherwise
+   * @param bufferPlanes the planes of an image held in buffers, null otherwise
+   */
+  private PackedImage(int height, int width, int bitDepth, byte[][] bytePlanes,
+      short[][] shortPlanes, ByteBuffer[] bufferPlanes) {
+    this.height = height;
+    this.width = width;
+    this.bitDepth = bitDepth;
+    this.bytePlanes = bytePlanes;
+    this.shortPlanes = shortPlanes;
+    this.bufferPlanes = bufferPlanes;
+  }
+
+  /**
+   * Creates a packed image that reads its samples straight from the given buffers, one row-major
+   * plane per channel. 8-bit samples take one byte and deeper samples two bytes, most significant
+   * first. The buffers are not copied, so a buffer mapped from a file is only read as its samples
+   * are used, and it must not change while the image is in use.
+   *
+   * @param height   the height of the image
+   * @param width    the width of the image
+   * @param bitDepth the bit depth of the samples, 8 or 16
+   * @param planes   the planes of the image, each starting at index 0
+   * @return the image
+   * @throws IllegalArgumentException if the dimensions or bit depth are not valid or a plane is
+   *                                  too small
+   */
+  public static ImageInterface wrap(int height, int width, int bitDepth, ByteBuffer[] planes)
+      throws IllegalArgumentException {
+    if (height <= 0 || width <= 0 || planes.length == 0) {
+      throw new IllegalArgumentException("Image dimensions must be positive");
+    }
+    if (bitDepth != 8 && bitDepth != 16) {
+      throw new IllegalArgumentException(bitDepth + " bit depth is not supported");
+    }
+    ByteBuffer[] bufferPlanes = new ByteBuffer[planes.length];
+    for (int c = 0; c < planes.length; c++) {
+      if (planes[c].capacity() < (long) height * width * (bitDepth / 8)) {
+        throw new IllegalArgumentException("Plane " + c + " is too small for the image");
+      }
+      // A private big-endian view, so the byte order, position and limit of the caller do not
+      // matter
+      bufferPlanes[c] = planes[c].duplicate().clear().order(ByteOrder.BIG_ENDIAN);
+    }
+    return new PackedImage(height, width, bitDepth, null, null, bufferPlanes);
+  }
+
+  /**
+   * A read-only list of the channels of the image is returned by this method. The planes are
+   * unpacked into new arrays, so operations should prefer {@link #getPixel(int, int, int)}.
+   *
+   * @return the channels of the image
+   */
+  @Override
+  public List<int[][]> getChannel() {
+    List<int[][]> channels = new ArrayList<>();
+    for (int c = 0; c < getChannelCount(); c++) {
+      channels.add(getChannel(c));
+    }
+    return Collections.unmodifiableList(channels);
+  }
+
+  /**
+   * A single channel of the image is returned by this method, unpacked into a new array.
+   *
+   * @param index the channel index
+   * @return the channel
+   */
+  @Override
+  public int[][] getChannel(int index) {
+    int[][] channel = new int[height][width];
+    for (int i = 0; i < height; i++) {
+      getRow(index, i, channel[i], 0);
+    }
+    return channel;
+  }
+
+  /**
+   * The height of the image is returned by this method.
+   *
+   * @return the height of the image
+   */
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * The width of the image is returned by this method.
+   *
+   * @return the width of the image
+   */
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * The number of channels of the image is returned by this method.
+   *
+   * @return the number of channels
+   */
+  @Override
+  public int getChannelCount() {
+    if (bufferPlanes != null) {
+      return bufferPlanes.length;
+    }
+    return bitDepth == 8 ? bytePlanes.length : shortPlanes.length;
+  }
+
+  /**
+   * The value of a single sample is returned by this method.
+   *
+   * @param channel the channel index
+   * @param row     the row index
+   * @param col     the column index
+   * @return the sample value
+   */
+  @Override
+  public int getPixel(int channel, int row, int col) {
+    return getPixel(channel, row * width + col);
+  }
+
+  /**
+   * The value of a single sample at the given offset in the plane is returned by this method.
+   *
+   * @param channel the channel index
+   * @param index   the offset of the sample, row * stride + column
+   * @return the sample value
+   */
+  public int getPixel(int channel, int index) {
+    if (bufferPlanes != null) {
+      return bitDepth == 8 ? bufferPlanes[channel].get(index) & 0xFF
+          : bufferPlanes[channel].getShort(index * 2) & 0xFFFF;
+    }
+    if (bitDepth == 8) {
+      return bytePlanes[channel][index] & 0xFF;
+    }
+    return shortPlanes[channel][index] & 0xFFFF;
+  }
+
+  /**
+   * The distance between the starts of two consecutive rows in a plane is returned by this method.
+   *
+   * @return the row stride
+   */
+  public int getStride() {
+    return width;
+  }
+
+  /**
+   * Checks whether the planes of the image are held in buffers, such as a mapped file, rather
+   * than in arrays on the heap.
+   *
+   * @return true if the planes are held in buffers
+   */
+  public boolean isBufferBacked() {
+    return bufferPlanes != null;
+  }
+
+  /**
+   * The bit depth of the samples is returned by this method.
+   *
+   * @return 8 or 16
+   */
+  @Override
+  public int getBitDepth() {
+    return bitDepth;
+  }
+
+  /**
+   * Copies one row of a channel into the given array.
+   *
+   * @param channel the channel index
+   * @param row     the row index
+   * @param dest    the array to copy into
+   * @param offset  the position in the array of the first sample
+   */
+  @Override
+  public void getRow(int channel, int row, int[] dest, int offset) {
+    int start = row * width;
+    if (bufferPlanes != null) {
+      ByteBuffer plane = bufferPlanes[channel];
+      for (int j = 0; j < width; j++) {
+        dest[offset + j] = bitDepth == 8 ? plane.get(start + j) & 0xFF
+            : plane.getShort((start + j) * 2) & 0xFFFF;
+      }
+    } else if (bitDepth == 8) {
+      byte[] plane = bytePlanes[channel];
+      for (int j = 0; j < width; j++) {
+        dest[offset + j] = plane[start + j] & 0xFF;
+      }
+    } else {
+      short[] plane = shortPlanes[channel];
+      for (int j = 0; j < width; j++) {
+        dest[offset + j] = plane[start + j] & 0xFFFF;
+      }
+    }
+  }
+
+  /**
+   * This class helps to build a packed image one sample at a time. The builder owns its planes
+   * until {@link #build()} hands them over to the image, so it must not be used afterwards.
+   */
+  public static class PackedImageBuilder {
+
+    private final int height;
+    private final int width;
+    private final int bitDepth;
+    private byte[][] bytePlanes;
+    private short[][] shortPlanes;
+
+    /**
+     * Constructs a builder for an 8-bit image with zeroed planes.
+     *
+     * @param height       the height of the image
+     * @param width        the width of the image
+     * @param channelCount the number of channels
+     */
+    public PackedImageBuilder(int height, int width, int channelCount) {
+      this(height, width, channelCount, 8);
+    }
+
+    /**
+     * Constructs a builder with zeroed planes of the given bit depth.
+     *
+     * @param height       the height of the image
+     * @param width        the width of the image
+     * @param channelCount the number of channels
+     * @param bitDepth     the bit depth of the samples, 8 or 16
+     * @throws IllegalArgumentException if the dimensions or bit depth are not valid
+     */
+    public PackedImageBuilder(int height, int width, int channelCount, int bitDepth)
+        throws IllegalArgumentException {
+      if (height <= 0 || width <= 0 || channelCount <= 0) {
+        throw new IllegalArgumentException("Image dimensions must be positive");
+      }
+      if (bitDepth != 8 && bitDepth != 16) {
+        throw new IllegalArgumentException(bitDepth + " bit depth is not supported");
+      }
+      this.height = height;
+      this.width = width;
+      this.bitDepth = bitDepth;
+      if (bitDepth == 8) {
+        this.bytePlanes = new byte[channelCount][height * width];
+      } else {
+        this.shortPlanes = new short[channelCount][height * width];
+      }
+    }
+
+    /**
+     * This method sets a single sample. The value is stored without clamping.
+     *
+     * @param channel the channel index
+     * @param row     the row index
+     * @param col     the column index
+     * @param value   the sample value
+     * @return this builder
+     */
+    public PackedImageBuilder setPixel(int channel, int row, int col, int value) {
+      setPixel(channel, row * width + col, value);
+      return this;
+    }
+
+    /**
+     * This method sets a single sample at the given offset in the plane.
+     *
+     * @param channel the channel index
+     * @param index   the offset of the sample, row * width + column
+     * @param value   the sample value
+     */
+    public void setPixel(int channel, int index, int value) {
+      if (bitDepth == 8) {
+        bytePlanes[channel][index] = (byte) value;
+      } else {
+        shortPlanes[channel][index] = (short) value;
+      }
+    }
+
+    /**
+     * This method returns a sample that was set earlier.
+     *
+     * @param channel the channel index
+     * @param row     the row index
+     * @param col     the column index
+     * @return the sample value
+     */
+    public int getPixel(int channel, int row, int col) {
+      if (bitDepth == 8) {
+        return bytePlanes[channel][row * width + col] & 0xFF;
+      }
+      return shortPlanes[channel][row * width + col] & 0xFFFF;
+    }
+
+    /**
+     * This method copies a run of samples from an array into one row of a channel.
+     *
+     * @param channel the channel index
+     * @param row     the row index
+     * @param values  the samples to copy
+     * @param offset  the position in the array of the first sample
+     * @return this builder
+     */
+    public PackedImageBuilder setRow(int channel, int row, int[] values, int offset) {
+      int start = row * width;
+      for (int j = 0; j < width; j++) {
+        setPixel(channel, start + j, values[offset + j]);
+      }
+      return this;
+    }
+
+    /**
+     * This method fills every plane from interleaved samples, all channels of the first pixel
+     * followed by all channels of the next, starting at the current position of the buffer. 8-bit
+     * samples take one byte and deeper samples two bytes, most significant first. A single channel
+     * 8-bit image is copied in one bulk transfer.
+     *
+     * @param source the buffer holding the samples
+     * @return this builder
+     */
+    public PackedImageBuilder readInterleaved(ByteBuffer source) {
+      int channelCount = bitDepth == 8 ? bytePlanes.length : shortPlanes.length;
+      if (bitDepth == 8 && channelCount == 1) {
+        source.get(bytePlanes[0], 0, height * width);
+        return this;
+      }
+      if (bitDepth == 8) {
+        byte[] row = new byte[width * channelCount];
+        for (int i = 0; i < height; i++) {
+          source.get(row);
+          int start = i * width;
+          for (int j = 0, k = 0; j < width; j++) {
+            for (int c = 0; c < channelCount; c++) {
+              bytePlanes[c][start + j] = row[k++];
+            }
+          }
+        }
+        return this;
+      }
+      for (int index = 0; index < height * width; index++) {
+        for (int c = 0; c < channelCount; c++) {
+          shortPlanes[c][index] = source.getShort();
+        }
+      }
+      return this;
+    }
+
+    /**
+     * This method copies a whole channel of another image into a channel of this builder.
+     *
+     * @param source        the image to copy from
+     * @param sourceChannel the channel of the source image
+     * @param channel       the channel of this builder to copy into
+     * @return this builder
+     * @throws IllegalArgumentException if the source has different dimensions
+     */
+    public PackedImageBuilder copyChannel(ImageInterface source, int sourceChannel, int channel)
+        throws IllegalArgumentException {
+      if (source.getHeight() != height || source.getWidth() != width) {
+        throw new IllegalArgumentException("Number of rows and columns must be the same");
+      }
+      if (source instanceof PackedImage && ((PackedImage) source).bitDepth == bitDepth) {
+        PackedImage packed = (PackedImage) source;
+        if (packed.bufferPlanes != null && bitDepth == 8) {
+          packed.bufferPlanes[sourceChannel].get(0, bytePlanes[channel], 0, height * width);
+        } else if (packed.bufferPlanes != null) {
+          packed.bufferPlanes[sourceChannel].asShortBuffer()
+              .get(0, shortPlanes[channel], 0, height * width);
+        } else if (bitDepth == 8) {
+          System.arraycopy(packed.bytePlanes[sourceChannel], 0, bytePlanes[channel], 0,
+              height * width);
+        } else {
+          System.arraycopy(packed.shortPlanes[sourceChannel], 0, shortPlanes[channel], 0,
+              height * width);
+        }
+        return this;
+      }
+      int[] row = new int[width];
+      for (int i = 0; i < height; i++) {
+        source.getRow(sourceChannel, i, row, 0);
+        setRow(channel, i, row, 0);
+      }
+      return this;
+    }
+
+    /**
+     * This method builds the image.
+     *
+     * @return the image
+     */
+    public ImageInterface build() {
+      ImageInterface image = new PackedImage(height, width, bitDepth, bytePlanes, shortPlanes,
+          null);
+      bytePlanes = null;
+      shortPlanes = null;
+      return image;
+    }
+  }
+}
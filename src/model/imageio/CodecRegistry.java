@@ -0,0 +1,87 @@
+package model.imageio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * This class keeps one shared instance of every IOFileByFormat codec. The codecs of this package
+ * are always registered, and codecs of other libraries are added through a ServiceLoader when they
+ * list themselves in META-INF/services/model.imageio.IOFileByFormat. A file to decode is matched
+ * by its first bytes before its extension, so files without an extension or with the wrong one
+ * still go to the right codec.
+ */
+class CodecRegistry {
+
+  private static final int HEADER_LENGTH = 16;
+  private static final List<IOFileByFormat> CODECS = loadCodecs();
+
+  private static List<IOFileByFormat> loadCodecs() {
+    List<IOFileByFormat> codecs = new ArrayList<>(Arrays.asList(new PPMFileAdapter(),
+        new CommonFormatsFileAdapter(), new HaarFileAdapter(), new RawImageFileAdapter()));
+    try {
+      for (IOFileByFormat codec : ServiceLoader.load(IOFileByFormat.class)) {
+        if (codecs.stream().noneMatch(registered -> registered.getClass() == codec.getClass())) {
+          codecs.add(codec);
+        }
+      }
+    } catch (ServiceConfigurationError e) {
+      // A broken provider leaves the codecs found before it registered
+    }
+    return Collections.unmodifiableList(codecs);
+  }
+
+  /**
+   * Every registered codec is returned by this method, the codecs of this package first.
+   *
+   * @return the codecs
+   */
+  static List<IOFileByFormat> getCodecs() {
+    return CODECS;
+  }
+
+  /**
+   * This method returns the codec that handles the given file extension.
+   *
+   * @param extension the file extension, in any case
+   * @return the codec, or null if no codec handles the extension
+   */
+  static IOFileByFormat forExtension(String extension) {
+    String lowerCase = extension.toLowerCase(Locale.ROOT);
+    for (IOFileByFormat codec : CODECS) {
+      if (codec.getFileExtensions().contains(lowerCase)) {
+        return codec;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * This method returns the codec that recognizes the first bytes of the given file.
+   *
+   * @param filename the file to decode
+   * @return the codec, or null if the file cannot be read or no codec recognizes it
+   */
+  static IOFileByFormat forContent(String filename) {
+    byte[] header;
+    try (InputStream in = Files.newInputStream(Paths.get(filename))) {
+      header = in.readNBytes(HEADER_LENGTH);
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+    for (IOFileByFormat codec : CODECS) {
+      if (codec.canDecode(header)) {
+        return codec;
+      }
+    }
+    return null;
+  }
+}
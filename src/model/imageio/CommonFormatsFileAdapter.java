@@ -1,20 +1,55 @@
 package model.imageio;
 
 import commonlabels.ImageFormats;
+import java.awt.Rectangle;
+import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
 import model.image.ImageFactory;
 import model.image.ImageInterface;
+import model.image.PackedImage.PackedImageBuilder;
 
 /**
- * For JPG and PNG files, we will use the ImageIO class from the Java standard library.
+ * For JPG and PNG files, we will use the ImageIO class from the Java standard library. Pixels are
+ * copied straight between the image and the data buffer of the raster for the common layouts, and
+ * one row at a time through the color model for any other layout.
  */
 public class CommonFormatsFileAdapter implements IOFileByFormat {
 
+  private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+  @Override
+  public List<String> getFileExtensions() {
+    return Arrays.asList("png", "jpg", "jpeg");
+  }
+
+  @Override
+  public boolean canDecode(byte[] header) {
+    boolean png = header.length >= PNG_SIGNATURE.length
+        && Arrays.equals(PNG_SIGNATURE, Arrays.copyOf(header, PNG_SIGNATURE.length));
+    boolean jpeg = header.length >= 3 && (header[0] & 0xFF) == 0xFF
+        && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF;
+    return png || jpeg;
+  }
+
   /**
    * Encodes and saves an image in the specified file format.
    *
@@ -26,34 +61,97 @@ public class CommonFormatsFileAdapter implements IOFileByFormat {
   @Override
   public void encodeAndSaveImage(String filename, ImageInterface image,
       ImageFormats format) throws IOException {
+    encodeAndSaveImage(filename, image, format, SaveOptions.DEFAULT);
+  }
+
+  /**
+   * Encodes and saves an image in the specified file format through an ImageWriter. The JPEG
+   * quality and the PNG compression level of the options are handed to the writer through its
+   * ImageWriteParam.
+   *
+   * @param filename the name of the file to save the image to
+   * @param image    the image to be saved
+   * @param format   the image format to use (e.g., JPEG, PNG)
+   * @param options  the encoder settings
+   * @throws IOException if an error occurs during the encoding and saving process
+   */
+  @Override
+  public void encodeAndSaveImage(String filename, ImageInterface image, ImageFormats format,
+      SaveOptions options) throws IOException {
+    Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format.toString());
+    if (!writers.hasNext()) {
+      throw new IOException("No encoder for " + format + " images");
+    }
+    ImageWriter writer = writers.next();
+    ImageWriteParam param = writer.getDefaultWriteParam();
+    if (format == ImageFormats.PNG && options.getCompressionLevel() >= 0) {
+      // The PNG writer deflates at level 9 - round(9 * quality)
+      param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      param.setCompressionQuality((9 - options.getCompressionLevel()) / 9f);
+    } else if (format != ImageFormats.PNG && options.getQuality() >= 0) {
+      param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      param.setCompressionQuality(options.getQuality() / 100f);
+    }
+    File outputFile = new File(filename);
+    // An image output stream does not truncate a longer file it writes over
+    Files.deleteIfExists(outputFile.toPath());
+    try (ImageOutputStream output = ImageIO.createImageOutputStream(outputFile)) {
+      if (output == null) {
+        throw new IOException("Can't create an output stream for " + filename);
+      }
+      writer.setOutput(output);
+      writer.write(null, new IIOImage(toBufferedImage(image), null, null), param);
+    } finally {
+      writer.dispose();
+    }
+  }
+
+  private BufferedImage toBufferedImage(ImageInterface image) {
     int height = image.getHeight();
     int width = image.getWidth();
-    int[][] redPixels;
-    int[][] greenPixels;
-    int[][] bluePixels;
-    if (image.getChannel().size() == 3) {
-      redPixels = image.getChannel().get(0);
-      greenPixels = image.getChannel().get(1);
-      bluePixels = image.getChannel().get(2);
-    } else {
-      redPixels = image.getChannel().get(0);
-      greenPixels = image.getChannel().get(0);
-      bluePixels = image.getChannel().get(0);
-    }
-    BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    int redChannel = 0;
+    int greenChannel = image.getChannelCount() == 3 ? 1 : 0;
+    int blueChannel = image.getChannelCount() == 3 ? 2 : 0;
+    boolean deep = image.getBitDepth() == 16;
+    // The image writers encode byte rasters faster than packed int rasters
+    BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+    byte[] data = ((DataBufferByte) bufferedImage.getRaster().getDataBuffer()).getData();
+    int[] red = new int[width];
+    int[] green = new int[width];
+    int[] blue = new int[width];
     for (int i = 0; i < height; i++) {
+      image.getRow(redChannel, i, red, 0);
+      image.getRow(greenChannel, i, green, 0);
+      image.getRow(blueChannel, i, blue, 0);
+      if (deep) {
+        scaleToEightBits(red);
+        scaleToEightBits(green);
+        scaleToEightBits(blue);
+      }
+      int index = i * width * 3;
       for (int j = 0; j < width; j++) {
-
-        int rgb = (redPixels[i][j] << 16) | (greenPixels[i][j] << 8) | bluePixels[i][j];
-        bufferedImage.setRGB(j, i, rgb);
+        data[index++] = (byte) blue[j];
+        data[index++] = (byte) green[j];
+        data[index++] = (byte) red[j];
       }
     }
-    File outputFile = new File(filename);
-    ImageIO.write(bufferedImage, format.toString(), outputFile);
+    return bufferedImage;
   }
 
   /**
-   * This method decodes the image from the given filename.
+   * Scales 16-bit samples to 8 bits, rounding to the nearest value, since PNG and JPEG files are
+   * written with 8 bits per sample. Samples outside 0 to 65535 are clamped first.
+   */
+  private static void scaleToEightBits(int[] row) {
+    for (int j = 0; j < row.length; j++) {
+      int value = Math.max(0, Math.min(65535, row[j]));
+      row[j] = (value * 255 + 32767) / 65535;
+    }
+  }
+
+  /**
+   * This method decodes the image from the given filename. Images whose samples are all equal
+   * across the red, green and blue channels are returned as a single channel image.
    *
    * @param filename the filename to read the image from
    * @return the decoded image
@@ -63,31 +161,158 @@ public class CommonFormatsFileAdapter implements IOFileByFormat {
   public ImageInterface decodeImage(String filename) throws IOException {
     File pngFile = new File(filename);
     BufferedImage image = ImageIO.read(pngFile);
+    if (image == null) {
+      throw new IOException("Unsupported image file: " + filename);
+    }
+    return toImage(image);
+  }
+
+  /**
+   * This method decodes a region of the image from the given filename. The region and the
+   * subsampling are handed to the image reader, so pixels outside the region or between the kept
+   * pixels are never stored.
+   *
+   * @param filename  the filename to read the image
+   * @param region    the region to load, or null for the whole image
+   * @param subsample the subsampling factor, 1 to keep every pixel
+   * @return the image read from the file
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if the factor is not positive or the region does not lie
+   *                                  inside the image
+   */
+  @Override
+  public ImageInterface decodeImage(String filename, Rectangle region, int subsample)
+      throws IOException, IllegalArgumentException {
+    File file = new File(filename);
+    if (!file.isFile()) {
+      throw new IOException("Can't read input file!");
+    }
+    try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+      Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+      if (readers == null || !readers.hasNext()) {
+        throw new IOException("Unsupported image file: " + filename);
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, true, true);
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(RegionSampling.resolve(region, subsample, reader.getWidth(0),
+            reader.getHeight(0)));
+        param.setSourceSubsampling(subsample, subsample, 0, 0);
+        return toImage(reader.read(0, param));
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  private ImageInterface toImage(BufferedImage image) {
     int height = image.getHeight();
     int width = image.getWidth();
-    int[][] redPixels = new int[height][width];
-    int[][] greenPixels = new int[height][width];
-    int[][] bluePixels = new int[height][width];
+    if (isByteGray(image)) {
+      PackedImageBuilder pixels = ImageFactory.createImageBuilder(height, width, 1);
+      int[] grey = new int[width];
+      for (int i = 0; i < height; i++) {
+        image.getRaster().getSamples(0, i, width, 1, 0, grey);
+        pixels.setRow(0, i, grey, 0);
+      }
+      return pixels.build();
+    }
+
+    PackedImageBuilder pixels = ImageFactory.createImageBuilder(height, width, 3);
+    int[] red = new int[width];
+    int[] green = new int[width];
+    int[] blue = new int[width];
+    RowReader rowReader = createRowReader(image);
     boolean isGrayscale = true;
     for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-
-        int pixel = image.getRGB(j, i);
-        redPixels[i][j] = (pixel >> 16) & 0xff;
-        greenPixels[i][j] = (pixel >> 8) & 0xff;
-        bluePixels[i][j] = (pixel) & 0xff;
-        if (redPixels[i][j] == greenPixels[i][j]
-            && redPixels[i][j] == bluePixels[i][j] && isGrayscale) {
-          continue;
-        } else {
-          isGrayscale = false;
-        }
+      rowReader.read(i, red, green, blue);
+      for (int j = 0; j < width && isGrayscale; j++) {
+        isGrayscale = red[j] == green[j] && red[j] == blue[j];
       }
+      pixels.setRow(0, i, red, 0);
+      pixels.setRow(1, i, green, 0);
+      pixels.setRow(2, i, blue, 0);
     }
+    ImageInterface decodedImage = pixels.build();
     if (isGrayscale) {
-      return ImageFactory.createImage(Collections.singletonList(redPixels));
+      return ImageFactory.createImageBuilder(height, width, 1)
+          .copyChannel(decodedImage, 0, 0).build();
     }
-    return ImageFactory.createImage(Arrays.asList(redPixels, greenPixels, bluePixels));
+    return decodedImage;
+  }
 
+  /**
+   * Reads one row of an image split into its red, green and blue samples.
+   */
+  private interface RowReader {
+
+    void read(int row, int[] red, int[] green, int[] blue);
+  }
+
+  /**
+   * Picks the fastest way to read the rows of the given image. Interleaved byte rasters in sRGB,
+   * such as TYPE_3BYTE_BGR and TYPE_4BYTE_ABGR, and packed TYPE_INT_RGB and TYPE_INT_ARGB rasters
+   * are read straight from their data buffer. Any other layout goes through the color model.
+   */
+  private static RowReader createRowReader(BufferedImage image) {
+    Raster raster = image.getRaster();
+    int width = image.getWidth();
+    boolean direct = raster.getSampleModelTranslateX() == 0
+        && raster.getSampleModelTranslateY() == 0 && !image.isAlphaPremultiplied()
+        && image.getColorModel().getColorSpace().isCS_sRGB();
+    if (direct && raster.getDataBuffer() instanceof DataBufferByte
+        && raster.getDataBuffer().getNumBanks() == 1
+        && raster.getSampleModel() instanceof ComponentSampleModel
+        && raster.getNumBands() >= 3 && raster.getSampleModel().getSampleSize(0) == 8) {
+      byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+      ComponentSampleModel sampleModel = (ComponentSampleModel) raster.getSampleModel();
+      int scanlineStride = sampleModel.getScanlineStride();
+      int pixelStride = sampleModel.getPixelStride();
+      int[] bandOffsets = sampleModel.getBandOffsets();
+      int offset = raster.getDataBuffer().getOffset();
+      return (row, red, green, blue) -> {
+        int index = offset + row * scanlineStride;
+        for (int j = 0; j < width; j++, index += pixelStride) {
+          red[j] = data[index + bandOffsets[0]] & 0xFF;
+          green[j] = data[index + bandOffsets[1]] & 0xFF;
+          blue[j] = data[index + bandOffsets[2]] & 0xFF;
+        }
+      };
+    }
+    if (direct && (image.getType() == BufferedImage.TYPE_INT_RGB
+        || image.getType() == BufferedImage.TYPE_INT_ARGB)) {
+      int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+      int scanlineStride = ((SinglePixelPackedSampleModel) raster.getSampleModel())
+          .getScanlineStride();
+      int offset = raster.getDataBuffer().getOffset();
+      return (row, red, green, blue) -> unpack(data, offset + row * scanlineStride, width, red,
+          green, blue);
+    }
+    int[] rgb = new int[width];
+    return (row, red, green, blue) -> {
+      image.getRGB(0, row, width, 1, rgb, 0, width);
+      unpack(rgb, 0, width, red, green, blue);
+    };
+  }
+
+  private static void unpack(int[] pixels, int start, int width, int[] red, int[] green,
+      int[] blue) {
+    for (int j = 0; j < width; j++) {
+      int pixel = pixels[start + j];
+      red[j] = (pixel >> 16) & 0xff;
+      green[j] = (pixel >> 8) & 0xff;
+      blue[j] = pixel & 0xff;
+    }
+  }
+
+  /**
+   * Checks if the image is an 8-bit greyscale image, whose samples are read as they are stored
+   * rather than converted to sRGB by the color model.
+   */
+  private static boolean isByteGray(BufferedImage image) {
+    return image.getRaster().getNumBands() == 1
+        && image.getRaster().getSampleModel().getSampleSize(0) == 8
+        && image.getColorModel().getColorSpace().getType() == ColorSpace.TYPE_GRAY;
   }
 }
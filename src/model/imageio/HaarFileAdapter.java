@@ -0,0 +1,161 @@
+package model.imageio;
+
+import commonlabels.ImageFormats;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import model.image.ImageInterface;
+import model.operations.pixeloffset.CompressedImage;
+import model.operations.pixeloffset.CompressionOperation;
+import model.operations.pixeloffset.WaveletCoefficients;
+
+/**
+ * This class reads and writes images as sparse Haar wavelet coefficients. A compressed image is
+ * written with the coefficients that survived its threshold, and any other image is transformed
+ * first without dropping coefficients. The file starts with the magic bytes HAAR, a version byte,
+ * the height, width, number of channels and tile size, and then holds every stream prefixed with
+ * its length.
+ */
+public class HaarFileAdapter implements IOFileByFormat {
+
+  private static final int MAGIC = ('H' << 24) | ('A' << 16) | ('A' << 8) | 'R';
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 21;
+  // A variable length integer holds at most 64 bits, 7 in every byte
+  private static final int MAX_VARINT_BYTES = 10;
+
+  @Override
+  public List<String> getFileExtensions() {
+    return Collections.singletonList("haar");
+  }
+
+  @Override
+  public boolean canDecode(byte[] header) {
+    return header.length >= 4 && header[0] == 'H' && header[1] == 'A' && header[2] == 'A'
+        && header[3] == 'R';
+  }
+
+  /**
+   * This method encodes and saves the image in the given filename.
+   *
+   * @param filename the filename to save the image
+   * @param image    the image to be saved
+   * @throws IOException if the file cannot be saved
+   */
+  @Override
+  public void encodeAndSaveImage(String filename, ImageInterface image,
+      ImageFormats format) throws IOException {
+    if (!(image instanceof CompressedImage)) {
+      image = new CompressionOperation().apply(image, "0");
+    }
+    WaveletCoefficients coefficients = ((CompressedImage) image).getCoefficients();
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(filename)))) {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      out.writeInt(coefficients.getHeight());
+      out.writeInt(coefficients.getWidth());
+      out.writeInt(coefficients.getChannelCount());
+      out.writeInt(coefficients.getTileSize());
+      for (int s = 0; s < coefficients.getStreamCount(); s++) {
+        byte[] stream = coefficients.getStream(s);
+        out.writeInt(stream.length);
+        out.write(stream);
+      }
+    }
+  }
+
+  /**
+   * This method decodes the image from the given filename. Only the inverse transform is applied.
+   *
+   * @param filename the filename to read the image
+   * @return the image read from the file
+   * @throws IOException if the file cannot be read
+   */
+  @Override
+  public ImageInterface decodeImage(String filename) throws IOException {
+    WaveletCoefficients coefficients = readCoefficients(filename);
+    return new CompressedImage(coefficients.reconstruct(), coefficients);
+  }
+
+  /**
+   * This method reads the coefficients stored in the given file without reconstructing the image.
+   *
+   * @param filename the filename to read the coefficients from
+   * @return the coefficients
+   * @throws IOException if the file cannot be read or is not a valid wavelet file
+   */
+  public WaveletCoefficients readCoefficients(String filename) throws IOException {
+    long remaining = Files.size(Paths.get(filename));
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(filename)))) {
+      if (remaining < HEADER_SIZE || in.readInt() != MAGIC) {
+        throw new IOException("Invalid file format");
+      }
+      if (in.readUnsignedByte() != VERSION) {
+        throw new IOException("Unsupported wavelet file version");
+      }
+      int height = in.readInt();
+      int width = in.readInt();
+      int channelCount = in.readInt();
+      int tileSize = in.readInt();
+      if (height <= 0 || width <= 0 || (channelCount != 1 && channelCount != 3)
+          || tileSize < 0) {
+        throw new IOException("Invalid file format");
+      }
+      if ((long) height * width > Integer.MAX_VALUE
+          || (long) Math.max(height, width) + tileSize > Integer.MAX_VALUE) {
+        throw new IOException("Invalid wavelet file: unsupported dimensions or tile size");
+      }
+      long tiles = tileSize == 0 ? 1 : ((height + (long) tileSize - 1) / tileSize)
+          * ((width + (long) tileSize - 1) / tileSize);
+      remaining -= HEADER_SIZE;
+      // Every stream takes at least the four bytes of its length
+      if (tiles * channelCount > remaining / 4) {
+        throw new IOException("Invalid wavelet file: unexpected end of file");
+      }
+      byte[][] streams = new byte[(int) (tiles * channelCount)][];
+      for (int s = 0; s < streams.length; s++) {
+        int length = in.readInt();
+        remaining -= 4;
+        if (length < 0 || length > remaining) {
+          throw new IOException("Invalid wavelet file: stream " + s + " has an invalid length");
+        }
+        remaining -= length;
+        streams[s] = new byte[length];
+        in.readFully(streams[s]);
+        if (!isComplete(streams[s])) {
+          throw new IOException("Invalid wavelet file: stream " + s + " is truncated");
+        }
+      }
+      return new WaveletCoefficients(height, width, channelCount, tileSize, streams);
+    }
+  }
+
+  /**
+   * This method checks that a stream is made of whole pairs of variable length integers, a count
+   * of zeros followed by a value, so it can be decoded to its end.
+   */
+  private static boolean isComplete(byte[] stream) {
+    int integers = 0;
+    int length = 0;
+    for (byte b : stream) {
+      length++;
+      if ((b & 0x80) == 0) {
+        integers++;
+        length = 0;
+      } else if (length == MAX_VARINT_BYTES) {
+        return false;
+      }
+    }
+    return length == 0 && integers % 2 == 0;
+  }
+}
@@ -1,11 +1,16 @@
 package model.imageio;
 
 import commonlabels.ImageFormats;
+import java.awt.Rectangle;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import model.image.ImageInterface;
 
 /**
- * This interface helps in IO operations for different file formats.
+ * This interface helps in IO operations for different file formats. Codecs outside this package
+ * are found by IOFileFactory when they are listed in META-INF/services/model.imageio.IOFileByFormat
+ * and have a public no argument constructor.
  */
 public interface IOFileByFormat {
 
@@ -19,6 +24,22 @@ public interface IOFileByFormat {
   void encodeAndSaveImage(String filename, ImageInterface image,
       ImageFormats format) throws IOException;
 
+  /**
+   * This method encodes and saves the image in the given filename with the given encoder
+   * settings. By default the settings are ignored; formats with tunable encoders override this
+   * method.
+   *
+   * @param filename the filename to save the image
+   * @param image    the image to be saved
+   * @param format   the format to save the image in
+   * @param options  the encoder settings
+   * @throws IOException if the file cannot be saved
+   */
+  default void encodeAndSaveImage(String filename, ImageInterface image, ImageFormats format,
+      SaveOptions options) throws IOException {
+    encodeAndSaveImage(filename, image, format);
+  }
+
   /**
    * This method decodes the image from the given filename.
    *
@@ -27,4 +48,42 @@ public interface IOFileByFormat {
    * @throws IOException if the file cannot be read
    */
   ImageInterface decodeImage(String filename) throws IOException;
+
+  /**
+   * The file extensions this codec saves and loads are returned by this method, in lower case.
+   *
+   * @return the file extensions
+   */
+  default List<String> getFileExtensions() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Checks whether the codec can decode a file that starts with the given bytes, whatever the
+   * extension of the file.
+   *
+   * @param header the first bytes of the file, fewer for a short file
+   * @return true if the bytes carry the signature of the format
+   */
+  default boolean canDecode(byte[] header) {
+    return false;
+  }
+
+  /**
+   * This method decodes a region of the image from the given filename and keeps every
+   * subsample-th pixel of every subsample-th row of it. By default the whole image is decoded and
+   * then cropped; formats that can skip pixels while decoding override this method.
+   *
+   * @param filename  the filename to read the image
+   * @param region    the region to load, or null for the whole image
+   * @param subsample the subsampling factor, 1 to keep every pixel
+   * @return the image read from the file
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if the factor is not positive or the region does not lie
+   *                                  inside the image
+   */
+  default ImageInterface decodeImage(String filename, Rectangle region, int subsample)
+      throws IOException, IllegalArgumentException {
+    return RegionSampling.apply(decodeImage(filename), region, subsample);
+  }
 }
@@ -1,12 +1,16 @@
 package model.imageio;
 
 import commonlabels.ImageFormats;
+import java.awt.Rectangle;
 import java.io.IOException;
+import java.util.Locale;
 import model.image.ImageInterface;
 
 /**
  * This class is a factory for IOFileByFormat objects. It provides methods for encoding and saving
- * images as well as decoding images from files based on their file extensions.
+ * images as well as decoding images from files. Images are saved with the codec of their file
+ * extension, and files are decoded with the codec that recognizes their first bytes, falling back
+ * to the extension. Images are saved to .ppm and .pgm files in the binary P6 and P5 formats.
  */
 public class IOFileFactory {
 
@@ -16,31 +20,76 @@ public class IOFileFactory {
    * @param filename the filename to save the image
    * @param image    the image to be saved
    * @throws IOException              if an error occurs during the encoding and saving process
-   * @throws IllegalArgumentException if the filename has an invalid file extension
+   * @throws IllegalArgumentException if the filename has an invalid file extension, or a color
+   *                                  image is saved as .pgm
    */
   public static void encodeAndSaveImage(String filename, ImageInterface image)
       throws IOException, IllegalArgumentException {
+    encodeAndSaveImage(filename, image, SaveOptions.DEFAULT);
+  }
+
+  /**
+   * Encodes and saves an image to a file with the specified filename and encoder settings. The
+   * format follows the file extension: .jpg and .jpeg files are written as JPEG, .png files as
+   * PNG, and .ppm files as binary P6 unless plain output is asked for.
+   *
+   * @param filename the filename to save the image
+   * @param image    the image to be saved
+   * @param options  the encoder settings
+   * @throws IOException              if an error occurs during the encoding and saving process
+   * @throws IllegalArgumentException if the filename has an invalid file extension, a setting
+   *                                  does not apply to the format, or a color image is saved as
+   *                                  .pgm
+   */
+  public static void encodeAndSaveImage(String filename, ImageInterface image,
+      SaveOptions options) throws IOException, IllegalArgumentException {
     // Extract the file extension from the filename
     String fileExtension = getFileExtension(filename);
 
     if (fileExtension == null) {
       throw new IllegalArgumentException("Invalid file");
     }
+    String extension = fileExtension.toLowerCase(Locale.ROOT);
+    boolean jpeg = extension.equals("jpg") || extension.equals("jpeg");
+    if (options.getQuality() >= 0 && !jpeg) {
+      throw new IllegalArgumentException("JPEG quality only applies to .jpg and .jpeg files");
+    }
+    if (options.getCompressionLevel() >= 0 && !extension.equals("png")) {
+      throw new IllegalArgumentException("PNG compression only applies to .png files");
+    }
+    if (options.isAscii() && !extension.equals("ppm")) {
+      throw new IllegalArgumentException("Plain ASCII output only applies to .ppm files");
+    }
+
+    // Select the registered codec that handles the file extension
+    IOFileByFormat codec = CodecRegistry.forExtension(extension);
+    if (codec == null) {
+      throw new IllegalArgumentException("Invalid file extension");
+    }
+    codec.encodeAndSaveImage(filename, image, getFormat(extension, options), options);
+  }
 
-    // Select the appropriate IOFileByFormat implementation based on the file extension
-    switch (fileExtension) {
+  /**
+   * Returns the format a file with the given extension is saved in, or null for an extension
+   * that only a codec of another library handles.
+   */
+  private static ImageFormats getFormat(String extension, SaveOptions options) {
+    switch (extension) {
       case "ppm":
-        IOFileByFormat ppmFileAdapter = new PPMFileAdapter();
-        ppmFileAdapter.encodeAndSaveImage(filename, image, ImageFormats.PPM);
-        break;
+        return options.isAscii() ? ImageFormats.PPM : ImageFormats.PPM_BINARY;
+      case "pgm":
+        return ImageFormats.PGM;
       case "png":
+        return ImageFormats.PNG;
       case "jpg":
       case "jpeg":
-        IOFileByFormat commonFormatsFileAdapter = new CommonFormatsFileAdapter();
-        commonFormatsFileAdapter.encodeAndSaveImage(filename, image, ImageFormats.PNG);
-        break;
+        return ImageFormats.JPEG;
+      case "haar":
+        return ImageFormats.HAAR;
+      case "rawimg":
+        return ImageFormats.RAWIMG;
       default:
-        throw new IllegalArgumentException("Invalid file extension");
+        return null;
     }
   }
 
@@ -54,26 +103,64 @@ public class IOFileFactory {
    */
   public static ImageInterface decodeImage(String filename)
       throws IOException, IllegalArgumentException {
+    return getDecoder(filename).decodeImage(filename);
+  }
+
+  /**
+   * Decodes a region of an image from the given filename, keeping every subsample-th pixel of
+   * every subsample-th row of it. PNG and JPEG files skip the other pixels while decoding.
+   *
+   * @param filename  the filename to read the image from
+   * @param region    the region to load, or null for the whole image
+   * @param subsample the subsampling factor, 1 to keep every pixel
+   * @return the decoded image
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if the filename has an invalid file extension, the factor is
+   *                                  not positive or the region does not lie inside the image
+   */
+  public static ImageInterface decodeImage(String filename, Rectangle region, int subsample)
+      throws IOException, IllegalArgumentException {
+    return getDecoder(filename).decodeImage(filename, region, subsample);
+  }
+
+  /**
+   * Returns the codec that recognizes the first bytes of the file, or the codec of its extension
+   * if none does or the file cannot be read.
+   */
+  private static IOFileByFormat getDecoder(String filename) throws IllegalArgumentException {
+    IOFileByFormat codec = CodecRegistry.forContent(filename);
+    if (codec != null) {
+      return codec;
+    }
     // Extract the file extension from the filename
     String fileExtension = getFileExtension(filename);
 
     if (fileExtension == null) {
       throw new IllegalArgumentException("Invalid file");
     }
+    codec = CodecRegistry.forExtension(fileExtension);
+    if (codec == null) {
+      throw new IllegalArgumentException("Invalid file extension");
+    }
+    return codec;
+  }
 
-    // Select the appropriate IOFileByFormat implementation based on the file extension
-    switch (fileExtension) {
-      case "ppm":
-        IOFileByFormat ppmFileAdapter = new PPMFileAdapter();
-        return ppmFileAdapter.decodeImage(filename);
-      case "png":
-      case "jpg":
-      case "jpeg":
-        IOFileByFormat commonFormatsFileAdapter = new CommonFormatsFileAdapter();
-        return commonFormatsFileAdapter.decodeImage(filename);
-      default:
-        throw new IllegalArgumentException("Invalid file extension");
+  /**
+   * Decodes a preview of a wavelet image scaled down by 2 to the power of the level.
+   *
+   * @param filename the filename to read the image from
+   * @param level    the number of halvings, 0 for the full image
+   * @return the preview
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if the file is not a .haar file or the level is negative
+   */
+  public static ImageInterface decodeImagePreview(String filename, int level)
+      throws IOException, IllegalArgumentException {
+    IOFileByFormat codec = getDecoder(filename);
+    if (!(codec instanceof HaarFileAdapter)) {
+      throw new IllegalArgumentException("Previews can only be loaded from .haar files");
     }
+    return ((HaarFileAdapter) codec).readCoefficients(filename).preview(level);
   }
 
   /**
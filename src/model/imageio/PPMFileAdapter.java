@@ -1,62 +1,176 @@
 package model.imageio;
 
 import commonlabels.ImageFormats;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Scanner;
-import model.image.ImageFactory;
+import java.util.List;
 import model.image.ImageInterface;
+import model.image.PackedImage;
+import model.image.PackedImage.PackedImageBuilder;
 
 
 /**
  * This class contains utility methods to read a PPM image from file and simply print its contents.
- * Feel free to change this method as required.
+ * Feel free to change this method as required. Plain P3 files and binary P6 and P5 files are read,
+ * whatever the extension, and binary files are memory-mapped.
  */
 public class PPMFileAdapter implements IOFileByFormat {
 
+  private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+  @Override
+  public List<String> getFileExtensions() {
+    return Arrays.asList("ppm", "pgm");
+  }
+
+  @Override
+  public boolean canDecode(byte[] header) {
+    return header.length >= 3 && header[0] == 'P'
+        && (header[1] == '3' || header[1] == '5' || header[1] == '6')
+        && Character.isWhitespace(header[2]);
+  }
+
   /**
-   * This method encodes and saves the image in the given filename.
+   * This method encodes and saves the image in the given filename. PPM writes a plain P3 file,
+   * PPM_BINARY writes a binary P6 file, or P5 for a single channel image, and PGM writes a binary
+   * P5 file.
    *
    * @param filename the filename to save the image
    * @param image    the image to be saved
-   * @throws IOException if the file cannot be saved
+   * @throws IOException              if the file cannot be saved
+   * @throws IllegalArgumentException if a PGM file is requested for a color image
    */
   @Override
   public void encodeAndSaveImage(String filename, ImageInterface image,
       ImageFormats format) throws IOException {
+    if (format == ImageFormats.PGM && image.getChannelCount() != 1) {
+      throw new IllegalArgumentException("Only single channel images can be saved as PGM");
+    }
+    if (format == ImageFormats.PPM_BINARY || format == ImageFormats.PGM) {
+      writeBinary(filename, image);
+    } else {
+      writePlain(filename, image);
+    }
+  }
+
+  /**
+   * Writes a plain P3 file one row at a time. Every sample is converted to its decimal digits
+   * straight into one reusable byte buffer, so memory does not grow with the size of the image.
+   */
+  private void writePlain(String filename, ImageInterface image) throws IOException {
     int height = image.getHeight();
     int width = image.getWidth();
-    int[][] redPixels;
-    int[][] greenPixels;
-    int[][] bluePixels;
-    if (image.getChannel().size() == 3) {
-      redPixels = image.getChannel().get(0);
-      greenPixels = image.getChannel().get(1);
-      bluePixels = image.getChannel().get(2);
+    int redChannel = 0;
+    int greenChannel = image.getChannelCount() == 3 ? 1 : 0;
+    int blueChannel = image.getChannelCount() == 3 ? 2 : 0;
+    int maxValue = (1 << image.getBitDepth()) - 1;
+    byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    String header = "P3" + System.lineSeparator() + width + " " + height
+        + System.lineSeparator() + maxValue + System.lineSeparator();
+    // Every sample takes at most 11 characters, as in -2147483648, and a space
+    int rowBytes = width * 3 * 12 + lineSeparator.length;
+    ByteBuffer buffer = ByteBuffer.allocate(Math.max(WRITE_BUFFER_SIZE, rowBytes));
+    byte[] bytes = buffer.array();
+    int[] red = new int[width];
+    int[] green = new int[width];
+    int[] blue = new int[width];
+    try (FileChannel channel = openForWriting(filename)) {
+      buffer.put(header.getBytes(StandardCharsets.US_ASCII));
+      for (int i = 0; i < height; i++) {
+        if (buffer.remaining() < rowBytes) {
+          drain(channel, buffer);
+        }
+        image.getRow(redChannel, i, red, 0);
+        image.getRow(greenChannel, i, green, 0);
+        image.getRow(blueChannel, i, blue, 0);
+        int position = buffer.position();
+        for (int j = 0; j < width; j++) {
+          position = writeSample(bytes, position, red[j]);
+          position = writeSample(bytes, position, green[j]);
+          position = writeSample(bytes, position, blue[j]);
+        }
+        System.arraycopy(lineSeparator, 0, bytes, position, lineSeparator.length);
+        buffer.position(position + lineSeparator.length);
+      }
+      drain(channel, buffer);
+    }
+  }
+
+  /**
+   * Writes the decimal digits of a sample followed by a space and returns the position after it.
+   * A sample outside 0 to 99999, which no image of 16 bits or less holds, is written as
+   * Integer.toString writes it.
+   */
+  private static int writeSample(byte[] bytes, int position, int value) {
+    if (value < 0 || value > 99999) {
+      byte[] digits = Integer.toString(value).getBytes(StandardCharsets.US_ASCII);
+      System.arraycopy(digits, 0, bytes, position, digits.length);
+      position += digits.length;
+    } else if (value < 10) {
+      bytes[position++] = (byte) ('0' + value);
     } else {
-      redPixels = image.getChannel().get(0);
-      greenPixels = image.getChannel().get(0);
-      bluePixels = image.getChannel().get(0);
+      int end = position + (value < 100 ? 2 : value < 1000 ? 3 : value < 10000 ? 4 : 5);
+      for (int k = end - 1; k >= position; k--) {
+        bytes[k] = (byte) ('0' + value % 10);
+        value /= 10;
+      }
+      position = end;
     }
-    int maxValue = 255;
-    StringBuilder builder = new StringBuilder();
-    builder.append("P3").append(System.lineSeparator());
-    builder.append(width).append(" ").append(height).append(System.lineSeparator());
-    builder.append(maxValue).append(System.lineSeparator());
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        builder.append(redPixels[i][j]).append(" ").append(greenPixels[i][j]).append(" ")
-            .append(bluePixels[i][j]).append(" ");
+    bytes[position++] = ' ';
+    return position;
+  }
+
+  private void writeBinary(String filename, ImageInterface image) throws IOException {
+    int height = image.getHeight();
+    int width = image.getWidth();
+    int channelCount = image.getChannelCount();
+    boolean deep = image.getBitDepth() == 16;
+    String header = (channelCount == 1 ? "P5" : "P6") + "\n" + width + " " + height + "\n"
+        + ((1 << image.getBitDepth()) - 1) + "\n";
+    int rowBytes = width * channelCount * (deep ? 2 : 1);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(WRITE_BUFFER_SIZE, rowBytes));
+    int[][] rows = new int[channelCount][width];
+    try (FileChannel channel = openForWriting(filename)) {
+      buffer.put(header.getBytes(StandardCharsets.US_ASCII));
+      for (int i = 0; i < height; i++) {
+        if (buffer.remaining() < rowBytes) {
+          drain(channel, buffer);
+        }
+        for (int c = 0; c < channelCount; c++) {
+          image.getRow(c, i, rows[c], 0);
+        }
+        for (int j = 0; j < width; j++) {
+          for (int c = 0; c < channelCount; c++) {
+            if (deep) {
+              buffer.putShort((short) rows[c][j]);
+            } else {
+              buffer.put((byte) rows[c][j]);
+            }
+          }
+        }
       }
-      builder.append(System.lineSeparator());
+      drain(channel, buffer);
     }
-    java.io.FileWriter fw = new java.io.FileWriter(filename, StandardCharsets.US_ASCII);
-    fw.write(builder.toString());
-    fw.close();
+  }
+
+  private FileChannel openForWriting(String filename) throws IOException {
+    return FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  private void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
   }
 
   /**
@@ -68,59 +182,70 @@ public class PPMFileAdapter implements IOFileByFormat {
    */
   @Override
   public ImageInterface decodeImage(String filename) throws IOException {
-    Scanner sc;
-    InputStream stream = new FileInputStream(filename);
-    sc = new Scanner(stream);
-
-    StringBuilder builder = new StringBuilder();
-    //read the file line by line, and populate a string. This will throw away any comment lines
-    while (sc.hasNextLine()) {
-      String s = sc.nextLine();
-      if (s.charAt(0) != '#') {
-        builder.append(s).append(System.lineSeparator());
+    try (PpmReader reader = new PpmReader(filename)) {
+      String magic = reader.readToken();
+      if (!magic.equals("P3") && !magic.equals("P5") && !magic.equals("P6")) {
+        throw new IOException("Invalid PPM file: file should begin with P3, P5 or P6");
+      }
+      int width = reader.readInt();
+      int height = reader.readInt();
+      int maxValue = reader.readInt();
+      if (maxValue <= 0 || maxValue > 65535) {
+        throw new IOException("Invalid PPM file: maximum value should be between 1 and 65535");
+      }
+      if (!magic.equals("P3")) {
+        return readBinary(reader, width, height, maxValue, magic.equals("P5") ? 1 : 3);
       }
-    }
-
-    //now set up the scanner to read from the string we just built
-    sc = new Scanner(builder.toString());
 
-    String token;
+      PackedImageBuilder pixels = new PackedImageBuilder(height, width, 3,
+          maxValue > 255 ? 16 : 8);
+      boolean isGrayscale = true;
+      for (int index = 0; index < height * width; index++) {
+        int r = reader.readInt();
+        int g = reader.readInt();
+        int b = reader.readInt();
+        pixels.setPixel(0, index, r);
+        pixels.setPixel(1, index, g);
+        pixels.setPixel(2, index, b);
+        isGrayscale = isGrayscale && r == g && g == b;
+      }
 
-    token = sc.next();
-    if (!token.equals("P3")) {
-      System.out.println("Invalid PPM file: plain RAW file should begin with P3");
+      return collapseGrayscale(pixels.build(), isGrayscale);
     }
-    int width = sc.nextInt();
-    int height = sc.nextInt();
-    int maxValue = sc.nextInt();
+  }
 
-    int[][] redPixels = new int[height][width];
-    int[][] greenPixels = new int[height][width];
-    int[][] bluePixels = new int[height][width];
+  /**
+   * Reads the samples of a binary file by mapping them into memory. A single whitespace character
+   * separates the header from the samples.
+   */
+  private ImageInterface readBinary(PpmReader reader, int width, int height, int maxValue,
+      int channelCount) throws IOException {
+    int bitDepth = maxValue > 255 ? 16 : 8;
+    long offset = reader.position() + 1;
+    long size = (long) width * height * channelCount * (bitDepth / 8);
+    if (offset + size > reader.getChannel().size()) {
+      throw new IOException("Invalid PPM file: unexpected end of file");
+    }
+    MappedByteBuffer samples = reader.getChannel().map(MapMode.READ_ONLY, offset, size);
+    ImageInterface decodedImage = new PackedImageBuilder(height, width, channelCount, bitDepth)
+        .readInterleaved(samples).build();
+    if (channelCount == 1) {
+      return decodedImage;
+    }
     boolean isGrayscale = true;
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        int r = sc.nextInt();
-        int g = sc.nextInt();
-        int b = sc.nextInt();
-
-        redPixels[i][j] = r;
-        greenPixels[i][j] = g;
-        bluePixels[i][j] = b;
-        if (r == g && g == b && isGrayscale) {
-          // Do nothing for given condition
-        } else {
-          isGrayscale = false;
-        }
-      }
+    for (int index = 0; index < height * width && isGrayscale; index++) {
+      int r = ((PackedImage) decodedImage).getPixel(0, index);
+      isGrayscale = r == ((PackedImage) decodedImage).getPixel(1, index)
+          && r == ((PackedImage) decodedImage).getPixel(2, index);
     }
-    stream.close();
+    return collapseGrayscale(decodedImage, isGrayscale);
+  }
 
-    if (isGrayscale) {
-      return ImageFactory.createImage(Collections.singletonList(redPixels));
-    } else {
-      return ImageFactory.createImage(Arrays.asList(redPixels, greenPixels, bluePixels));
+  private ImageInterface collapseGrayscale(ImageInterface decodedImage, boolean isGrayscale) {
+    if (!isGrayscale) {
+      return decodedImage;
     }
+    return new PackedImageBuilder(decodedImage.getHeight(), decodedImage.getWidth(), 1,
+        ((PackedImage) decodedImage).getBitDepth()).copyChannel(decodedImage, 0, 0).build();
   }
 }
-
@@ -0,0 +1,156 @@
+package model.imageio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class reads the tokens of a PPM file straight from a file channel. The file is read through
+ * one reusable buffer and numbers are parsed digit by digit, so no line or string of the file is
+ * ever built. A '#' starts a comment that runs to the end of the line.
+ */
+class PpmReader implements Closeable {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final byte[] bytes;
+  private int position;
+  private int limit;
+
+  /**
+   * Opens the given file for reading.
+   *
+   * @param filename the filename to read
+   * @throws IOException if the file cannot be opened
+   */
+  PpmReader(String filename) throws IOException {
+    this.channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+    this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    this.bytes = buffer.array();
+  }
+
+  /**
+   * This method reads the next whitespace separated token, such as the magic number.
+   *
+   * @return the token
+   * @throws IOException if the file ends before a token
+   */
+  String readToken() throws IOException {
+    int b = skipWhitespace();
+    StringBuilder token = new StringBuilder();
+    while (b != -1 && !isWhitespace(b) && b != '#') {
+      token.append((char) b);
+      b = read();
+    }
+    unread(b);
+    return token.toString();
+  }
+
+  /**
+   * This method reads the next non negative decimal number.
+   *
+   * @return the number
+   * @throws IOException if the file ends or the next token is not a number
+   */
+  int readInt() throws IOException {
+    int b = skipWhitespace();
+    if (b < '0' || b > '9') {
+      throw new IOException("Invalid PPM file: expected a number");
+    }
+    int value = b - '0';
+    while (true) {
+      // Digits inside the buffer are parsed without the refill check of read()
+      while (position < limit && bytes[position] >= '0' && bytes[position] <= '9') {
+        value = value * 10 + (bytes[position++] - '0');
+        if (value < 0) {
+          throw new IOException("Invalid PPM file: number is too large");
+        }
+      }
+      if (position < limit) {
+        b = bytes[position++] & 0xFF;
+        break;
+      }
+      b = read();
+      if (b < '0' || b > '9') {
+        break;
+      }
+      value = value * 10 + (b - '0');
+    }
+    if (b != -1 && !isWhitespace(b) && b != '#') {
+      throw new IOException("Invalid PPM file: expected a number");
+    }
+    unread(b);
+    return value;
+  }
+
+  /**
+   * The offset in the file of the next byte to be read is returned by this method.
+   *
+   * @return the offset of the next byte
+   * @throws IOException if the position of the channel cannot be read
+   */
+  long position() throws IOException {
+    return channel.position() - (limit - position);
+  }
+
+  /**
+   * The channel the reader reads from is returned by this method.
+   *
+   * @return the file channel
+   */
+  FileChannel getChannel() {
+    return channel;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private int skipWhitespace() throws IOException {
+    while (position < limit && bytes[position] == ' ') {
+      position++;
+    }
+    int b = read();
+    while (b != -1) {
+      if (b == '#') {
+        while (b != -1 && b != '\n' && b != '\r') {
+          b = read();
+        }
+      } else if (!isWhitespace(b)) {
+        return b;
+      } else {
+        b = read();
+      }
+    }
+    throw new IOException("Invalid PPM file: unexpected end of file");
+  }
+
+  private int read() throws IOException {
+    if (position == limit) {
+      buffer.clear();
+      int count = channel.read(buffer);
+      if (count <= 0) {
+        return -1;
+      }
+      position = 0;
+      limit = count;
+    }
+    return bytes[position++] & 0xFF;
+  }
+
+  private void unread(int b) {
+    if (b != -1) {
+      position--;
+    }
+  }
+
+  private static boolean isWhitespace(int b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+  }
+}
@@ -0,0 +1,179 @@
+package model.imageio;
+
+import commonlabels.ImageFormats;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+
+/**
+ * This class reads and writes .rawimg files, an uncompressed planar format meant for passing
+ * images between runs of the application. The file starts with the magic bytes RAWIMG, a version
+ * byte and a layout byte, followed by the width, height, number of channels, bit depth and plane
+ * alignment. Every channel is then stored as one row-major plane starting on a multiple of the
+ * alignment, with 16-bit samples most significant byte first. A file is read by mapping its planes
+ * into memory, so loading it copies nothing and only the pages that are used are ever read.
+ */
+public class RawImageFileAdapter implements IOFileByFormat {
+
+  private static final byte[] MAGIC = "RAWIMG".getBytes(StandardCharsets.US_ASCII);
+  private static final int VERSION = 1;
+  private static final int PLANAR = 0;
+  private static final int HEADER_SIZE = 28;
+  private static final int ALIGNMENT = 4096;
+  private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+  @Override
+  public List<String> getFileExtensions() {
+    return Collections.singletonList("rawimg");
+  }
+
+  @Override
+  public boolean canDecode(byte[] header) {
+    return header.length >= MAGIC.length
+        && Arrays.equals(MAGIC, Arrays.copyOf(header, MAGIC.length));
+  }
+
+  /**
+   * This method encodes and saves the image in the given filename. The image is written to a
+   * temporary file that then replaces the given file, so images still mapped from the old file
+   * keep their samples.
+   *
+   * @param filename the filename to save the image
+   * @param image    the image to be saved
+   * @param format   the image format, RAWIMG
+   * @throws IOException if the file cannot be saved
+   */
+  @Override
+  public void encodeAndSaveImage(String filename, ImageInterface image,
+      ImageFormats format) throws IOException {
+    int height = image.getHeight();
+    int width = image.getWidth();
+    int channelCount = image.getChannelCount();
+    int bitDepth = image.getBitDepth();
+    long planeStride = alignedPlaneSize(height, width, bitDepth);
+
+    Path target = Paths.get(filename).toAbsolutePath();
+    Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+          StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC).put((byte) VERSION).put((byte) PLANAR).putInt(width).putInt(height)
+            .putInt(channelCount).putInt(bitDepth).putInt(ALIGNMENT);
+        header.flip();
+        drain(channel, header);
+        int rowBytes = width * (bitDepth / 8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(WRITE_BUFFER_SIZE, rowBytes));
+        int[] row = new int[width];
+        for (int c = 0; c < channelCount; c++) {
+          channel.position(ALIGNMENT + c * planeStride);
+          for (int i = 0; i < height; i++) {
+            if (buffer.remaining() < rowBytes) {
+              buffer.flip();
+              drain(channel, buffer);
+            }
+            image.getRow(c, i, row, 0);
+            for (int j = 0; j < width; j++) {
+              if (bitDepth == 8) {
+                buffer.put((byte) row[j]);
+              } else {
+                buffer.putShort((short) row[j]);
+              }
+            }
+          }
+          buffer.flip();
+          drain(channel, buffer);
+        }
+      }
+      replace(temporary, target);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  private static void replace(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * The size of one plane rounded up to the plane alignment is returned by this method.
+   */
+  private static long alignedPlaneSize(int height, int width, int bitDepth) {
+    long planeSize = (long) height * width * (bitDepth / 8);
+    return (planeSize + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+  }
+
+  /**
+   * This method decodes the image from the given filename by mapping its planes into memory.
+   *
+   * @param filename the filename to read the image
+   * @return the image read from the file
+   * @throws IOException if the file cannot be read or is not a valid .rawimg file
+   */
+  @Override
+  public ImageInterface decodeImage(String filename) throws IOException {
+    try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // Keep reading until the header is complete or the file ends
+      }
+      header.flip();
+      if (header.remaining() < HEADER_SIZE || !canDecode(Arrays.copyOf(header.array(),
+          MAGIC.length))) {
+        throw new IOException("Invalid raw image file: file should begin with RAWIMG");
+      }
+      header.position(MAGIC.length);
+      if (header.get() != VERSION || header.get() != PLANAR) {
+        throw new IOException("Invalid raw image file: unsupported version or layout");
+      }
+      int width = header.getInt();
+      int height = header.getInt();
+      int channelCount = header.getInt();
+      int bitDepth = header.getInt();
+      int alignment = header.getInt();
+      if (width <= 0 || height <= 0 || (channelCount != 1 && channelCount != 3)
+          || (bitDepth != 8 && bitDepth != 16) || alignment < HEADER_SIZE) {
+        throw new IOException("Invalid raw image file: unsupported dimensions or bit depth");
+      }
+      long planeSize = (long) height * width * (bitDepth / 8);
+      long planeStride = (planeSize + alignment - 1) / alignment * alignment;
+      if (planeSize > Integer.MAX_VALUE) {
+        throw new IOException("Raw image is too large to map: " + filename);
+      }
+      if (alignment + (channelCount - 1) * planeStride + planeSize > channel.size()) {
+        throw new IOException("Invalid raw image file: unexpected end of file");
+      }
+      ByteBuffer[] planes = new ByteBuffer[channelCount];
+      for (int c = 0; c < channelCount; c++) {
+        planes[c] = channel.map(MapMode.READ_ONLY, alignment + c * planeStride, planeSize);
+      }
+      // A mapping stays valid after its channel is closed
+      return PackedImage.wrap(height, width, bitDepth, planes);
+    }
+  }
+}
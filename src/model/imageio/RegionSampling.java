@@ -0,0 +1,76 @@
+package model.imageio;
+
+import java.awt.Rectangle;
+import model.image.ImageFactory;
+import model.image.ImageInterface;
+import model.image.PackedImage.PackedImageBuilder;
+
+/**
+ * This class checks and applies the source region and subsampling of a partial load. A region is
+ * given in pixels of the image in the file, and a subsampling factor of n keeps the first pixel of
+ * the region and every n-th pixel after it, in both directions.
+ */
+class RegionSampling {
+
+  /**
+   * This method checks the region and subsampling factor of a load against the size of the image.
+   *
+   * @param region    the region to load, or null for the whole image
+   * @param subsample the subsampling factor, 1 to keep every pixel
+   * @param width     the width of the image in the file
+   * @param height    the height of the image in the file
+   * @return the region to load
+   * @throws IllegalArgumentException if the factor is not positive or the region does not lie
+   *                                  inside the image
+   */
+  static Rectangle resolve(Rectangle region, int subsample, int width, int height)
+      throws IllegalArgumentException {
+    if (subsample < 1) {
+      throw new IllegalArgumentException("Subsampling factor should be at least 1");
+    }
+    if (region == null) {
+      return new Rectangle(0, 0, width, height);
+    }
+    if (region.width <= 0 || region.height <= 0 || region.x < 0 || region.y < 0
+        || region.x > width - region.width || region.y > height - region.height) {
+      throw new IllegalArgumentException("Region should lie inside the " + width + "x" + height
+          + " image");
+    }
+    return region;
+  }
+
+  /**
+   * This method copies the given region of a decoded image, keeping every subsample-th pixel.
+   *
+   * @param image     the decoded image
+   * @param region    the region to copy, or null for the whole image
+   * @param subsample the subsampling factor, 1 to keep every pixel
+   * @return the copied pixels
+   * @throws IllegalArgumentException if the factor is not positive or the region does not lie
+   *                                  inside the image
+   */
+  static ImageInterface apply(ImageInterface image, Rectangle region, int subsample)
+      throws IllegalArgumentException {
+    Rectangle bounds = resolve(region, subsample, image.getWidth(), image.getHeight());
+    if (subsample == 1 && bounds.width == image.getWidth()
+        && bounds.height == image.getHeight()) {
+      return image;
+    }
+    int height = (bounds.height + subsample - 1) / subsample;
+    int width = (bounds.width + subsample - 1) / subsample;
+    PackedImageBuilder pixels = ImageFactory.createImageBuilder(height, width,
+        image.getChannelCount(), image.getBitDepth());
+    int[] row = new int[image.getWidth()];
+    int[] sampled = new int[width];
+    for (int c = 0; c < image.getChannelCount(); c++) {
+      for (int i = 0; i < height; i++) {
+        image.getRow(c, bounds.y + i * subsample, row, 0);
+        for (int j = 0; j < width; j++) {
+          sampled[j] = row[bounds.x + j * subsample];
+        }
+        pixels.setRow(c, i, sampled, 0);
+      }
+    }
+    return pixels.build();
+  }
+}
@@ -0,0 +1,121 @@
+package model.imageio;
+
+/**
+ * This class holds the encoder settings of a save. A JPEG quality applies to .jpg and .jpeg
+ * files, a PNG compression level to .png files and plain ASCII output to .ppm files. Settings that
+ * are not given keep the default of the encoder.
+ */
+public class SaveOptions {
+
+  /**
+   * The options of a save that keeps every encoder default.
+   */
+  public static final SaveOptions DEFAULT = new SaveOptionsBuilder().build();
+
+  private final int quality;
+  private final int compressionLevel;
+  private final boolean ascii;
+
+  private SaveOptions(int quality, int compressionLevel, boolean ascii) {
+    this.quality = quality;
+    this.compressionLevel = compressionLevel;
+    this.ascii = ascii;
+  }
+
+  /**
+   * The JPEG quality is returned by this method.
+   *
+   * @return the quality from 0 to 100, or -1 for the default of the encoder
+   */
+  public int getQuality() {
+    return quality;
+  }
+
+  /**
+   * The PNG compression level is returned by this method.
+   *
+   * @return the deflate level from 0 to 9, or -1 for the default of the encoder
+   */
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  /**
+   * Checks whether a .ppm file should be written as plain P3 text instead of binary P6.
+   *
+   * @return true for plain output
+   */
+  public boolean isAscii() {
+    return ascii;
+  }
+
+  /**
+   * This class builds the options of a save.
+   */
+  public static class SaveOptionsBuilder {
+
+    private int quality = -1;
+    private int compressionLevel = -1;
+    private boolean ascii = false;
+
+    /**
+     * This method sets the JPEG quality.
+     *
+     * @param quality the quality from 0, the smallest file, to 100, the best image
+     * @return this builder
+     * @throws IllegalArgumentException if the quality is outside 0 to 100
+     */
+    public SaveOptionsBuilder setQuality(int quality) throws IllegalArgumentException {
+      if (quality < 0 || quality > 100) {
+        throw new IllegalArgumentException("JPEG quality should be between 0 and 100");
+      }
+      this.quality = quality;
+      return this;
+    }
+
+    /**
+     * This method sets the PNG compression level.
+     *
+     * @param compressionLevel the deflate level from 0, the fastest, to 9, the smallest file
+     * @return this builder
+     * @throws IllegalArgumentException if the level is outside 0 to 9
+     */
+    public SaveOptionsBuilder setCompressionLevel(int compressionLevel)
+        throws IllegalArgumentException {
+      if (compressionLevel < 0 || compressionLevel > 9) {
+        throw new IllegalArgumentException("PNG compression level should be between 0 and 9");
+      }
+      this.compressionLevel = compressionLevel;
+      return this;
+    }
+
+    /**
+     * This method asks for the fastest PNG encode, which stores the pixels without deflating them.
+     *
+     * @return this builder
+     */
+    public SaveOptionsBuilder setFastest() {
+      return setCompressionLevel(0);
+    }
+
+    /**
+     * This method sets whether a .ppm file is written as plain P3 text.
+     *
+     * @param ascii true for plain output
+     * @return this builder
+     */
+    public SaveOptionsBuilder setAscii(boolean ascii) {
+      this.ascii = ascii;
+      return this;
+    }
+
+    /**
+     * This method builds the options.
+     *
+     * @return the options
+     */
+    public SaveOptions build() {
+      return new SaveOptions(quality, compressionLevel, ascii);
+    }
+  }
+}
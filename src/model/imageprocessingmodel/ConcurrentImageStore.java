@@ -0,0 +1,34 @@
+package model.imageprocessingmodel;
+
+import java.util.concurrent.ConcurrentHashMap;
+import model.image.ImageInterface;
+
+/**
+ * This class keeps every image on the heap in a ConcurrentHashMap, so a model built over it can be
+ * shared between threads. Reads never block, and writes of different names do not wait for each
+ * other.
+ */
+public class ConcurrentImageStore implements ImageStore {
+
+  private final ConcurrentHashMap<String, ImageInterface> images = new ConcurrentHashMap<>();
+
+  @Override
+  public ImageInterface get(String name) {
+    return images.get(name);
+  }
+
+  @Override
+  public void put(String name, ImageInterface image) {
+    images.put(name, image);
+  }
+
+  @Override
+  public boolean putIfAbsent(String name, ImageInterface image) {
+    return images.putIfAbsent(name, image) == null;
+  }
+
+  @Override
+  public boolean contains(String name) {
+    return images.containsKey(name);
+  }
+}
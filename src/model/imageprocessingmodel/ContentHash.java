@@ -0,0 +1,81 @@
+package model.imageprocessingmodel;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import model.image.ImageInterface;
+
+/**
+ * This class makes the keys a ResultCache stores results under. A loaded image is keyed by a hash
+ * of its samples, read once when it is loaded. A computed image is keyed by a digest of its
+ * operation, its parameters and the keys of its source images, so it gets its key without being
+ * computed or read, and an image keeps its key however many steps away from a loaded image it is.
+ */
+class ContentHash {
+
+  // Changing how an operation computes its image must change this, so old results are not reused
+  private static final String VERSION = "1";
+  private static final long FIRST_PRIME = 0x9E3779B97F4A7C15L;
+  private static final long SECOND_PRIME = 0xC2B2AE3D27D4EB4FL;
+
+  /**
+   * The key of the samples of the image is returned by this method. Images with the same
+   * dimensions, channels and samples have the same key whatever their bit depth or layout.
+   *
+   * @param image the image
+   * @return the key, 32 hexadecimal digits
+   */
+  static String of(ImageInterface image) {
+    int height = image.getHeight();
+    int width = image.getWidth();
+    int channelCount = image.getChannelCount();
+    long first = mix(((long) height << 32 | width) ^ channelCount);
+    long second = mix(first ^ SECOND_PRIME);
+    int[] row = new int[width];
+    for (int c = 0; c < channelCount; c++) {
+      for (int i = 0; i < height; i++) {
+        image.getRow(c, i, row, 0);
+        for (int j = 0; j < width; j++) {
+          first = (first ^ row[j]) * FIRST_PRIME;
+          second = Long.rotateLeft(second + row[j] * SECOND_PRIME, 31) * FIRST_PRIME;
+        }
+      }
+    }
+    return String.format("%016x%016x", mix(first), mix(second ^ first));
+  }
+
+  /**
+   * The key of the image an operation computes from the given source images is returned by this
+   * method. Runs of whitespace in the parameters are treated as a single space.
+   *
+   * @param operation  the name of the operation
+   * @param parameters the parameters of the operation, or null if it takes none
+   * @param sourceKeys the keys of the source images, in order
+   * @return the key, 64 hexadecimal digits
+   */
+  static String combine(String operation, Object parameters, List<String> sourceKeys) {
+    String normalized = parameters == null ? ""
+        : parameters.toString().trim().replaceAll("\\s+", " ");
+    String description = VERSION + "\n" + operation + "\n" + normalized + "\n"
+        + String.join(",", sourceKeys);
+    byte[] digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256")
+          .digest(description.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+    StringBuilder key = new StringBuilder();
+    for (byte value : digest) {
+      key.append(String.format("%02x", value));
+    }
+    return key.toString();
+  }
+
+  private static long mix(long value) {
+    value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+    value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return value ^ (value >>> 33);
+  }
+}
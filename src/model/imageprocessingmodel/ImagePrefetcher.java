@@ -0,0 +1,106 @@
+package model.imageprocessingmodel;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.image.ImageInterface;
+import model.imageio.IOFileFactory;
+
+/**
+ * This class decodes image files on a small pool of background threads ahead of the load that
+ * needs them. A load of a prefetched file only waits for whatever is left of its decode, and a
+ * load of any other file decodes it on the caller as usual. Prefetches may be started, loaded and
+ * discarded from several threads. Prefetches are kept by the absolute, normalized path of their
+ * file, so different spellings of a path share one prefetch.
+ */
+class ImagePrefetcher {
+
+  private static final int IO_THREADS = 2;
+  private static final ExecutorService POOL = Executors.newFixedThreadPool(IO_THREADS,
+      runnable -> {
+        Thread thread = new Thread(runnable, "image-prefetch");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final Map<Path, Future<ImageInterface>> pending = new ConcurrentHashMap<>();
+
+  /**
+   * Starts decoding the given file in the background. A file that is already being decoded is not
+   * decoded again.
+   *
+   * @param imagePath the file path of the image
+   */
+  void prefetch(String imagePath) {
+    pending.computeIfAbsent(normalize(imagePath),
+        path -> POOL.submit(() -> IOFileFactory.decodeImage(imagePath)));
+  }
+
+  /**
+   * This method returns the decoded image of the given file, waiting for its prefetch if there is
+   * one and decoding it on the caller otherwise.
+   *
+   * @param imagePath the file path of the image
+   * @return the decoded image
+   * @throws IOException if the file cannot be read
+   */
+  ImageInterface load(String imagePath) throws IOException {
+    Future<ImageInterface> future = pending.remove(normalize(imagePath));
+    if (future == null) {
+      return IOFileFactory.decodeImage(imagePath);
+    }
+    try {
+      return future.get();
+    } catch (CancellationException e) {
+      // Another thread discarded the prefetch before it was taken
+      return IOFileFactory.decodeImage(imagePath);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while loading " + imagePath, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IOException("Failed to load " + imagePath, e.getCause());
+    }
+  }
+
+  /**
+   * Cancels every prefetch that was not loaded, dropping its image.
+   */
+  void discard() {
+    for (Path path : pending.keySet()) {
+      Future<ImageInterface> future = pending.remove(path);
+      if (future != null) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Cancels the prefetch of the given file, if it was not loaded. A file that is about to be
+   * written is discarded, so a later load reads the new contents rather than the old ones.
+   *
+   * @param imagePath the file path of the image
+   */
+  void discard(String imagePath) {
+    Future<ImageInterface> future = pending.remove(normalize(imagePath));
+    if (future != null) {
+      future.cancel(true);
+    }
+  }
+
+  private static Path normalize(String imagePath) {
+    return Paths.get(imagePath).toAbsolutePath().normalize();
+  }
+}
@@ -1,22 +1,30 @@
 package model.imageprocessingmodel;
 
+import java.awt.Rectangle;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import model.image.ImageInterface;
 import model.imageio.IOFileFactory;
+import model.imageio.SaveOptions;
 import model.operations.colorrepresentation.Intensity;
 import model.operations.colorrepresentation.Value;
 import model.operations.colortransformation.Greyscale;
 import model.operations.colortransformation.Sepia;
 import model.operations.filters.BlurFilter;
+import model.operations.filters.ConvolutionFilter;
 import model.operations.filters.SharpenFilter;
 import model.operations.merge.MergeSingleChannelImages;
+import model.operations.operatorutil.OperatorUtil;
 import model.operations.pixeloffset.BrightnessOperation;
 import model.operations.pixeloffset.CompressionOperation;
+import model.operations.pointwise.FusedPointwiseOperation;
+import model.operations.pointwise.PointwiseStage;
 import model.operations.rotation.HorizontalFlipOperation;
 import model.operations.rotation.VerticalFlipOperation;
 import model.operations.split.SplitImageOperation;
@@ -26,18 +34,54 @@ import model.operations.visualization.LevelAdjustment;
 
 /**
  * The ImageProcessorModel class manages a collection of images and provides various image
- * processing operations.
+ * processing operations. A model built over a ConcurrentImageStore can be shared by several
+ * controllers or worker threads: a new image is only stored if no image took its name while it
+ * was being computed, so two requests for the same destination name never both succeed.
  */
 public class ImageProcessorModel implements
     ImageProcessorModelInterface {
 
-  private final Map<String, ImageInterface> images;
+  private final ImageStore images;
+  private final ResultCache resultCache;
+  private final Map<String, String> imageKeys;
+  private final ImagePrefetcher prefetcher;
+  private final WriteBehindSaver saver;
+  private volatile boolean writeBehind;
+  private volatile boolean lazy;
 
   /**
-   * Constructs a new ImageProcessorModel with an empty image map.
+   * Constructs a new ImageProcessorModel that keeps every image in memory.
    */
   public ImageProcessorModel() {
-    this.images = new HashMap<>();
+    this(new InMemoryImageStore());
+  }
+
+  /**
+   * Constructs a new ImageProcessorModel that keeps its images in the given store.
+   *
+   * @param images The empty store to keep the images in.
+   */
+  public ImageProcessorModel(ImageStore images) {
+    this(images, null);
+  }
+
+  /**
+   * Constructs a new ImageProcessorModel that keeps its images in the given store and takes the
+   * images of operations already run on the same inputs from the given cache. Every image is then
+   * keyed when it is created: a loaded image by a hash of its samples, and a computed image by its
+   * operation, parameters and the keys of its source images.
+   *
+   * @param images      The empty store to keep the images in.
+   * @param resultCache The cache of computed images, which may be shared with other models, or
+   *                    null to compute every image.
+   */
+  public ImageProcessorModel(ImageStore images, ResultCache resultCache) {
+    this.images = images;
+    this.resultCache = resultCache;
+    this.imageKeys = new ConcurrentHashMap<>();
+    this.prefetcher = new ImagePrefetcher();
+    this.saver = new WriteBehindSaver();
+    this.writeBehind = false;
   }
 
   /**
@@ -52,8 +96,10 @@ public class ImageProcessorModel implements
   public void blurImage(String imageName, String destImageName, Object operator) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new BlurFilter().apply(images.get(imageName), operator);
-    images.put(destImageName, newImage);
+    String key = resultKey("blur-split", operator, imageName);
+    ImageInterface newImage = compute(key,
+        () -> new BlurFilter().apply(getImage(imageName), operator));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -67,8 +113,51 @@ public class ImageProcessorModel implements
   public void blurImage(String imageName, String destImageName) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new BlurFilter().apply(images.get(imageName));
-    images.put(destImageName, newImage);
+    String key = resultKey("blur", null, imageName);
+    ImageInterface newImage = compute(key, () -> new BlurFilter().apply(getImage(imageName)));
+    storeImage(destImageName, newImage, key);
+  }
+
+  /**
+   * Applies a Gaussian blur of the given radius to the specified image and stores the result with
+   * the given destination name.
+   *
+   * @param imageName     The name of the source image.
+   * @param destImageName The name for the destination image.
+   * @param radius        The radius of the Gaussian in pixels.
+   * @param operator      The blur filter operator.
+   */
+  @Override
+  public void blurImage(String imageName, String destImageName, int radius, Object operator) {
+    checkImageNames(Collections.singletonList(imageName));
+    checkDestinationImageNames(Collections.singletonList(destImageName));
+    String key = resultKey("blur-radius", radius + " " + operator, imageName);
+    BlurFilter filter = new BlurFilter(radius);
+    ImageInterface newImage = compute(key, () -> filter.apply(getImage(imageName), operator));
+    storeImage(destImageName, newImage, key);
+  }
+
+  /**
+   * Convolves the specified image with the given kernel and stores the result with the given
+   * destination name.
+   *
+   * @param imageName     The name of the source image.
+   * @param destImageName The name for the destination image.
+   * @param kernel        The kernel file path or inline matrix.
+   * @param operator      The convolution filter operator.
+   */
+  @Override
+  public void convolveImage(String imageName, String destImageName, String kernel,
+      Object operator) {
+    checkImageNames(Collections.singletonList(imageName));
+    checkDestinationImageNames(Collections.singletonList(destImageName));
+    double[][] kernelMatrix = OperatorUtil.parseKernel(kernel);
+    ConvolutionFilter filter = new ConvolutionFilter(kernelMatrix);
+    // A kernel file is keyed by its values, so editing the file changes the key
+    String key = resultKey("convolve", Arrays.deepToString(kernelMatrix) + " " + operator,
+        imageName);
+    ImageInterface newImage = compute(key, () -> filter.apply(getImage(imageName), operator));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -83,8 +172,10 @@ public class ImageProcessorModel implements
   public void sharpenImage(String imageName, String destImageName, Object operator) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new SharpenFilter().apply(images.get(imageName), operator);
-    images.put(destImageName, newImage);
+    String key = resultKey("sharpen-split", operator, imageName);
+    ImageInterface newImage = compute(key,
+        () -> new SharpenFilter().apply(getImage(imageName), operator));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -98,8 +189,9 @@ public class ImageProcessorModel implements
   public void sharpenImage(String imageName, String destImageName) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new SharpenFilter().apply(images.get(imageName));
-    images.put(destImageName, newImage);
+    String key = resultKey("sharpen", null, imageName);
+    ImageInterface newImage = compute(key, () -> new SharpenFilter().apply(getImage(imageName)));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -113,8 +205,10 @@ public class ImageProcessorModel implements
   public void horizontalFlipImage(String imageName, String destImageName) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new HorizontalFlipOperation().apply(images.get(imageName));
-    images.put(destImageName, newImage);
+    String key = resultKey("horizontal-flip", null, imageName);
+    ImageInterface newImage = compute(key,
+        () -> new HorizontalFlipOperation().apply(getImage(imageName)));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -128,8 +222,10 @@ public class ImageProcessorModel implements
   public void verticalFlipImage(String imageName, String destImageName) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new VerticalFlipOperation().apply(images.get(imageName));
-    images.put(destImageName, newImage);
+    String key = resultKey("vertical-flip", null, imageName);
+    ImageInterface newImage = compute(key,
+        () -> new VerticalFlipOperation().apply(getImage(imageName)));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -144,8 +240,10 @@ public class ImageProcessorModel implements
   public void greyScaleImage(String imageName, String destImageName, Object operator) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new Greyscale().apply(images.get(imageName), operator);
-    images.put(destImageName, newImage);
+    String key = resultKey("greyscale-split", operator, imageName);
+    ImageInterface newImage = compute(key,
+        () -> new Greyscale().apply(getImage(imageName), operator));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -159,8 +257,9 @@ public class ImageProcessorModel implements
   public void greyScaleImage(String imageName, String destImageName) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new Greyscale().apply(images.get(imageName));
-    images.put(destImageName, newImage);
+    String key = resultKey("greyscale", null, imageName);
+    ImageInterface newImage = computePointwise(key, imageName, new Greyscale().toStage());
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -174,8 +273,9 @@ public class ImageProcessorModel implements
   public void lumaImage(String imageName, String destImageName) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new Greyscale().apply(images.get(imageName));
-    images.put(destImageName, newImage);
+    String key = resultKey("greyscale", null, imageName);
+    ImageInterface newImage = computePointwise(key, imageName, new Greyscale().toStage());
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -190,8 +290,9 @@ public class ImageProcessorModel implements
   public void sepiaImage(String imageName, String destImageName, Object operator) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new Sepia().apply(images.get(imageName), operator);
-    images.put(destImageName, newImage);
+    String key = resultKey("sepia-split", operator, imageName);
+    ImageInterface newImage = compute(key, () -> new Sepia().apply(getImage(imageName), operator));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -205,8 +306,9 @@ public class ImageProcessorModel implements
   public void sepiaImage(String imageName, String destImageName) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new Sepia().apply(images.get(imageName));
-    images.put(destImageName, newImage);
+    String key = resultKey("sepia", null, imageName);
+    ImageInterface newImage = computePointwise(key, imageName, new Sepia().toStage());
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -221,8 +323,10 @@ public class ImageProcessorModel implements
   public void splitImage(String imageName, String destImageName, Object operator) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new SplitImageOperation().apply(images.get(imageName), operator);
-    images.put(destImageName, newImage);
+    String key = resultKey("component", operator, imageName);
+    ImageInterface newImage = computePointwise(key, imageName,
+        new SplitImageOperation().toStage(operator));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -237,8 +341,10 @@ public class ImageProcessorModel implements
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(destImageNames);
     for (int i = 0; i < destImageNames.size(); i++) {
-      ImageInterface newImage = new SplitImageOperation().apply(images.get(imageName), i);
-      images.put(destImageNames.get(i), newImage);
+      String key = resultKey("component", i, imageName);
+      ImageInterface newImage = computePointwise(key, imageName,
+          new SplitImageOperation().toStage(i));
+      storeImage(destImageNames.get(i), newImage, key);
     }
   }
 
@@ -254,8 +360,10 @@ public class ImageProcessorModel implements
   public void brightenImage(String imageName, String destImageName, Object operator) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new BrightnessOperation().apply(images.get(imageName), operator);
-    images.put(destImageName, newImage);
+    String key = resultKey("brighten", operator, imageName);
+    ImageInterface newImage = computePointwise(key, imageName,
+        new BrightnessOperation().toStage(operator));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -271,8 +379,30 @@ public class ImageProcessorModel implements
   public void compressImage(String imageName, String destImageName, Object operator) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new CompressionOperation().apply(images.get(imageName), operator);
-    images.put(destImageName, newImage);
+    String key = resultKey("compress", operator, imageName);
+    ImageInterface newImage = compute(key,
+        () -> new CompressionOperation().apply(getImage(imageName), operator));
+    storeImage(destImageName, newImage, key);
+  }
+
+  /**
+   * Applies a compression operation to square tiles of the specified image independently and
+   * stores the result with the given destination name.
+   *
+   * @param imageName     The name of the source image.
+   * @param destImageName The name for the destination image.
+   * @param operator      The compression operation operator.
+   * @param tileSize      The side of the tiles in pixels.
+   */
+  @Override
+  public void compressImage(String imageName, String destImageName, Object operator,
+      int tileSize) {
+    checkImageNames(Collections.singletonList(imageName));
+    checkDestinationImageNames(Collections.singletonList(destImageName));
+    String key = resultKey("compress-tiles", operator + " " + tileSize, imageName);
+    CompressionOperation compression = new CompressionOperation(tileSize);
+    ImageInterface newImage = compute(key, () -> compression.apply(getImage(imageName), operator));
+    storeImage(destImageName, newImage, key);
   }
 
 
@@ -287,8 +417,9 @@ public class ImageProcessorModel implements
   public void valueImage(String imageName, String destImageName) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new Value().apply(images.get(imageName));
-    images.put(destImageName, newImage);
+    String key = resultKey("value", null, imageName);
+    ImageInterface newImage = computePointwise(key, imageName, new Value().toStage());
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -302,8 +433,9 @@ public class ImageProcessorModel implements
   public void intensityImage(String imageName, String destImageName) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new Intensity().apply(images.get(imageName));
-    images.put(destImageName, newImage);
+    String key = resultKey("intensity", null, imageName);
+    ImageInterface newImage = computePointwise(key, imageName, new Intensity().toStage());
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -317,10 +449,13 @@ public class ImageProcessorModel implements
   public void mergeImage(List<String> imagesToMergeName, String destImageName) {
     checkImageNames(imagesToMergeName);
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    List<ImageInterface> imageToMerge = new ArrayList<>();
-    imagesToMergeName.forEach(a -> imageToMerge.add(images.get(a)));
-    ImageInterface newImage = new MergeSingleChannelImages().apply(imageToMerge);
-    images.put(destImageName, newImage);
+    String key = resultKey("merge", null, imagesToMergeName.toArray(new String[0]));
+    ImageInterface newImage = compute(key, () -> {
+      List<ImageInterface> imageToMerge = new ArrayList<>();
+      imagesToMergeName.forEach(a -> imageToMerge.add(getImage(a)));
+      return new MergeSingleChannelImages().apply(imageToMerge);
+    });
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -334,8 +469,10 @@ public class ImageProcessorModel implements
   public void histogramImage(String imageName, String destImageName) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new HistogramVisualization().apply(images.get(imageName));
-    images.put(destImageName, newImage);
+    String key = resultKey("histogram", null, imageName);
+    ImageInterface newImage = compute(key,
+        () -> new HistogramVisualization().apply(getImage(imageName)));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -350,8 +487,12 @@ public class ImageProcessorModel implements
   public void levelAdjustImage(String imageName, String destImageName, Object operator) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new LevelAdjustment().apply(images.get(imageName), operator);
-    images.put(destImageName, newImage);
+    String key = resultKey("levels", operator, imageName);
+    LevelAdjustment levelAdjustment = new LevelAdjustment();
+    ImageInterface newImage = levelAdjustment.isSplit(operator)
+        ? compute(key, () -> levelAdjustment.apply(getImage(imageName), operator))
+        : computePointwise(key, imageName, levelAdjustment.toStage(operator));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -366,8 +507,10 @@ public class ImageProcessorModel implements
   public void colorCorrectImage(String imageName, String destImageName, Object operator) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new ColorCorrection().apply(images.get(imageName), operator);
-    images.put(destImageName, newImage);
+    String key = resultKey("color-correct-split", operator, imageName);
+    ImageInterface newImage = compute(key,
+        () -> new ColorCorrection().apply(getImage(imageName), operator));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
@@ -381,12 +524,14 @@ public class ImageProcessorModel implements
   public void colorCorrectImage(String imageName, String destImageName) {
     checkImageNames(Collections.singletonList(imageName));
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    ImageInterface newImage = new ColorCorrection().apply(images.get(imageName));
-    images.put(destImageName, newImage);
+    String key = resultKey("color-correct", null, imageName);
+    ImageInterface newImage = compute(key, () -> new ColorCorrection().apply(getImage(imageName)));
+    storeImage(destImageName, newImage, key);
   }
 
   /**
-   * Loads an image from the specified file path and stores it with the given destination name.
+   * Loads an image from the specified file path and stores it with the given destination name. An
+   * image that was prefetched is taken from its prefetch.
    *
    * @param imagePath     The file path of the image to be loaded.
    * @param destImageName The name for the destination image.
@@ -395,7 +540,64 @@ public class ImageProcessorModel implements
   @Override
   public void loadImage(String imagePath, String destImageName) throws IOException {
     checkDestinationImageNames(Collections.singletonList(destImageName));
-    images.put(destImageName, IOFileFactory.decodeImage(imagePath));
+    saver.awaitFile(imagePath);
+    storeLoadedImage(destImageName, prefetcher.load(imagePath));
+  }
+
+  /**
+   * Starts decoding the image at the specified file path in the background. A file that a save is
+   * still writing is not prefetched.
+   *
+   * @param imagePath The file path of the image to be prefetched.
+   */
+  @Override
+  public void prefetchImage(String imagePath) {
+    if (!saver.isPending(imagePath)) {
+      prefetcher.prefetch(imagePath);
+    }
+  }
+
+  /**
+   * Cancels every prefetched image that was not loaded.
+   */
+  @Override
+  public void discardPrefetchedImages() {
+    prefetcher.discard();
+  }
+
+  /**
+   * Loads a region of an image from the specified file path, keeping every subsample-th pixel of
+   * every subsample-th row of it, and stores it with the given destination name.
+   *
+   * @param imagePath     The file path of the image to be loaded.
+   * @param destImageName The name for the destination image.
+   * @param region        The region to load, or null for the whole image.
+   * @param subsample     The subsampling factor, 1 to keep every pixel.
+   * @throws IOException If an error occurs during image loading.
+   */
+  @Override
+  public void loadImage(String imagePath, String destImageName, Rectangle region, int subsample)
+      throws IOException {
+    checkDestinationImageNames(Collections.singletonList(destImageName));
+    saver.awaitFile(imagePath);
+    storeLoadedImage(destImageName, IOFileFactory.decodeImage(imagePath, region, subsample));
+  }
+
+  /**
+   * Loads a preview of a .haar image scaled down by 2 to the power of the level and stores it with
+   * the given destination name.
+   *
+   * @param imagePath     The file path of the .haar image to be loaded.
+   * @param level         The number of halvings, 0 for the full image.
+   * @param destImageName The name for the destination image.
+   * @throws IOException If an error occurs during image loading.
+   */
+  @Override
+  public void loadImagePreview(String imagePath, int level, String destImageName)
+      throws IOException {
+    checkDestinationImageNames(Collections.singletonList(destImageName));
+    saver.awaitFile(imagePath);
+    storeLoadedImage(destImageName, IOFileFactory.decodeImagePreview(imagePath, level));
   }
 
   /**
@@ -407,33 +609,171 @@ public class ImageProcessorModel implements
    */
   @Override
   public void saveImage(String imagePath, String imageName) throws IOException {
+    saveImage(imagePath, imageName, SaveOptions.DEFAULT);
+  }
+
+  /**
+   * Saves the image with the specified name to the specified file path with the given encoder
+   * settings.
+   *
+   * @param imagePath The file path where the image will be saved.
+   * @param imageName The name of the image to be saved.
+   * @param options   The encoder settings.
+   * @throws IOException If an error occurs during image saving.
+   */
+  @Override
+  public void saveImage(String imagePath, String imageName, SaveOptions options)
+      throws IOException {
     checkImageNames(Collections.singletonList(imageName));
-    IOFileFactory.encodeAndSaveImage(imagePath, images.get(imageName));
+    // A prefetch of the file that was never loaded holds its old contents
+    prefetcher.discard(imagePath);
+    if (writeBehind) {
+      saver.save(imagePath, getImage(imageName), options);
+    } else {
+      IOFileFactory.encodeAndSaveImage(imagePath, getImage(imageName), options);
+    }
+  }
+
+  /**
+   * Turns write-behind saving on or off. While it is on, a save only starts encoding and writing
+   * the image in the background. Turning it off waits for the outstanding saves.
+   *
+   * @param enabled Whether saves should be written in the background.
+   * @throws IOException If turning it off finds that a background save failed.
+   */
+  @Override
+  public void setWriteBehind(boolean enabled) throws IOException {
+    this.writeBehind = enabled;
+    if (!enabled) {
+      saver.flush();
+    }
+  }
+
+  /**
+   * Waits until every background save has been written.
+   *
+   * @throws IOException If any background save failed since the last flush.
+   */
+  @Override
+  public void flushSaves() throws IOException {
+    saver.flush();
+  }
+
+  /**
+   * Turns lazy evaluation on or off. While it is on, an operation only records how its image is
+   * computed, and the image is computed the first time it is saved, retrieved or used by another
+   * image that is computed. Errors of an operation are then reported when its image is computed.
+   *
+   * @param enabled Whether operations should be recorded instead of run.
+   */
+  @Override
+  public void setLazy(boolean enabled) {
+    this.lazy = enabled;
   }
 
   /**
-   * Retrieves the image with the specified name.
+   * Retrieves the image with the specified name, computing it first if its operation was recorded
+   * lazily.
    *
    * @param imageName The name of the image to retrieve.
    * @return The ImageInterface associated with the given name.
    */
   @Override
   public ImageInterface getImage(String imageName) {
-    return this.images.get(imageName);
+    return LazyImage.evaluate(this.images.get(imageName));
+  }
+
+  /**
+   * Takes the image from the result cache, or else runs the operation now, or records it to run
+   * when its image is first used if lazy evaluation is on. A computed image is added to the cache.
+   */
+  private ImageInterface compute(String key, Supplier<ImageInterface> operation) {
+    ImageInterface cached = cachedResult(key);
+    if (cached != null) {
+      return cached;
+    }
+    Supplier<ImageInterface> caching = () -> remember(key, operation.get());
+    return lazy ? new LazyImage(caching) : caching.get();
+  }
+
+  /**
+   * Takes the image from the result cache, or else applies the per-pixel step to the image now,
+   * or records it to run when its image is first used if lazy evaluation is on. A recorded step
+   * runs fused with the unevaluated per-pixel steps its source image was made from. A computed
+   * image is added to the cache.
+   */
+  private ImageInterface computePointwise(String key, String imageName, PointwiseStage stage) {
+    ImageInterface cached = cachedResult(key);
+    if (cached != null) {
+      return cached;
+    }
+    if (lazy) {
+      return new LazyImage(() -> images.get(imageName), stage, image -> remember(key, image));
+    }
+    return remember(key,
+        new FusedPointwiseOperation().apply(getImage(imageName), List.of(stage)));
+  }
+
+  /**
+   * The key the result of the operation on the given images is cached under is returned by this
+   * method, or null if the model has no result cache.
+   */
+  private String resultKey(String operation, Object parameters, String... sourceNames) {
+    if (resultCache == null) {
+      return null;
+    }
+    List<String> sourceKeys = new ArrayList<>();
+    for (String sourceName : sourceNames) {
+      sourceKeys.add(imageKeys.computeIfAbsent(sourceName,
+          name -> ContentHash.of(getImage(name))));
+    }
+    return ContentHash.combine(operation, parameters, sourceKeys);
+  }
+
+  private ImageInterface cachedResult(String key) {
+    return key == null ? null : resultCache.get(key);
+  }
+
+  private ImageInterface remember(String key, ImageInterface image) {
+    if (key != null) {
+      resultCache.put(key, image);
+    }
+    return image;
   }
 
   private void checkImageNames(List<String> imageNames) {
     for (String imageName : imageNames) {
-      if (!images.containsKey(imageName)) {
+      if (!images.contains(imageName)) {
         throw new IllegalArgumentException(
             "Invalid request : No image exist with the name " + imageName);
       }
     }
   }
 
+  /**
+   * Stores a new image, failing if another request stored an image with the name after it was
+   * checked. The key of the image is kept for the keys of the images computed from it.
+   */
+  private void storeImage(String destImageName, ImageInterface image, String key) {
+    if (!images.putIfAbsent(destImageName, image)) {
+      throw new IllegalArgumentException(
+          "Invalid request : An Image exist with the name " + destImageName);
+    }
+    if (key != null) {
+      imageKeys.put(destImageName, key);
+    }
+  }
+
+  /**
+   * Stores a loaded image, keyed by its samples if the model has a result cache.
+   */
+  private void storeLoadedImage(String destImageName, ImageInterface image) {
+    storeImage(destImageName, image, resultCache == null ? null : ContentHash.of(image));
+  }
+
   private void checkDestinationImageNames(List<String> imageNames) {
     for (String imageName : imageNames) {
-      if (images.containsKey(imageName)) {
+      if (images.contains(imageName)) {
         throw new IllegalArgumentException(
             "Invalid request : An Image exist with the name " + imageName);
       }
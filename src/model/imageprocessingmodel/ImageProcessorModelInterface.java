@@ -1,8 +1,10 @@
 package model.imageprocessingmodel;
 
+import java.awt.Rectangle;
 import java.io.IOException;
 import java.util.List;
 import model.image.ImageInterface;
+import model.imageio.SaveOptions;
 
 /**
  * This interface represents an image processor model.
@@ -28,6 +30,29 @@ public interface ImageProcessorModelInterface {
    */
   void blurImage(String imageName, String destImageName);
 
+  /**
+   * Applies a Gaussian blur of the given radius to the specified image and stores the result with
+   * the given destination name.
+   *
+   * @param imageName     The name of the source image.
+   * @param destImageName The name for the destination image.
+   * @param radius        The radius of the Gaussian in pixels.
+   * @param operator      The blur filter operator.
+   */
+  void blurImage(String imageName, String destImageName, int radius, Object operator);
+
+  /**
+   * Convolves the specified image with the given kernel and stores the result with the given
+   * destination name. The kernel is the path of a file with one row per line or an inline matrix
+   * with rows separated by ';' and values by ','.
+   *
+   * @param imageName     The name of the source image.
+   * @param destImageName The name for the destination image.
+   * @param kernel        The kernel file path or inline matrix.
+   * @param operator      The convolution filter operator.
+   */
+  void convolveImage(String imageName, String destImageName, String kernel, Object operator);
+
   /**
    * Applies a sharpen filter to the specified image and stores the result with the given
    * destination name.
@@ -151,6 +176,17 @@ public interface ImageProcessorModelInterface {
    */
   void compressImage(String imageName, String destImageName, Object operator);
 
+  /**
+   * Applies a compression operation to square tiles of the specified image independently and
+   * stores the result with the given destination name.
+   *
+   * @param imageName     The name of the source image.
+   * @param destImageName The name for the destination image.
+   * @param operator      The compression operation operator.
+   * @param tileSize      The side of the tiles in pixels.
+   */
+  void compressImage(String imageName, String destImageName, Object operator, int tileSize);
+
   /**
    * Applies a value operation to the specified image and stores the result with the given
    * destination name.
@@ -225,6 +261,44 @@ public interface ImageProcessorModelInterface {
    */
   void loadImage(String imagePath, String destImageName) throws IOException;
 
+  /**
+   * Starts decoding the image at the specified file path in the background, so that a later load
+   * of the same path only waits for the rest of the decode. Errors are reported by that load.
+   *
+   * @param imagePath The file path of the image to be prefetched.
+   */
+  void prefetchImage(String imagePath);
+
+  /**
+   * Cancels every prefetched image that was not loaded.
+   */
+  void discardPrefetchedImages();
+
+  /**
+   * Loads a region of an image from the specified file path, keeping every subsample-th pixel of
+   * every subsample-th row of it, and stores it with the given destination name. PNG and JPEG
+   * images skip the other pixels while decoding.
+   *
+   * @param imagePath     The file path of the image to be loaded.
+   * @param destImageName The name for the destination image.
+   * @param region        The region to load, or null for the whole image.
+   * @param subsample     The subsampling factor, 1 to keep every pixel.
+   * @throws IOException If an error occurs during image loading.
+   */
+  void loadImage(String imagePath, String destImageName, Rectangle region, int subsample)
+      throws IOException;
+
+  /**
+   * Loads a preview of a .haar image scaled down by 2 to the power of the level and stores it with
+   * the given destination name. Only the coarse coefficients are decoded.
+   *
+   * @param imagePath     The file path of the .haar image to be loaded.
+   * @param level         The number of halvings, 0 for the full image.
+   * @param destImageName The name for the destination image.
+   * @throws IOException If an error occurs during image loading.
+   */
+  void loadImagePreview(String imagePath, int level, String destImageName) throws IOException;
+
   /**
    * Saves the image with the specified name to the specified file path.
    *
@@ -234,6 +308,43 @@ public interface ImageProcessorModelInterface {
    */
   void saveImage(String imagePath, String imageName) throws IOException;
 
+  /**
+   * Saves the image with the specified name to the specified file path with the given encoder
+   * settings, such as the JPEG quality or the PNG compression level.
+   *
+   * @param imagePath The file path where the image will be saved.
+   * @param imageName The name of the image to be saved.
+   * @param options   The encoder settings.
+   * @throws IOException If an error occurs during image saving.
+   */
+  void saveImage(String imagePath, String imageName, SaveOptions options) throws IOException;
+
+  /**
+   * Turns write-behind saving on or off. While it is on, a save hands the image to a background
+   * encoder and returns, and errors are reported by the next flush. Turning it off waits for the
+   * outstanding saves.
+   *
+   * @param enabled Whether saves should be written in the background.
+   * @throws IOException If turning it off finds that a background save failed.
+   */
+  void setWriteBehind(boolean enabled) throws IOException;
+
+  /**
+   * Waits until every background save has been written.
+   *
+   * @throws IOException If any background save failed since the last flush.
+   */
+  void flushSaves() throws IOException;
+
+  /**
+   * Turns lazy evaluation on or off. While it is on, an operation only records how its image is
+   * computed, and the image is computed the first time it is saved, retrieved or needed to compute
+   * another image.
+   *
+   * @param enabled Whether operations should be recorded instead of run.
+   */
+  void setLazy(boolean enabled);
+
   /**
    * Retrieves the image with the specified name.
    *
@@ -0,0 +1,43 @@
+package model.imageprocessingmodel;
+
+import model.image.ImageInterface;
+
+/**
+ * This interface represents the place where a model keeps its named images.
+ */
+public interface ImageStore {
+
+  /**
+   * Returns the image stored with the given name.
+   *
+   * @param name the name of the image
+   * @return the image, or null if no image has the name
+   */
+  ImageInterface get(String name);
+
+  /**
+   * Stores the image with the given name, replacing any image stored with it before.
+   *
+   * @param name  the name of the image
+   * @param image the image to store
+   */
+  void put(String name, ImageInterface image);
+
+  /**
+   * Stores the image with the given name unless an image is already stored with it. The check and
+   * the store happen as one step, so of several callers storing the same name only one succeeds.
+   *
+   * @param name  the name of the image
+   * @param image the image to store
+   * @return true if the image was stored, false if the name was taken
+   */
+  boolean putIfAbsent(String name, ImageInterface image);
+
+  /**
+   * Checks whether an image is stored with the given name.
+   *
+   * @param name the name of the image
+   * @return true if an image has the name
+   */
+  boolean contains(String name);
+}
@@ -0,0 +1,34 @@
+package model.imageprocessingmodel;
+
+import java.util.HashMap;
+import java.util.Map;
+import model.image.ImageInterface;
+
+/**
+ * This class keeps every image on the heap for as long as the model lives. It is not thread-safe;
+ * a model shared between threads should use a ConcurrentImageStore.
+ */
+public class InMemoryImageStore implements ImageStore {
+
+  private final Map<String, ImageInterface> images = new HashMap<>();
+
+  @Override
+  public ImageInterface get(String name) {
+    return images.get(name);
+  }
+
+  @Override
+  public void put(String name, ImageInterface image) {
+    images.put(name, image);
+  }
+
+  @Override
+  public boolean putIfAbsent(String name, ImageInterface image) {
+    return images.putIfAbsent(name, image) == null;
+  }
+
+  @Override
+  public boolean contains(String name) {
+    return images.containsKey(name);
+  }
+}
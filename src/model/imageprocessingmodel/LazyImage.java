@@ -0,0 +1,159 @@
+package model.imageprocessingmodel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import model.image.ImageInterface;
+import model.operations.pointwise.FusedPointwiseOperation;
+import model.operations.pointwise.PointwiseStage;
+
+/**
+ * This class represents an image whose operation has been recorded but not run. The operation
+ * holds the source images and parameters of the command that created it, and runs the first time
+ * the image is evaluated or any of its samples or dimensions are read. An image that is never used
+ * is never computed. After a successful run the operation is dropped, so its source images can be
+ * freed. An image made by a per-pixel step is computed together with the unevaluated per-pixel
+ * images it was made from, in a single pass over the first image of the chain that is not one of
+ * them.
+ */
+class LazyImage implements ImageInterface {
+
+  private Supplier<ImageInterface> operation;
+  private final Supplier<ImageInterface> source;
+  private final PointwiseStage stage;
+  private final Consumer<ImageInterface> onComputed;
+  private volatile ImageInterface image;
+
+  /**
+   * Constructs an image that is computed by the given operation when it is first used.
+   *
+   * @param operation the operation that computes the image
+   */
+  LazyImage(Supplier<ImageInterface> operation) {
+    this.operation = operation;
+    this.source = null;
+    this.stage = null;
+    this.onComputed = null;
+  }
+
+  /**
+   * Constructs an image that is computed by applying a per-pixel step to the source image when it
+   * is first used, and handed to the given consumer once it is computed.
+   *
+   * @param source     the source image, which may be lazy
+   * @param stage      the step to apply
+   * @param onComputed the consumer of the computed image
+   */
+  LazyImage(Supplier<ImageInterface> source, PointwiseStage stage,
+      Consumer<ImageInterface> onComputed) {
+    this.source = source;
+    this.stage = stage;
+    this.onComputed = onComputed;
+  }
+
+  /**
+   * The computed image is returned by this method, running the operation if it has not run yet.
+   * An operation that fails runs again, and fails again, the next time the image is evaluated.
+   *
+   * @return the computed image
+   */
+  ImageInterface evaluate() {
+    ImageInterface result = image;
+    if (result == null) {
+      synchronized (this) {
+        result = image;
+        if (result == null) {
+          if (stage == null) {
+            result = operation.get();
+          } else {
+            result = applyChain();
+            onComputed.accept(result);
+          }
+          image = result;
+          operation = null;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Applies the step of this image, and of every unevaluated per-pixel image it was made from, in
+   * one pass. The images in between are left unevaluated.
+   */
+  private ImageInterface applyChain() {
+    List<PointwiseStage> stages = new ArrayList<>();
+    stages.add(stage);
+    ImageInterface root = source.get();
+    while (root instanceof LazyImage && ((LazyImage) root).stage != null
+        && !((LazyImage) root).isEvaluated()) {
+      LazyImage previous = (LazyImage) root;
+      stages.add(previous.stage);
+      root = previous.source.get();
+    }
+    Collections.reverse(stages);
+    return new FusedPointwiseOperation().apply(evaluate(root), stages);
+  }
+
+  /**
+   * Checks whether the operation has already run.
+   *
+   * @return true if the image has been computed
+   */
+  boolean isEvaluated() {
+    return image != null;
+  }
+
+  /**
+   * The computed image is returned by this method for a lazy image, and any other image is
+   * returned as it is.
+   *
+   * @param image the image, which may be lazy
+   * @return the computed image
+   */
+  static ImageInterface evaluate(ImageInterface image) {
+    return image instanceof LazyImage ? ((LazyImage) image).evaluate() : image;
+  }
+
+  @Override
+  public List<int[][]> getChannel() {
+    return evaluate().getChannel();
+  }
+
+  @Override
+  public int[][] getChannel(int index) {
+    return evaluate().getChannel(index);
+  }
+
+  @Override
+  public int getHeight() {
+    return evaluate().getHeight();
+  }
+
+  @Override
+  public int getWidth() {
+    return evaluate().getWidth();
+  }
+
+  @Override
+  public int getChannelCount() {
+    return evaluate().getChannelCount();
+  }
+
+  @Override
+  public int getPixel(int channel, int row, int col) {
+    return evaluate().getPixel(channel, row, col);
+  }
+
+  @Override
+  public void getRow(int channel, int row, int[] dest, int offset) {
+    evaluate().getRow(channel, row, dest, offset);
+  }
+
+  @Override
+  public int getBitDepth() {
+    return evaluate().getBitDepth();
+  }
+}
@@ -0,0 +1,157 @@
+package model.imageprocessingmodel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import model.image.ImageInterface;
+import model.imageio.HaarFileAdapter;
+import model.imageio.IOFileFactory;
+import model.operations.pixeloffset.CompressedImage;
+
+/**
+ * This class keeps the images computed by model operations, keyed by the operation, its
+ * parameters and the contents of its source images, so running a command again on unchanged
+ * inputs takes its image from the cache instead of computing it. Images are kept on the heap up to
+ * a budget of bytes, and the least recently used ones are dropped beyond it. A cache given a
+ * directory also writes every image to a .rawimg file in it, which outlives the program, so a
+ * later run of a script, or another model given a cache over the same directory, finds the images
+ * of the earlier run and maps them in instead of computing them. A compressed image also has its
+ * coefficients written to a .haar file, so it is read back with them. Its pixels still come from
+ * the .rawimg file, since the coefficients are quantized and would not rebuild the same pixels.
+ * Files are never removed by the cache. An image that cannot be written is only kept on the heap.
+ * Every method holds the lock of the cache, so it can be shared between models and threads.
+ */
+public class ResultCache {
+
+  private final long budget;
+  private final Path directory;
+  // Iterates from the least to the most recently used image
+  private final LinkedHashMap<String, ImageInterface> images = new LinkedHashMap<>(16, 0.75f,
+      true);
+  private long heapBytes;
+
+  /**
+   * Constructs a cache that only keeps images on the heap.
+   *
+   * @param budget the number of bytes of samples the cache keeps on the heap
+   * @throws IllegalArgumentException if the budget is negative
+   */
+  public ResultCache(long budget) throws IllegalArgumentException {
+    this(budget, null);
+  }
+
+  /**
+   * Constructs a cache that also keeps images in the given directory.
+   *
+   * @param budget    the number of bytes of samples the cache keeps on the heap
+   * @param directory the existing directory to keep images in, or null to keep none on disk
+   * @throws IllegalArgumentException if the budget is negative
+   */
+  public ResultCache(long budget, Path directory) throws IllegalArgumentException {
+    if (budget < 0) {
+      throw new IllegalArgumentException("Memory budget should not be negative");
+    }
+    this.budget = budget;
+    this.directory = directory;
+  }
+
+  /**
+   * The image stored with the given key is returned by this method, from the heap or else from
+   * its file.
+   *
+   * @param key the key of the image
+   * @return the image, or null if the cache does not have it
+   */
+  synchronized ImageInterface get(String key) {
+    ImageInterface image = images.get(key);
+    if (image != null || directory == null) {
+      return image;
+    }
+    try {
+      image = read(key);
+    } catch (IOException | RuntimeException e) {
+      // A damaged file is a miss, and is written again with the computed image
+      return null;
+    }
+    if (image != null) {
+      keep(key, image);
+    }
+    return image;
+  }
+
+  /**
+   * Stores the computed image with the given key, writing it to its file if the cache has a
+   * directory and the file does not exist yet. An image in a .rawimg file is kept mapped from the
+   * file rather than on the heap.
+   *
+   * @param key   the key of the image
+   * @param image the computed image
+   */
+  synchronized void put(String key, ImageInterface image) {
+    if (directory != null) {
+      try {
+        if (!Files.exists(fileOf(key, ".rawimg"))) {
+          // The coefficients go first, so a .rawimg file is never without them
+          if (image instanceof CompressedImage) {
+            IOFileFactory.encodeAndSaveImage(fileOf(key, ".haar").toString(), image);
+          }
+          IOFileFactory.encodeAndSaveImage(fileOf(key, ".rawimg").toString(), image);
+        }
+        ImageInterface stored = read(key);
+        if (stored != null) {
+          image = stored;
+        }
+      } catch (IOException | RuntimeException e) {
+        // The image is still kept on the heap
+      }
+    }
+    keep(key, image);
+  }
+
+  /**
+   * The number of bytes of samples the cache keeps on the heap is returned by this method.
+   *
+   * @return the number of bytes
+   */
+  public synchronized long getHeapBytes() {
+    return heapBytes;
+  }
+
+  private void keep(String key, ImageInterface image) {
+    ImageInterface previous = images.put(key, image);
+    if (previous != null) {
+      heapBytes -= SpillingImageStore.heapSize(previous);
+    }
+    heapBytes += SpillingImageStore.heapSize(image);
+    Iterator<Map.Entry<String, ImageInterface>> iterator = images.entrySet().iterator();
+    while (heapBytes > budget && iterator.hasNext()) {
+      heapBytes -= SpillingImageStore.heapSize(iterator.next().getValue());
+      iterator.remove();
+    }
+  }
+
+  /**
+   * The image stored in the files of the given key is returned by this method, mapped from its
+   * .rawimg file, or null if there is no such file.
+   */
+  private ImageInterface read(String key) throws IOException {
+    Path file = fileOf(key, ".rawimg");
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    ImageInterface image = IOFileFactory.decodeImage(file.toString());
+    Path coefficientFile = fileOf(key, ".haar");
+    if (Files.isRegularFile(coefficientFile)) {
+      image = new CompressedImage(image,
+          new HaarFileAdapter().readCoefficients(coefficientFile.toString()));
+    }
+    return image;
+  }
+
+  private Path fileOf(String key, String extension) {
+    return directory.resolve(key + extension);
+  }
+}
@@ -0,0 +1,221 @@
+package model.imageprocessingmodel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+import model.imageio.IOFileFactory;
+import model.operations.pixeloffset.CompressedImage;
+
+/**
+ * This class keeps images on the heap up to a budget of bytes. When a new image takes the heap
+ * over the budget, the least recently used images are written to .rawimg files in a spill
+ * directory and replaced by images mapped from those files, so they leave the heap and are paged
+ * back in by the operating system whenever they are read. Only packed images held in arrays are
+ * spilled, since the raw format stores exactly their samples; any other image stays on the heap
+ * and still counts against the budget. A lazy image takes no space until it is computed, and is
+ * counted and spilled like its computed image afterwards. Spill files are removed when their
+ * image is replaced, and the rest by one shutdown hook when the program exits, along with the
+ * spill directory if the store created it. Every method holds the lock of the store, so it can be
+ * shared between threads, although spilling then blocks other threads.
+ */
+public class SpillingImageStore implements ImageStore {
+
+  private final long budget;
+  private final Path spillDirectory;
+  // Iterates from the least to the most recently used image
+  private final LinkedHashMap<String, ImageInterface> images = new LinkedHashMap<>(16, 0.75f,
+      true);
+  // Read without the lock by the shutdown hook
+  private final Map<String, Path> spillFiles = new ConcurrentHashMap<>();
+  private final boolean ownsSpillDirectory;
+  private long spillCount;
+  private boolean cleanupRegistered;
+
+  /**
+   * Constructs a store that spills to a new temporary directory.
+   *
+   * @param budget the number of bytes of samples the store keeps on the heap
+   * @throws IOException              if the spill directory cannot be created
+   * @throws IllegalArgumentException if the budget is negative
+   */
+  public SpillingImageStore(long budget) throws IOException, IllegalArgumentException {
+    this(budget, Files.createTempDirectory("image-spill"), true);
+  }
+
+  /**
+   * Constructs a store that spills to the given directory.
+   *
+   * @param budget         the number of bytes of samples the store keeps on the heap
+   * @param spillDirectory the existing directory to write spill files to
+   * @throws IllegalArgumentException if the budget is negative
+   */
+  public SpillingImageStore(long budget, Path spillDirectory) throws IllegalArgumentException {
+    this(budget, spillDirectory, false);
+  }
+
+  private SpillingImageStore(long budget, Path spillDirectory, boolean ownsSpillDirectory)
+      throws IllegalArgumentException {
+    if (budget < 0) {
+      throw new IllegalArgumentException("Memory budget should not be negative");
+    }
+    this.budget = budget;
+    this.spillDirectory = spillDirectory;
+    this.ownsSpillDirectory = ownsSpillDirectory;
+  }
+
+  @Override
+  public synchronized ImageInterface get(String name) {
+    return images.get(name);
+  }
+
+  /**
+   * Stores the image with the given name and spills the least recently used images until the heap
+   * is back under the budget.
+   *
+   * @param name  the name of the image
+   * @param image the image to store
+   * @throws UncheckedIOException if an image cannot be spilled, in which case it stays on the heap
+   */
+  @Override
+  public synchronized void put(String name, ImageInterface image) throws UncheckedIOException {
+    remove(name);
+    images.put(name, image);
+    spillOverBudget();
+  }
+
+  /**
+   * Stores the image with the given name unless an image is already stored with it, spilling the
+   * least recently used images if the heap goes over the budget.
+   *
+   * @param name  the name of the image
+   * @param image the image to store
+   * @return true if the image was stored, false if the name was taken
+   * @throws UncheckedIOException if an image cannot be spilled, in which case it stays on the heap
+   */
+  @Override
+  public synchronized boolean putIfAbsent(String name, ImageInterface image)
+      throws UncheckedIOException {
+    if (images.containsKey(name)) {
+      return false;
+    }
+    put(name, image);
+    return true;
+  }
+
+  @Override
+  public synchronized boolean contains(String name) {
+    return images.containsKey(name);
+  }
+
+  /**
+   * The number of bytes of samples the store keeps on the heap is returned by this method.
+   *
+   * @return the number of bytes
+   */
+  public synchronized long getHeapBytes() {
+    // Lazy images grow when they are computed, so the total is counted afresh
+    long heapBytes = 0;
+    for (ImageInterface image : images.values()) {
+      heapBytes += heapSize(image);
+    }
+    return heapBytes;
+  }
+
+  private void remove(String name) {
+    images.remove(name);
+    Path spillFile = spillFiles.remove(name);
+    if (spillFile != null) {
+      // A mapping of the file stays readable after the file is deleted
+      spillFile.toFile().delete();
+    }
+  }
+
+  private void spillOverBudget() throws UncheckedIOException {
+    long heapBytes = getHeapBytes();
+    Iterator<Map.Entry<String, ImageInterface>> iterator = images.entrySet().iterator();
+    while (heapBytes > budget && iterator.hasNext()) {
+      Map.Entry<String, ImageInterface> entry = iterator.next();
+      if (!isSpillable(entry.getValue())) {
+        continue;
+      }
+      ImageInterface image = LazyImage.evaluate(entry.getValue());
+      Path spillFile = spillDirectory.resolve("spill-" + spillCount++ + ".rawimg");
+      ImageInterface mapped;
+      try {
+        registerCleanup();
+        IOFileFactory.encodeAndSaveImage(spillFile.toString(), image);
+        mapped = IOFileFactory.decodeImage(spillFile.toString());
+      } catch (IOException e) {
+        spillFile.toFile().delete();
+        throw new UncheckedIOException("Failed to spill image " + entry.getKey(), e);
+      }
+      heapBytes -= heapSize(image);
+      // Replacing the value of an entry does not change the order of the iteration
+      entry.setValue(mapped);
+      spillFiles.put(entry.getKey(), spillFile);
+    }
+  }
+
+  /**
+   * Registers, on the first spill, the one shutdown hook that removes the spill files left when
+   * the program exits.
+   */
+  private void registerCleanup() {
+    if (!cleanupRegistered) {
+      Runtime.getRuntime().addShutdownHook(new Thread(this::deleteSpillFiles, "spill-cleanup"));
+      cleanupRegistered = true;
+    }
+  }
+
+  private void deleteSpillFiles() {
+    if (!ownsSpillDirectory) {
+      for (Path spillFile : spillFiles.values()) {
+        spillFile.toFile().delete();
+      }
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(spillDirectory)) {
+      // Files come before the directories that hold them
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    } catch (IOException e) {
+      // Nothing more can be done while the program exits
+    }
+  }
+
+  private static boolean isSpillable(ImageInterface image) {
+    if (image instanceof LazyImage) {
+      return ((LazyImage) image).isEvaluated() && isSpillable(((LazyImage) image).evaluate());
+    }
+    return image instanceof PackedImage && !((PackedImage) image).isBufferBacked();
+  }
+
+  /**
+   * The number of bytes the samples of the image take on the heap is returned by this method.
+   * Images mapped from a file and lazy images that are not computed take none, packed images take
+   * one or two bytes per sample, a compressed image takes what its pixels take and any other image
+   * is counted as one int per sample.
+   */
+  static long heapSize(ImageInterface image) {
+    if (image instanceof LazyImage) {
+      return ((LazyImage) image).isEvaluated() ? heapSize(((LazyImage) image).evaluate()) : 0;
+    }
+    if (image instanceof CompressedImage) {
+      return heapSize(((CompressedImage) image).getPixels());
+    }
+    long samples = (long) image.getHeight() * image.getWidth() * image.getChannelCount();
+    if (image instanceof PackedImage) {
+      PackedImage packed = (PackedImage) image;
+      return packed.isBufferBacked() ? 0 : samples * (packed.getBitDepth() / 8);
+    }
+    return samples * Integer.BYTES;
+  }
+}
@@ -0,0 +1,150 @@
+package model.imageprocessingmodel;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import model.image.ImageInterface;
+import model.imageio.IOFileFactory;
+import model.imageio.SaveOptions;
+
+/**
+ * This class encodes and writes saved images on a small pool of background threads, so the
+ * caller can go on with its next command. Images are never changed once built, so the image
+ * handed to a save is already a snapshot. At most MAX_PENDING saves are outstanding at a time,
+ * and saves to the same file are written in the order they were made. Failures are kept until
+ * the next flush reports them.
+ */
+class WriteBehindSaver {
+
+  private static final int ENCODER_THREADS = 2;
+  private static final int MAX_PENDING = 4;
+  private static final ExecutorService POOL = Executors.newFixedThreadPool(ENCODER_THREADS,
+      runnable -> {
+        Thread thread = new Thread(runnable, "image-save");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final Semaphore slots = new Semaphore(MAX_PENDING);
+  private final Map<Path, Future<?>> pending = new HashMap<>();
+  private final List<String> failures = new ArrayList<>();
+
+  /**
+   * Starts saving the image to the given file, waiting first if MAX_PENDING saves are already
+   * outstanding.
+   *
+   * @param imagePath the file path to save the image to
+   * @param image     the image to save
+   * @param options   the encoder settings
+   * @throws IOException if the caller is interrupted while waiting
+   */
+  void save(String imagePath, ImageInterface image, SaveOptions options) throws IOException {
+    try {
+      slots.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while saving " + imagePath, e);
+    }
+    Path path = normalize(imagePath);
+    synchronized (this) {
+      // Finished saves are dropped here, so a session that never flushes does not keep them all
+      pending.values().removeIf(Future::isDone);
+      Future<?> previous = pending.get(path);
+      pending.put(path, POOL.submit(() -> {
+        try {
+          // The pool runs saves in order, so an earlier save of the file is already running
+          if (previous != null) {
+            await(previous);
+          }
+          IOFileFactory.encodeAndSaveImage(imagePath, image, options);
+        } catch (Exception e) {
+          synchronized (this) {
+            failures.add(imagePath + ": " + e.getMessage());
+          }
+        } finally {
+          slots.release();
+        }
+      }));
+    }
+  }
+
+  /**
+   * Waits until every save to the given file has been written.
+   *
+   * @param imagePath the file path
+   */
+  void awaitFile(String imagePath) {
+    Future<?> future;
+    synchronized (this) {
+      future = pending.get(normalize(imagePath));
+    }
+    if (future != null) {
+      await(future);
+    }
+  }
+
+  /**
+   * Checks whether a save to the given file has yet to be written.
+   *
+   * @param imagePath the file path
+   * @return true if the file is still being written
+   */
+  synchronized boolean isPending(String imagePath) {
+    Future<?> future = pending.get(normalize(imagePath));
+    return future != null && !future.isDone();
+  }
+
+  /**
+   * Waits for every outstanding save and reports the saves that failed since the last flush.
+   *
+   * @throws IOException if any save failed
+   */
+  void flush() throws IOException {
+    List<Future<?>> futures;
+    synchronized (this) {
+      futures = new ArrayList<>(pending.values());
+    }
+    for (Future<?> future : futures) {
+      await(future);
+    }
+    synchronized (this) {
+      pending.values().removeIf(Future::isDone);
+      if (!failures.isEmpty()) {
+        String message = "Failed to save " + String.join("; ", failures);
+        failures.clear();
+        throw new IOException(message);
+      }
+    }
+  }
+
+  private static Path normalize(String imagePath) {
+    return Paths.get(imagePath).toAbsolutePath().normalize();
+  }
+
+  private static void await(Future<?> future) {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        future.get();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      } catch (ExecutionException e) {
+        // Failures are recorded by the save itself
+        break;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
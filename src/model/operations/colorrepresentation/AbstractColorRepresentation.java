@@ -1,10 +1,11 @@
 package model.operations.colorrepresentation;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
-import model.image.ImageFactory;
 import model.image.ImageInterface;
 import model.operations.operationinterfaces.SingleImageProcessor;
+import model.operations.pointwise.FusedPointwiseOperation;
+import model.operations.pointwise.PointwiseStage;
 
 /**
  * This class represents a color representation operation that can be applied to an image.
@@ -24,29 +25,57 @@ public abstract class AbstractColorRepresentation implements SingleImageProcesso
         || image.getWidth() == 0) {
       throw new IllegalArgumentException("Image is not valid");
     }
-    if (image.getChannel().size() == 1) {
+    if (image.getChannelCount() == 1) {
       return image;
     }
-    List<int[][]> imageChannel = image.getChannel();
-    int height = image.getHeight();
-    int width = image.getWidth();
-    int[][] valueChannel = new int[height][width];
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        performOperation(image, valueChannel, i, j);
-      }
-    }
-    return ImageFactory.createImage(Collections.singletonList(valueChannel));
+    return new FusedPointwiseOperation().apply(image, List.of(toStage()));
   }
 
   /**
-   * This method performs the operation on the given image.
+   * This method returns the color representation as a per-pixel step, so it can be run fused with
+   * the steps of other per-pixel operations. A single channel image is left as it is.
    *
-   * @param image        the image to be performed on
-   * @param valueChannel the value channel
-   * @param i            the row index
-   * @param j            the column index
+   * @return the step
+   */
+  public PointwiseStage toStage() {
+    return new RepresentationStage();
+  }
+
+  /**
+   * This method performs the operation on one row of every channel at once.
+   *
+   * @param rows     the same row of every channel of the image
+   * @param valueRow the row of the value channel to fill
+   * @param width    the number of samples in a row
+   */
+  public abstract void performOperation(int[][] rows, int[] valueRow, int width);
+
+  /**
+   * This class replaces the channels of every pixel with the single value computed from them.
    */
-  public abstract void performOperation(ImageInterface image,
-      int[][] valueChannel, int i, int j);
+  private class RepresentationStage implements PointwiseStage {
+
+    @Override
+    public int getChannelCount(int inputChannelCount) {
+      return 1;
+    }
+
+    @Override
+    public boolean changesImage(int inputChannelCount) {
+      return inputChannelCount != 1;
+    }
+
+    @Override
+    public int getBitDepth(int inputBitDepth) {
+      return inputBitDepth;
+    }
+
+    @Override
+    public void applyRow(int[][] rows, int channelCount, int width) {
+      int[][] channelRows = rows.length == channelCount ? rows : Arrays.copyOf(rows, channelCount);
+      int[] valueRow = new int[width];
+      performOperation(channelRows, valueRow, width);
+      System.arraycopy(valueRow, 0, rows[0], 0, width);
+    }
+  }
 }
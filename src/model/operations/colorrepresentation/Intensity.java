@@ -1,7 +1,5 @@
 package model.operations.colorrepresentation;
 
-import model.image.ImageInterface;
-
 /**
  * This class represents the intensity operation on an image.
  */
@@ -12,12 +10,13 @@ public class Intensity extends AbstractColorRepresentation {
    * components for each pixel.
    */
   @Override
-  public void performOperation(ImageInterface image,
-      int[][] valueChannel, int i, int j) {
-    int value = 0;
-    for (int[][] channel : image.getChannel()) {
-      value += channel[i][j];
+  public void performOperation(int[][] rows, int[] valueRow, int width) {
+    for (int j = 0; j < width; j++) {
+      int value = 0;
+      for (int[] row : rows) {
+        value += row[j];
+      }
+      valueRow[j] = value / rows.length;
     }
-    valueChannel[i][j] = value / (image.getChannel().size());
   }
 }
@@ -1,7 +1,5 @@
 package model.operations.colorrepresentation;
 
-import model.image.ImageInterface;
-
 /**
  * This class represents a color representation operation that can be applied to an image.
  */
@@ -12,15 +10,13 @@ public class Value extends AbstractColorRepresentation {
    * components for each pixel.
    */
   @Override
-  public void performOperation(ImageInterface image,
-      int[][] valueChannel, int i, int j) {
-    int previousMax = -1;
-    for (int[][] channel : image.getChannel()) {
-      int value = Math.max(channel[i][j], previousMax);
-      if (channel[i][j] > previousMax) {
-        previousMax = value;
+  public void performOperation(int[][] rows, int[] valueRow, int width) {
+    for (int j = 0; j < width; j++) {
+      int previousMax = -1;
+      for (int[] row : rows) {
+        previousMax = Math.max(row[j], previousMax);
       }
+      valueRow[j] = previousMax;
     }
-    valueChannel[i][j] = previousMax;
   }
 }
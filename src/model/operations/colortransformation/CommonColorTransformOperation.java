@@ -1,11 +1,10 @@
 package model.operations.colortransformation;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import model.image.ImageFactory;
 import model.image.ImageInterface;
 import model.operations.operationinterfaces.SingleImageProcessor;
+import model.operations.pointwise.FusedPointwiseOperation;
+import model.operations.pointwise.PointwiseStage;
 
 /**
  * This interface represents a color transformation operation on an image.
@@ -21,22 +20,55 @@ public abstract class CommonColorTransformOperation implements SingleImageProces
    */
   @Override
   public ImageInterface apply(ImageInterface image) {
-    double[][] coffeicient = getTransformCoefficient();
-    int height = image.getHeight();
-    int width = image.getWidth();
-    List<int[][]> imageChannel = image.getChannel();
-    if (imageChannel.size() != 3) {
-      throw new IllegalArgumentException("Image must have 3 channels");
+    return new FusedPointwiseOperation().apply(image, List.of(toStage()));
+  }
+
+  /**
+   * This method returns the color transformation as a per-pixel step, so it can be run fused with
+   * the steps of other per-pixel operations.
+   *
+   * @return the step
+   */
+  public PointwiseStage toStage() {
+    return new TransformStage(getTransformCoefficient());
+  }
+
+  /**
+   * Transform coefficient is returned by the method.
+   *
+   * @return the transform coefficient
+   */
+  public abstract double[][] getTransformCoefficient();
+
+  /**
+   * This class multiplies the red, green and blue samples of every pixel by the transform
+   * coefficients, truncating each result and capping it at 255.
+   */
+  private static class TransformStage implements PointwiseStage {
+
+    private final double[][] coffeicient;
+
+    TransformStage(double[][] coffeicient) {
+      this.coffeicient = coffeicient;
     }
-    int[][] newRedChannel = new int[height][width];
-    int[][] newGreenChannel = new int[height][width];
-    int[][] newBlueChannel = new int[height][width];
 
-    for (int i = 0; i < height; i++) {
+    @Override
+    public int getChannelCount(int inputChannelCount) throws IllegalArgumentException {
+      if (inputChannelCount != 3) {
+        throw new IllegalArgumentException("Image must have 3 channels");
+      }
+      return 3;
+    }
+
+    @Override
+    public void applyRow(int[][] rows, int channelCount, int width) {
+      int[] red = rows[0];
+      int[] green = rows[1];
+      int[] blue = rows[2];
       for (int j = 0; j < width; j++) {
-        int r = imageChannel.get(0)[i][j];
-        int g = imageChannel.get(1)[i][j];
-        int b = imageChannel.get(2)[i][j];
+        int r = red[j];
+        int g = green[j];
+        int b = blue[j];
 
         int newRed = (int) (coffeicient[0][0] * r + coffeicient[0][1] * g
             + coffeicient[0][2] * b);
@@ -45,21 +77,10 @@ public abstract class CommonColorTransformOperation implements SingleImageProces
         int newBlue = (int) (coffeicient[2][0] * r + coffeicient[2][1] * g
             + coffeicient[2][2] * b);
 
-        newRedChannel[i][j] = Math.min(newRed, 255);
-        newGreenChannel[i][j] = Math.min(newGreen, 255);
-        newBlueChannel[i][j] = Math.min(newBlue, 255);
+        red[j] = Math.min(newRed, 255) & 0xFF;
+        green[j] = Math.min(newGreen, 255) & 0xFF;
+        blue[j] = Math.min(newBlue, 255) & 0xFF;
       }
     }
-    List<int[][]> newImageChannelList = new ArrayList<>(Arrays.asList(newRedChannel,
-        newGreenChannel, newBlueChannel));
-    return ImageFactory.createImage(newImageChannelList);
   }
-
-
-  /**
-   * Transform coefficient is returned by the method.
-   *
-   * @return the transform coefficient
-   */
-  public abstract double[][] getTransformCoefficient();
 }
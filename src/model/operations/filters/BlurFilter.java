@@ -1,21 +1,64 @@
 package model.operations.filters;
 
+import model.operations.parallel.RowBandScheduler;
+
 /**
  * Represents a blur filter operation object.
  */
 public class BlurFilter extends CommonFilterOperationExtention {
 
   double[][] gaussianFilter;
+  private final double[] gaussianRowKernel;
 
   /**
    * Constructs a blur filter object with a default Gaussian filter.
    */
   public BlurFilter() {
+    this(new RowBandScheduler());
+  }
+
+  /**
+   * Constructs a blur filter object with a default Gaussian filter that runs on the given
+   * scheduler.
+   *
+   * @param scheduler the scheduler used to run the row bands
+   */
+  public BlurFilter(RowBandScheduler scheduler) {
+    super(scheduler);
     this.gaussianFilter = new double[][]{
         {0.0625, 0.125, 0.0625},
         {0.125, 0.25, 0.125},
         {0.0625, 0.125, 0.0625}
     };
+    this.gaussianRowKernel = null;
+  }
+
+  /**
+   * Constructs a blur filter object with a Gaussian filter of the given radius. The standard
+   * deviation is half the radius, and the filter is applied as two one dimensional passes.
+   *
+   * @param radius the number of pixels on each side of the centre
+   * @throws IllegalArgumentException if the radius is less than 1
+   */
+  public BlurFilter(int radius) throws IllegalArgumentException {
+    this(radius, new RowBandScheduler());
+  }
+
+  /**
+   * Constructs a blur filter object with a Gaussian filter of the given radius that runs on the
+   * given scheduler.
+   *
+   * @param radius    the number of pixels on each side of the centre
+   * @param scheduler the scheduler used to run the row bands
+   * @throws IllegalArgumentException if the radius is less than 1
+   */
+  public BlurFilter(int radius, RowBandScheduler scheduler) throws IllegalArgumentException {
+    super(scheduler);
+    if (radius < 1) {
+      throw new IllegalArgumentException("Blur radius should be at least 1");
+    }
+    this.gaussianRowKernel = SeparableKernel.gaussian(radius, radius / 2.0);
+    this.gaussianFilter = SeparableKernel.outerProduct(gaussianRowKernel, gaussianRowKernel);
   }
 
   /**
@@ -27,5 +70,25 @@ public class BlurFilter extends CommonFilterOperationExtention {
   public double[][] getFilter() {
     return gaussianFilter;
   }
-}
 
+  /**
+   * Get the one dimensional Gaussian used for both passes of a blur with a radius. The default
+   * 3x3 blur is applied with its full kernel.
+   *
+   * @return the row kernel, or null for the default blur
+   */
+  @Override
+  public double[] getRowKernel() {
+    return gaussianRowKernel;
+  }
+
+  /**
+   * Get the one dimensional Gaussian used for both passes of a blur with a radius.
+   *
+   * @return the column kernel, or null for the default blur
+   */
+  @Override
+  public double[] getColumnKernel() {
+    return gaussianRowKernel;
+  }
+}
@@ -1,10 +1,11 @@
 package model.operations.filters;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import model.image.ImageFactory;
 import model.image.ImageInterface;
+import model.image.PackedImage.PackedImageBuilder;
 import model.operations.operationinterfaces.SingleImageProcessor;
+import model.operations.parallel.RowBandScheduler;
 
 /**
  * This class represents a common filter operation that implements the FilterOperation interface. It
@@ -12,71 +13,229 @@ import model.operations.operationinterfaces.SingleImageProcessor;
  */
 public abstract class CommonFilterOperation implements SingleImageProcessor {
 
+  private static final int FFT_MIN_KERNEL_AREA = 15 * 15;
+
+  private final RowBandScheduler scheduler;
+
+  /**
+   * Constructs a filter operation that runs on every available processor.
+   */
+  protected CommonFilterOperation() {
+    this(new RowBandScheduler());
+  }
+
+  /**
+   * Constructs a filter operation that runs its row bands on the given scheduler.
+   *
+   * @param scheduler the scheduler used to run the row bands
+   */
+  protected CommonFilterOperation(RowBandScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
   /**
-   * This method applies a filter to an image.
+   * This method applies a filter to an image. The rows are split into bands that are filtered in
+   * parallel, each band reading its own rows plus the halo rows the kernel reaches into. Filters
+   * that provide a row and a column kernel are applied as two one dimensional passes. Filters with
+   * exact accumulation apply kernels larger than 15x15 through the fast Fourier transform.
    *
    * @param image the image to be filtered
    * @return the filtered image
-   * @throws IllegalArgumentException if the kernel is larger than the image
    */
   @Override
   public ImageInterface apply(ImageInterface image) {
     double[][] kernel = getFilter();
+    double[] rowKernel = getRowKernel();
+    double[] columnKernel = getColumnKernel();
     int height = image.getHeight();
     int width = image.getWidth();
-    ImageInterface newImage = image;
-    if (kernel.length > height || kernel[0].length > width) {
-      newImage = addPadding(image, kernel.length, kernel[0].length);
+    int channelCount = image.getChannelCount();
+    boolean exact = isExactAccumulation();
+    PackedImageBuilder filteredImage = ImageFactory.createImageBuilder(height, width,
+        channelCount);
+    if ((rowKernel == null || columnKernel == null) && exact
+        && kernel.length * kernel[0].length > FFT_MIN_KERNEL_AREA) {
+      new FftConvolution(kernel).apply(image, filteredImage, scheduler);
+      return filteredImage.build();
     }
-    List<int[][]> imageChannel = newImage.getChannel();
-    List<int[][]> filteredChannel = new ArrayList<>();
+    scheduler.forEachBand(height, (startRow, endRow) -> {
+      for (int c = 0; c < channelCount; c++) {
+        if (rowKernel != null && columnKernel != null) {
+          filterSeparableBand(image, c, rowKernel, columnKernel, filteredImage, startRow,
+              endRow);
+        } else if (exact) {
+          filterExactBand(image, c, kernel, filteredImage, startRow, endRow);
+        } else {
+          filterBand(image, c, kernel, filteredImage, startRow, endRow);
+        }
+      }
+    });
+    return filteredImage.build();
+  }
 
-    for (int[][] channel : imageChannel) {
-      int[][] filteredPixels = new int[height][width];
+  private void filterBand(ImageInterface image, int channel, double[][] kernel,
+      PackedImageBuilder filteredImage, int startRow, int endRow) {
+    int height = image.getHeight();
+    int width = image.getWidth();
+    int kernelSize = kernel.length;
+    int haloStart = Math.max(0, startRow - kernelSize / 2);
+    int haloEnd = Math.min(height, endRow + kernelSize - 1 - kernelSize / 2);
+    int[] band = new int[(haloEnd - haloStart) * width];
+    for (int i = haloStart; i < haloEnd; i++) {
+      image.getRow(channel, i, band, (i - haloStart) * width);
+    }
 
-      for (int i = 0; i < height; i++) {
-        for (int j = 0; j < width; j++) {
-          int sum = 0;
-          int kernelSize = kernel.length;
-          for (int k = 0; k < kernelSize; k++) {
-            for (int l = 0; l < kernelSize; l++) {
-              int rowIndex = i - kernelSize / 2 + k;
-              int colIndex = j - kernelSize / 2 + l;
-
-              if (rowIndex >= 0 && rowIndex < height && colIndex >= 0 && colIndex < width) {
-                sum += kernel[k][l] * channel[rowIndex][colIndex];
-              }
+    for (int i = startRow; i < endRow; i++) {
+      for (int j = 0; j < width; j++) {
+        int sum = 0;
+        for (int k = 0; k < kernelSize; k++) {
+          for (int l = 0; l < kernelSize; l++) {
+            int rowIndex = i - kernelSize / 2 + k;
+            int colIndex = j - kernelSize / 2 + l;
+
+            if (rowIndex >= 0 && rowIndex < height && colIndex >= 0 && colIndex < width) {
+              sum += kernel[k][l] * band[(rowIndex - haloStart) * width + colIndex];
             }
           }
-          sum = Math.min(Math.max(sum, 0), 255);
-          filteredPixels[i][j] = sum;
         }
+        sum = Math.min(Math.max(sum, 0), 255);
+        filteredImage.setPixel(channel, i, j, sum);
       }
+    }
+  }
 
-      filteredChannel.add(filteredPixels);
+  private void filterExactBand(ImageInterface image, int channel, double[][] kernel,
+      PackedImageBuilder filteredImage, int startRow, int endRow) {
+    int height = image.getHeight();
+    int width = image.getWidth();
+    int rowRadius = kernel.length / 2;
+    int columnRadius = kernel[0].length / 2;
+    int haloStart = Math.max(0, startRow - rowRadius);
+    int haloEnd = Math.min(height, endRow + kernel.length - 1 - rowRadius);
+    int[] band = new int[(haloEnd - haloStart) * width];
+    for (int i = haloStart; i < haloEnd; i++) {
+      image.getRow(channel, i, band, (i - haloStart) * width);
     }
 
-    return ImageFactory.createImage(filteredChannel);
+    for (int i = startRow; i < endRow; i++) {
+      int firstK = Math.max(0, rowRadius - i);
+      int lastK = Math.min(kernel.length, height - i + rowRadius);
+      for (int j = 0; j < width; j++) {
+        int firstL = Math.max(0, columnRadius - j);
+        int lastL = Math.min(kernel[0].length, width - j + columnRadius);
+        double sum = 0;
+        for (int k = firstK; k < lastK; k++) {
+          int offset = (i - rowRadius + k - haloStart) * width + j - columnRadius;
+          for (int l = firstL; l < lastL; l++) {
+            sum += kernel[k][l] * band[offset + l];
+          }
+        }
+        filteredImage.setPixel(channel, i, j,
+            (int) Math.round(Math.min(Math.max(sum, 0), 255)));
+      }
+    }
   }
 
-  private ImageInterface addPadding(ImageInterface image,
-      int kernalHeight, int kernalWidth) {
+  private void filterSeparableBand(ImageInterface image, int channel, double[] rowKernel,
+      double[] columnKernel, PackedImageBuilder filteredImage, int startRow, int endRow) {
     int height = image.getHeight();
     int width = image.getWidth();
-    List<int[][]> imageChannel = image.getChannel();
-    List<int[][]> paddedChannel = new ArrayList<>();
+    int columnRadius = columnKernel.length / 2;
+    int haloStart = Math.max(0, startRow - columnRadius);
+    int haloEnd = Math.min(height, endRow + columnKernel.length - 1 - columnRadius);
+    int[] row = new int[width];
+    double[] horizontal = new double[(haloEnd - haloStart) * width];
+    for (int i = haloStart; i < haloEnd; i++) {
+      image.getRow(channel, i, row, 0);
+      convolveRow(row, rowKernel, horizontal, (i - haloStart) * width);
+    }
 
-    for (int[][] channel : imageChannel) {
-      int[][] paddedPixels = new int[height + kernalHeight - 1][width + kernalWidth - 1];
+    double[] vertical = new double[width];
+    for (int i = startRow; i < endRow; i++) {
+      Arrays.fill(vertical, 0);
+      // Rows of the kernel that fall outside the image are skipped as a whole
+      int firstK = Math.max(0, columnRadius - i);
+      int lastK = Math.min(columnKernel.length, height - i + columnRadius);
+      for (int k = firstK; k < lastK; k++) {
+        double weight = columnKernel[k];
+        int offset = (i - columnRadius + k - haloStart) * width;
+        for (int j = 0; j < width; j++) {
+          vertical[j] += weight * horizontal[offset + j];
+        }
+      }
+      for (int j = 0; j < width; j++) {
+        filteredImage.setPixel(channel, i, j,
+            (int) Math.round(Math.min(Math.max(vertical[j], 0), 255)));
+      }
+    }
+  }
 
-      for (int i = 0; i < height; i++) {
-        System.arraycopy(channel[i], 0, paddedPixels[i], 0, width);
+  private void convolveRow(int[] row, double[] rowKernel, double[] dest, int offset) {
+    int width = row.length;
+    int radius = rowKernel.length / 2;
+    int interiorStart = Math.min(radius, width);
+    int interiorEnd = Math.max(interiorStart, width - (rowKernel.length - 1 - radius));
+    for (int j = 0; j < interiorStart; j++) {
+      dest[offset + j] = convolveBorder(row, rowKernel, j);
+    }
+    // Every tap of an interior sample is inside the row, so this loop needs no bounds checks
+    for (int j = interiorStart; j < interiorEnd; j++) {
+      double sum = 0;
+      int start = j - radius;
+      for (int l = 0; l < rowKernel.length; l++) {
+        sum += rowKernel[l] * row[start + l];
       }
+      dest[offset + j] = sum;
+    }
+    for (int j = interiorEnd; j < width; j++) {
+      dest[offset + j] = convolveBorder(row, rowKernel, j);
+    }
+  }
 
-      paddedChannel.add(paddedPixels);
+  private double convolveBorder(int[] row, double[] rowKernel, int j) {
+    int radius = rowKernel.length / 2;
+    double sum = 0;
+    for (int l = 0; l < rowKernel.length; l++) {
+      int colIndex = j - radius + l;
+      if (colIndex >= 0 && colIndex < row.length) {
+        sum += rowKernel[l] * row[colIndex];
+      }
     }
+    return sum;
+  }
 
-    return ImageFactory.createImage(paddedChannel);
+  /**
+   * Row kernel of a separable filter is returned by this. Filters that return a row and a column
+   * kernel are applied as a horizontal pass followed by a vertical pass, accumulating in double
+   * precision and rounding once at the end. The default returns null, which applies the full
+   * kernel returned by {@link #getFilter()}.
+   *
+   * @return the row kernel, or null if the filter is not applied as separable
+   */
+  public double[] getRowKernel() {
+    return null;
+  }
+
+  /**
+   * Column kernel of a separable filter is returned by this.
+   *
+   * @return the column kernel, or null if the filter is not applied as separable
+   * @see #getRowKernel()
+   */
+  public double[] getColumnKernel() {
+    return null;
+  }
+
+  /**
+   * Whether the full kernel is accumulated in double precision and rounded once is returned by
+   * this. The default is false, which keeps the integer accumulation that the blur and sharpen
+   * filters have always produced. Filters with exact accumulation may have any odd number of rows
+   * and columns, and kernels larger than 15x15 are applied through the fast Fourier transform.
+   *
+   * @return true if the kernel is accumulated in double precision
+   */
+  protected boolean isExactAccumulation() {
+    return false;
   }
 
   /**
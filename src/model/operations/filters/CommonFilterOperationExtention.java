@@ -3,6 +3,7 @@ package model.operations.filters;
 import java.util.List;
 import model.image.ImageInterface;
 import model.operations.operationinterfaces.SingleImageProcessorWithOffset;
+import model.operations.parallel.RowBandScheduler;
 import model.operations.split.PartialImageOperation;
 
 /**
@@ -12,6 +13,22 @@ import model.operations.split.PartialImageOperation;
 public abstract class CommonFilterOperationExtention extends CommonFilterOperation implements
     SingleImageProcessorWithOffset {
 
+  /**
+   * Constructs a filter operation that runs on every available processor.
+   */
+  protected CommonFilterOperationExtention() {
+    super();
+  }
+
+  /**
+   * Constructs a filter operation that runs its row bands on the given scheduler.
+   *
+   * @param scheduler the scheduler used to run the row bands
+   */
+  protected CommonFilterOperationExtention(RowBandScheduler scheduler) {
+    super(scheduler);
+  }
+
   /**
    * This method applies a filter to an image.
    *
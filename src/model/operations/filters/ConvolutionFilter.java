@@ -0,0 +1,93 @@
+package model.operations.filters;
+
+import model.operations.parallel.RowBandScheduler;
+
+/**
+ * Represents a filter operation object with a user supplied kernel. Rank one kernels are applied
+ * as two one dimensional passes, kernels larger than 15x15 through the fast Fourier transform and
+ * the rest directly.
+ */
+public class ConvolutionFilter extends CommonFilterOperationExtention {
+
+  private final double[][] kernel;
+  private final double[] rowKernel;
+  private final double[] columnKernel;
+
+  /**
+   * Constructs a convolution filter object with the given kernel.
+   *
+   * @param kernel the kernel, with an odd number of rows and columns
+   * @throws IllegalArgumentException if the kernel is empty, ragged or has an even side
+   */
+  public ConvolutionFilter(double[][] kernel) throws IllegalArgumentException {
+    this(kernel, new RowBandScheduler());
+  }
+
+  /**
+   * Constructs a convolution filter object with the given kernel that runs on the given
+   * scheduler.
+   *
+   * @param kernel    the kernel, with an odd number of rows and columns
+   * @param scheduler the scheduler used to run the row bands
+   * @throws IllegalArgumentException if the kernel is empty, ragged or has an even side
+   */
+  public ConvolutionFilter(double[][] kernel, RowBandScheduler scheduler)
+      throws IllegalArgumentException {
+    super(scheduler);
+    if (kernel == null || kernel.length == 0 || kernel[0].length == 0) {
+      throw new IllegalArgumentException("Kernel should not be empty");
+    }
+    for (double[] row : kernel) {
+      if (row.length != kernel[0].length) {
+        throw new IllegalArgumentException("Every row of the kernel should have the same length");
+      }
+    }
+    if (kernel.length % 2 == 0 || kernel[0].length % 2 == 0) {
+      throw new IllegalArgumentException("Kernel should have an odd number of rows and columns");
+    }
+    this.kernel = kernel;
+    double[][] split = SeparableKernel.decompose(kernel);
+    this.columnKernel = split == null ? null : split[0];
+    this.rowKernel = split == null ? null : split[1];
+  }
+
+  /**
+   * Returns the kernel of the filter.
+   *
+   * @return the kernel
+   */
+  @Override
+  public double[][] getFilter() {
+    return kernel;
+  }
+
+  /**
+   * Returns the row kernel if the kernel is separable.
+   *
+   * @return the row kernel, or null if the kernel is not separable
+   */
+  @Override
+  public double[] getRowKernel() {
+    return rowKernel;
+  }
+
+  /**
+   * Returns the column kernel if the kernel is separable.
+   *
+   * @return the column kernel, or null if the kernel is not separable
+   */
+  @Override
+  public double[] getColumnKernel() {
+    return columnKernel;
+  }
+
+  /**
+   * User supplied kernels are always accumulated in double precision.
+   *
+   * @return true
+   */
+  @Override
+  protected boolean isExactAccumulation() {
+    return true;
+  }
+}
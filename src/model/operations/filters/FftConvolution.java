@@ -0,0 +1,183 @@
+package model.operations.filters;
+
+import java.util.Arrays;
+import model.image.ImageInterface;
+import model.image.PackedImage.PackedImageBuilder;
+import model.operations.parallel.RowBandScheduler;
+
+/**
+ * This class applies a large kernel to an image through the fast Fourier transform. The image is
+ * cut into square tiles, and each tile is read together with the halo its kernel reaches into,
+ * transformed, multiplied with the transformed kernel and transformed back (overlap-save). Tiles
+ * only write their own output samples, so rows of tiles run in parallel.
+ */
+class FftConvolution {
+
+  private static final int MIN_TRANSFORM_SIZE = 128;
+
+  private final double[][] kernel;
+  private final int size;
+  private final int tileHeight;
+  private final int tileWidth;
+  private final double[] kernelReal;
+  private final double[] kernelImaginary;
+
+  /**
+   * Constructs an FFT convolution for the given kernel and transforms the kernel once.
+   *
+   * @param kernel the kernel, with an odd number of rows and columns
+   */
+  FftConvolution(double[][] kernel) {
+    this.kernel = kernel;
+    int longestSide = Math.max(kernel.length, kernel[0].length);
+    int size = MIN_TRANSFORM_SIZE;
+    while (size < 2 * (longestSide - 1)) {
+      size *= 2;
+    }
+    this.size = size;
+    this.tileHeight = size - kernel.length + 1;
+    this.tileWidth = size - kernel[0].length + 1;
+    // The direct loop correlates, so the kernel is flipped and wrapped around the origin for the
+    // circular convolution the transform computes
+    this.kernelReal = new double[size * size];
+    this.kernelImaginary = new double[size * size];
+    for (int k = 0; k < kernel.length; k++) {
+      for (int l = 0; l < kernel[0].length; l++) {
+        int u = (size - k) % size;
+        int v = (size - l) % size;
+        kernelReal[u * size + v] = kernel[k][l];
+      }
+    }
+    transform2D(kernelReal, kernelImaginary, false);
+  }
+
+  /**
+   * This method convolves every channel of the image into the builder.
+   *
+   * @param image         the image to be filtered
+   * @param filteredImage the builder to write the filtered samples into
+   * @param scheduler     the scheduler used to run rows of tiles
+   */
+  void apply(ImageInterface image, PackedImageBuilder filteredImage,
+      RowBandScheduler scheduler) {
+    int tileRows = (image.getHeight() + tileHeight - 1) / tileHeight;
+    scheduler.forEachBand(tileRows, 1, (startTile, endTile) -> {
+      double[] real = new double[size * size];
+      double[] imaginary = new double[size * size];
+      int[] row = new int[image.getWidth()];
+      for (int t = startTile; t < endTile; t++) {
+        for (int c = 0; c < image.getChannelCount(); c++) {
+          for (int j0 = 0; j0 < image.getWidth(); j0 += tileWidth) {
+            convolveTile(image, c, t * tileHeight, j0, real, imaginary, row, filteredImage);
+          }
+        }
+      }
+    });
+  }
+
+  private void convolveTile(ImageInterface image, int channel, int i0, int j0, double[] real,
+      double[] imaginary, int[] row, PackedImageBuilder filteredImage) {
+    int height = image.getHeight();
+    int width = image.getWidth();
+    int rowRadius = kernel.length / 2;
+    int columnRadius = kernel[0].length / 2;
+    Arrays.fill(real, 0);
+    Arrays.fill(imaginary, 0);
+    // Samples outside the image stay zero, which matches the direct loop skipping them
+    for (int a = 0; a < tileHeight + kernel.length - 1; a++) {
+      int sourceRow = i0 - rowRadius + a;
+      if (sourceRow < 0 || sourceRow >= height) {
+        continue;
+      }
+      image.getRow(channel, sourceRow, row, 0);
+      for (int b = 0; b < tileWidth + kernel[0].length - 1; b++) {
+        int sourceCol = j0 - columnRadius + b;
+        if (sourceCol >= 0 && sourceCol < width) {
+          real[a * size + b] = row[sourceCol];
+        }
+      }
+    }
+    transform2D(real, imaginary, false);
+    for (int x = 0; x < real.length; x++) {
+      double re = real[x] * kernelReal[x] - imaginary[x] * kernelImaginary[x];
+      double im = real[x] * kernelImaginary[x] + imaginary[x] * kernelReal[x];
+      real[x] = re;
+      imaginary[x] = im;
+    }
+    transform2D(real, imaginary, true);
+    int rows = Math.min(tileHeight, height - i0);
+    int cols = Math.min(tileWidth, width - j0);
+    for (int p = 0; p < rows; p++) {
+      for (int q = 0; q < cols; q++) {
+        double value = real[p * size + q];
+        filteredImage.setPixel(channel, i0 + p, j0 + q,
+            (int) Math.round(Math.min(Math.max(value, 0), 255)));
+      }
+    }
+  }
+
+  private void transform2D(double[] real, double[] imaginary, boolean inverse) {
+    double[] columnReal = new double[size];
+    double[] columnImaginary = new double[size];
+    for (int i = 0; i < size; i++) {
+      transform1D(real, imaginary, i * size, 1, inverse, columnReal, columnImaginary);
+    }
+    for (int j = 0; j < size; j++) {
+      transform1D(real, imaginary, j, size, inverse, columnReal, columnImaginary);
+    }
+  }
+
+  /**
+   * Iterative radix-2 transform of the size samples starting at offset, spaced stride apart. The
+   * inverse transform is scaled by 1 / size so that a forward and inverse pair is the identity.
+   */
+  private void transform1D(double[] real, double[] imaginary, int offset, int stride,
+      boolean inverse, double[] re, double[] im) {
+    for (int x = 0; x < size; x++) {
+      re[x] = real[offset + x * stride];
+      im[x] = imaginary[offset + x * stride];
+    }
+    for (int i = 1, j = 0; i < size; i++) {
+      int bit = size >> 1;
+      for (; (j & bit) != 0; bit >>= 1) {
+        j ^= bit;
+      }
+      j ^= bit;
+      if (i < j) {
+        double t = re[i];
+        re[i] = re[j];
+        re[j] = t;
+        t = im[i];
+        im[i] = im[j];
+        im[j] = t;
+      }
+    }
+    for (int length = 2; length <= size; length <<= 1) {
+      double angle = 2 * Math.PI / length * (inverse ? 1 : -1);
+      double stepReal = Math.cos(angle);
+      double stepImaginary = Math.sin(angle);
+      for (int start = 0; start < size; start += length) {
+        double wr = 1;
+        double wi = 0;
+        for (int k = 0; k < length / 2; k++) {
+          int even = start + k;
+          int odd = even + length / 2;
+          double oddReal = re[odd] * wr - im[odd] * wi;
+          double oddImaginary = re[odd] * wi + im[odd] * wr;
+          re[odd] = re[even] - oddReal;
+          im[odd] = im[even] - oddImaginary;
+          re[even] += oddReal;
+          im[even] += oddImaginary;
+          double nextReal = wr * stepReal - wi * stepImaginary;
+          wi = wr * stepImaginary + wi * stepReal;
+          wr = nextReal;
+        }
+      }
+    }
+    double scale = inverse ? 1.0 / size : 1.0;
+    for (int x = 0; x < size; x++) {
+      real[offset + x * stride] = re[x] * scale;
+      imaginary[offset + x * stride] = im[x] * scale;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package model.operations.filters;
+
+/**
+ * Util class to split a two dimensional kernel into a column kernel and a row kernel whose outer
+ * product is the original kernel. Only rank one kernels can be split this way.
+ */
+public class SeparableKernel {
+
+  private static final double TOLERANCE = 1e-9;
+
+  /**
+   * This method checks whether the kernel has rank one and splits it if it does.
+   *
+   * @param kernel the kernel to be split
+   * @return the column kernel at index 0 and the row kernel at index 1, or null if the kernel is
+   *         not separable
+   */
+  public static double[][] decompose(double[][] kernel) {
+    int rows = kernel.length;
+    int cols = kernel[0].length;
+    // Pivot on the largest entry so the division below is as stable as possible
+    int pivotRow = 0;
+    int pivotCol = 0;
+    double max = 0;
+    for (int i = 0; i < rows; i++) {
+      if (kernel[i].length != cols) {
+        return null;
+      }
+      for (int j = 0; j < cols; j++) {
+        if (Math.abs(kernel[i][j]) > max) {
+          max = Math.abs(kernel[i][j]);
+          pivotRow = i;
+          pivotCol = j;
+        }
+      }
+    }
+    if (max == 0) {
+      return null;
+    }
+    double[] column = new double[rows];
+    double[] row = new double[cols];
+    for (int i = 0; i < rows; i++) {
+      column[i] = kernel[i][pivotCol];
+    }
+    for (int j = 0; j < cols; j++) {
+      row[j] = kernel[pivotRow][j] / kernel[pivotRow][pivotCol];
+    }
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < cols; j++) {
+        if (Math.abs(column[i] * row[j] - kernel[i][j]) > TOLERANCE * max) {
+          return null;
+        }
+      }
+    }
+    return new double[][]{column, row};
+  }
+
+  /**
+   * This method builds a normalized one dimensional Gaussian kernel.
+   *
+   * @param radius the number of samples on each side of the centre
+   * @param sigma  the standard deviation of the Gaussian
+   * @return the kernel of length 2 * radius + 1
+   */
+  public static double[] gaussian(int radius, double sigma) {
+    double[] kernel = new double[2 * radius + 1];
+    double sum = 0;
+    for (int i = -radius; i <= radius; i++) {
+      kernel[i + radius] = Math.exp(-(i * i) / (2 * sigma * sigma));
+      sum += kernel[i + radius];
+    }
+    for (int i = 0; i < kernel.length; i++) {
+      kernel[i] /= sum;
+    }
+    return kernel;
+  }
+
+  /**
+   * This method builds the two dimensional kernel that is the outer product of two vectors.
+   *
+   * @param column the column kernel
+   * @param row    the row kernel
+   * @return the two dimensional kernel
+   */
+  public static double[][] outerProduct(double[] column, double[] row) {
+    double[][] kernel = new double[column.length][row.length];
+    for (int i = 0; i < column.length; i++) {
+      for (int j = 0; j < row.length; j++) {
+        kernel[i][j] = column[i] * row[j];
+      }
+    }
+    return kernel;
+  }
+}
@@ -1,5 +1,7 @@
 package model.operations.filters;
 
+import model.operations.parallel.RowBandScheduler;
+
 /**
  * Represents a sharpen filter operation object.
  */
@@ -11,6 +13,16 @@ public class SharpenFilter extends CommonFilterOperationExtention {
    * Constructs a sharpen filter object.
    */
   public SharpenFilter() {
+    this(new RowBandScheduler());
+  }
+
+  /**
+   * Constructs a sharpen filter object that runs on the given scheduler.
+   *
+   * @param scheduler the scheduler used to run the row bands
+   */
+  public SharpenFilter(RowBandScheduler scheduler) {
+    super(scheduler);
     this.sharpenFilter = new double[][]{
         {-0.125, -0.125, -0.125, -0.125, -0.125},
         {-0.125, 0.25, 0.25, 0.25, -0.125},
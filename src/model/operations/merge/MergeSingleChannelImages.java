@@ -1,9 +1,9 @@
 package model.operations.merge;
 
-import java.util.ArrayList;
 import java.util.List;
 import model.image.ImageFactory;
 import model.image.ImageInterface;
+import model.image.PackedImage.PackedImageBuilder;
 import model.operations.operationinterfaces.MultipleToSingleImageProcessor;
 
 /**
@@ -24,7 +24,12 @@ public class MergeSingleChannelImages implements MultipleToSingleImageProcessor
     int previousHeight = -1;
     int previousWidth = -1;
     validateImages(images);
-    List<int[][]> imageChannel = new ArrayList<>();
+    int bitDepth = 8;
+    for (ImageInterface image : images) {
+      bitDepth = Math.max(bitDepth, image.getBitDepth());
+    }
+    PackedImageBuilder mergedImage = ImageFactory.createImageBuilder(images.get(0).getHeight(),
+        images.get(0).getWidth(), images.size(), bitDepth);
     int imageNumber = 0;
     for (ImageInterface image : images) {
       if (previousHeight != -1 && image.getHeight() != previousHeight) {
@@ -33,16 +38,16 @@ public class MergeSingleChannelImages implements MultipleToSingleImageProcessor
       if (previousWidth != -1 && image.getWidth() != previousWidth) {
         throw new IllegalArgumentException("Images should have the same width");
       }
-      if (images.get(0).getChannel().size() == 1) {
-        imageChannel.add(image.getChannel().get(0));
+      if (images.get(0).getChannelCount() == 1) {
+        mergedImage.copyChannel(image, 0, imageNumber);
       } else {
-        imageChannel.add(image.getChannel().get(imageNumber));
+        mergedImage.copyChannel(image, imageNumber, imageNumber);
       }
       previousHeight = image.getHeight();
       previousWidth = image.getWidth();
       imageNumber++;
     }
-    return ImageFactory.createImage(imageChannel);
+    return mergedImage.build();
   }
 
   /**
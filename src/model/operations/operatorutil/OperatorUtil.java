@@ -1,5 +1,12 @@
 package model.operations.operatorutil;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Utility class for operations related to operators.
  */
@@ -27,5 +34,53 @@ public class OperatorUtil {
     }
     return percentage;
   }
-}
 
+  /**
+   * Converts a kernel specification to a kernel. The specification is either the path of a file
+   * with one row of whitespace separated values per line, where lines starting with '#' are
+   * ignored, or an inline matrix with rows separated by ';' and values by ','.
+   *
+   * @param kernel The kernel file path or inline matrix.
+   * @return The kernel.
+   * @throws IllegalArgumentException If the file cannot be read or a value is not a number.
+   */
+  public static double[][] parseKernel(String kernel) {
+    List<String> rows = new ArrayList<>();
+    String separator;
+    Path path = Paths.get(kernel);
+    if (Files.isRegularFile(path)) {
+      List<String> lines;
+      try {
+        lines = Files.readAllLines(path);
+      } catch (IOException e) {
+        throw new IllegalArgumentException("Kernel file could not be read");
+      }
+      for (String line : lines) {
+        line = line.trim();
+        if (!line.isEmpty() && !line.startsWith("#")) {
+          rows.add(line);
+        }
+      }
+      separator = "\\s+";
+    } else {
+      for (String row : kernel.split(";")) {
+        rows.add(row.trim());
+      }
+      separator = "\\s*,\\s*";
+    }
+
+    double[][] result = new double[rows.size()][];
+    for (int i = 0; i < rows.size(); i++) {
+      String[] values = rows.get(i).split(separator);
+      result[i] = new double[values.length];
+      for (int j = 0; j < values.length; j++) {
+        try {
+          result[i][j] = Double.parseDouble(values[j]);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Kernel values should be numbers");
+        }
+      }
+    }
+    return result;
+  }
+}
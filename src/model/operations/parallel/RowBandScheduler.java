@@ -0,0 +1,121 @@
+package model.operations.parallel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class splits the rows of an image into bands and runs a band action on each of them using
+ * a fork/join pool. Bands never overlap, so actions that only write the rows of their own band can
+ * run without any locking.
+ */
+public class RowBandScheduler {
+
+  private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+  private static final int MIN_BAND_ROWS = 16;
+  private static final int BANDS_PER_THREAD = 4;
+
+  private final int parallelism;
+
+  /**
+   * Constructs a scheduler that uses every available processor.
+   */
+  public RowBandScheduler() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructs a scheduler with the given parallelism level.
+   *
+   * @param parallelism the number of threads to run bands on, 1 runs everything on the caller
+   * @throws IllegalArgumentException if the parallelism is less than 1
+   */
+  public RowBandScheduler(int parallelism) throws IllegalArgumentException {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism should be at least 1");
+    }
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * The parallelism level of the scheduler is returned by this method.
+   *
+   * @return the parallelism level
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Runs the action over the rows [0, rows), split into a few bands per thread.
+   *
+   * @param rows   the number of rows
+   * @param action the action to run on each band
+   */
+  public void forEachBand(int rows, BandAction action) {
+    forEachBand(rows, Math.max(MIN_BAND_ROWS, rows / (parallelism * BANDS_PER_THREAD)), action);
+  }
+
+  /**
+   * Runs the action over the rows [0, rows), split into bands of at least the given size.
+   *
+   * @param rows        the number of rows
+   * @param minBandRows the smallest band worth running as its own task
+   * @param action      the action to run on each band
+   */
+  public void forEachBand(int rows, int minBandRows, BandAction action) {
+    int bandRows = Math.max(minBandRows, 1);
+    if (parallelism == 1 || rows <= bandRows) {
+      action.apply(0, rows);
+      return;
+    }
+    ForkJoinPool pool = POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    pool.invoke(new BandTask(action, 0, rows, bandRows));
+  }
+
+  /**
+   * This interface represents work done on a band of rows.
+   */
+  public interface BandAction {
+
+    /**
+     * This method runs the work on the rows [startRow, endRow).
+     *
+     * @param startRow the first row of the band
+     * @param endRow   the row after the last row of the band
+     */
+    void apply(int startRow, int endRow);
+  }
+
+  /**
+   * This class halves its band until it is small enough and then runs the action on it.
+   */
+  private static class BandTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BandAction action;
+    private final int startRow;
+    private final int endRow;
+    private final int bandRows;
+
+    BandTask(BandAction action, int startRow, int endRow, int bandRows) {
+      this.action = action;
+      this.startRow = startRow;
+      this.endRow = endRow;
+      this.bandRows = bandRows;
+    }
+
+    @Override
+    protected void compute() {
+      if (endRow - startRow <= bandRows) {
+        action.apply(startRow, endRow);
+        return;
+      }
+      int middle = (startRow + endRow) >>> 1;
+      invokeAll(new BandTask(action, startRow, middle, bandRows),
+          new BandTask(action, middle, endRow, bandRows));
+    }
+  }
+}
@@ -1,10 +1,10 @@
 package model.operations.pixeloffset;
 
-import java.util.ArrayList;
 import java.util.List;
-import model.image.ImageFactory;
 import model.image.ImageInterface;
 import model.operations.operationinterfaces.SingleImageProcessorWithOffset;
+import model.operations.pointwise.FusedPointwiseOperation;
+import model.operations.pointwise.PointwiseStage;
 
 /**
  * This class represents a simple offset operation of brightening on image applied on every pixel.
@@ -24,21 +24,61 @@ public class BrightnessOperation implements SingleImageProcessorWithOffset {
   @Override
   public ImageInterface apply(ImageInterface image,
       Object operator) throws IllegalArgumentException {
-    int factor = Integer.parseInt(operator.toString());
-    int height = image.getHeight();
-    int width = image.getWidth();
-    List<int[][]> imageChannel = image.getChannel();
-    List<int[][]> newChannel = new ArrayList<>();
-    for (int[][] channel : imageChannel) {
-      int[][] newPixels = new int[height][width];
-      for (int i = 0; i < height; i++) {
+    return new FusedPointwiseOperation().apply(image, List.of(toStage(operator)));
+  }
+
+  /**
+   * This method returns the offset operation as a per-pixel step, so it can be run fused with
+   * the steps of other per-pixel operations.
+   *
+   * @param operator the operator to be applied
+   * @return the step
+   * @throws IllegalArgumentException if the operator is not integer
+   */
+  public PointwiseStage toStage(Object operator) throws IllegalArgumentException {
+    return new OffsetStage(Integer.parseInt(operator.toString()), maxValue);
+  }
+
+  /**
+   * This class adds the offset to every sample and clamps it to 0 and the maximum value.
+   */
+  private static class OffsetStage implements PointwiseStage {
+
+    private final int factor;
+    private final int maxValue;
+    private final int[] table = new int[256];
+
+    OffsetStage(int factor, int maxValue) {
+      this.factor = factor;
+      this.maxValue = maxValue;
+      for (int value = 0; value < table.length; value++) {
+        table[value] = offset(value);
+      }
+    }
+
+    private int offset(int pixel) {
+      int newPixel = Math.min(pixel + factor, maxValue);
+      return Math.max(newPixel, 0);
+    }
+
+    @Override
+    public int getChannelCount(int inputChannelCount) {
+      return inputChannelCount;
+    }
+
+    @Override
+    public void applyRow(int[][] rows, int channelCount, int width) {
+      for (int c = 0; c < channelCount; c++) {
+        int[] row = rows[c];
         for (int j = 0; j < width; j++) {
-          newPixels[i][j] = Math.min(channel[i][j] + factor, maxValue);
-          newPixels[i][j] = Math.max(newPixels[i][j], 0);
+          row[j] = offset(row[j]) & 0xFF;
         }
       }
-      newChannel.add(newPixels);
     }
-    return ImageFactory.createImage(newChannel);
+
+    @Override
+    public int[] getLookupTable() {
+      return table;
+    }
   }
 }
@@ -0,0 +1,145 @@
+package model.operations.pixeloffset;
+
+import java.util.List;
+
+/**
+ * Util class to find the compression threshold among the absolute values of wavelet coefficients.
+ * The threshold is chosen among the distinct absolute values, so duplicates are removed first with
+ * a primitive hash set over the bit patterns of the values and the threshold is then selected from
+ * the distinct values with quickselect. Both steps take expected linear time and neither boxes a
+ * value.
+ */
+public class CoefficientThreshold {
+
+  private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  /**
+   * This method finds the threshold below which coefficients are dropped. Sorting the distinct
+   * absolute values in ascending order, the threshold is the value at factor times their count,
+   * capped at the largest value.
+   *
+   * @param channels the coefficients of every channel
+   * @param factor   the fraction of distinct values to drop, between 0 and 1
+   * @return the threshold
+   */
+  public static double select(List<double[][]> channels, double factor) {
+    double[] distinct = distinctAbsoluteValues(channels);
+    int size = distinct.length;
+    int thresholdIndex = Math.min(size - 1, (int) Math.abs(factor * size));
+    return select(distinct, thresholdIndex);
+  }
+
+  private static double[] distinctAbsoluteValues(List<double[][]> channels) {
+    // Open addressing over the raw bits, where 0 marks an empty slot and is tracked separately
+    long[] table = new long[1 << 10];
+    int count = 0;
+    boolean hasZero = false;
+    for (double[][] channel : channels) {
+      for (double[] row : channel) {
+        for (double value : row) {
+          long bits = Double.doubleToLongBits(Math.abs(value));
+          if (bits == 0) {
+            hasZero = true;
+            continue;
+          }
+          int mask = table.length - 1;
+          int slot = hash(bits) & mask;
+          while (table[slot] != 0 && table[slot] != bits) {
+            slot = (slot + 1) & mask;
+          }
+          if (table[slot] == 0) {
+            table[slot] = bits;
+            count++;
+            if (2 * count > table.length) {
+              table = grow(table);
+            }
+          }
+        }
+      }
+    }
+
+    double[] distinct = new double[count + (hasZero ? 1 : 0)];
+    int index = 0;
+    if (hasZero) {
+      distinct[index++] = 0.0;
+    }
+    for (long bits : table) {
+      if (bits != 0) {
+        distinct[index++] = Double.longBitsToDouble(bits);
+      }
+    }
+    return distinct;
+  }
+
+  private static long[] grow(long[] table) {
+    long[] grown = new long[table.length * 2];
+    int mask = grown.length - 1;
+    for (long bits : table) {
+      if (bits != 0) {
+        int slot = hash(bits) & mask;
+        while (grown[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        grown[slot] = bits;
+      }
+    }
+    return grown;
+  }
+
+  private static int hash(long bits) {
+    long hash = bits * HASH_MULTIPLIER;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  /**
+   * Finds the value that would be at index k if the distinct values were sorted, reordering the
+   * array in the process.
+   */
+  private static double select(double[] values, int k) {
+    int left = 0;
+    int right = values.length - 1;
+    while (left < right) {
+      int middle = (left + right) >>> 1;
+      // Median of three keeps sorted and reverse sorted input linear
+      if (values[middle] < values[left]) {
+        swap(values, middle, left);
+      }
+      if (values[right] < values[left]) {
+        swap(values, right, left);
+      }
+      if (values[right] < values[middle]) {
+        swap(values, right, middle);
+      }
+      double pivot = values[middle];
+      int i = left;
+      int j = right;
+      while (i <= j) {
+        while (values[i] < pivot) {
+          i++;
+        }
+        while (values[j] > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          swap(values, i, j);
+          i++;
+          j--;
+        }
+      }
+      if (k <= j) {
+        right = j;
+      } else if (k >= i) {
+        left = i;
+      } else {
+        return values[k];
+      }
+    }
+    return values[k];
+  }
+
+  private static void swap(double[] values, int i, int j) {
+    double value = values[i];
+    values[i] = values[j];
+    values[j] = value;
+  }
+}
@@ -0,0 +1,84 @@
+package model.operations.pixeloffset;
+
+import java.util.List;
+import model.image.ImageInterface;
+
+/**
+ * This class represents the result of a compression. It reads like the reconstructed image and
+ * also keeps the coefficients that survived the threshold, so the image can be saved in its sparse
+ * form instead of as pixels.
+ */
+public class CompressedImage implements ImageInterface {
+
+  private final ImageInterface pixels;
+  private final WaveletCoefficients coefficients;
+
+  /**
+   * Constructs a compressed image from its reconstructed pixels and its coefficients.
+   *
+   * @param pixels       the reconstructed image
+   * @param coefficients the coefficients the image was reconstructed from
+   */
+  public CompressedImage(ImageInterface pixels, WaveletCoefficients coefficients) {
+    this.pixels = pixels;
+    this.coefficients = coefficients;
+  }
+
+  /**
+   * The reconstructed pixels of the image are returned by this method.
+   *
+   * @return the reconstructed image
+   */
+  public ImageInterface getPixels() {
+    return pixels;
+  }
+
+  /**
+   * The coefficients the image was reconstructed from are returned by this method.
+   *
+   * @return the coefficients
+   */
+  public WaveletCoefficients getCoefficients() {
+    return coefficients;
+  }
+
+  @Override
+  public List<int[][]> getChannel() {
+    return pixels.getChannel();
+  }
+
+  @Override
+  public int[][] getChannel(int index) {
+    return pixels.getChannel(index);
+  }
+
+  @Override
+  public int getHeight() {
+    return pixels.getHeight();
+  }
+
+  @Override
+  public int getWidth() {
+    return pixels.getWidth();
+  }
+
+  @Override
+  public int getChannelCount() {
+    return pixels.getChannelCount();
+  }
+
+  @Override
+  public int getPixel(int channel, int row, int col) {
+    return pixels.getPixel(channel, row, col);
+  }
+
+  @Override
+  public void getRow(int channel, int row, int[] dest, int offset) {
+    pixels.getRow(channel, row, dest, offset);
+  }
+
+  @Override
+  public int getBitDepth() {
+    return pixels.getBitDepth();
+  }
+}
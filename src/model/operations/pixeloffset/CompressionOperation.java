@@ -1,25 +1,66 @@
 package model.operations.pixeloffset;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
 import model.image.ImageFactory;
 import model.image.ImageInterface;
+import model.image.PackedImage.PackedImageBuilder;
 import model.operations.operationinterfaces.SingleImageProcessorWithOffset;
+import model.operations.parallel.RowBandScheduler;
 
 /**
- * A class representing a compression operation for image processing.
+ * A class representing a compression operation for image processing. The image is transformed
+ * with its height and width each padded to a power of two, or split into square tiles that are
+ * compressed independently and in parallel.
  */
 public class CompressionOperation implements SingleImageProcessorWithOffset {
 
+  private final int tileSize;
+  private final RowBandScheduler scheduler;
+
+  /**
+   * Constructs a compression operation that compresses the whole image at once.
+   */
+  public CompressionOperation() {
+    this.tileSize = 0;
+    this.scheduler = new RowBandScheduler(1);
+  }
+
+  /**
+   * Constructs a compression operation that compresses square tiles of the image independently.
+   * Each tile chooses its own threshold, so memory use is bounded by the tile size and the tiles
+   * run on every available processor.
+   *
+   * @param tileSize the side of the tiles
+   * @throws IllegalArgumentException if the tile size is less than 2
+   */
+  public CompressionOperation(int tileSize) throws IllegalArgumentException {
+    this(tileSize, new RowBandScheduler());
+  }
+
+  /**
+   * Constructs a compression operation that compresses square tiles of the image independently on
+   * the given scheduler.
+   *
+   * @param tileSize  the side of the tiles
+   * @param scheduler the scheduler used to run rows of tiles
+   * @throws IllegalArgumentException if the tile size is less than 2
+   */
+  public CompressionOperation(int tileSize, RowBandScheduler scheduler)
+      throws IllegalArgumentException {
+    if (tileSize < 2) {
+      throw new IllegalArgumentException("Tile size should be at least 2");
+    }
+    this.tileSize = tileSize;
+    this.scheduler = scheduler;
+  }
+
   /**
    * Applies the compression operation to the specified image.
    *
    * @param image    The source image.
    * @param operator The compression factor as a percentage (0 to 99).
-   * @return The processed image.
+   * @return The processed image, which also keeps the coefficients that survived.
    * @throws IllegalArgumentException If the compression factor is invalid.
    */
   @Override
@@ -34,128 +75,69 @@ public class CompressionOperation implements SingleImageProcessorWithOffset {
     if (compressionFactor < 0 || compressionFactor > 99) {
       throw new IllegalArgumentException("Percentage should be between 0 and 99");
     }
-    List<double[][]> paddedChannel = getPaddedImage(image.getChannel());
-    for (double[][] channel : paddedChannel) {
-      transform2D(channel);
-    }
-    resetValues(paddedChannel, compressionFactor / 100);
-    for (double[][] channel : paddedChannel) {
-      inverseTransform2D(channel);
-    }
-    List<int[][]> newChannelList = new ArrayList<>();
-    for (double[][] channel : paddedChannel) {
-      int[][] newChannel = new int[image.getHeight()][image.getWidth()];
-      for (int i = 0; i < image.getHeight(); i++) {
-        for (int j = 0; j < image.getWidth(); j++) {
-          newChannel[i][j] = (int) Math
-              .round(channel[i][j] < 0.0 ? 0 : Math.min(channel[i][j], 255.0));
+    int channelCount = image.getChannelCount();
+    PackedImageBuilder newImage = ImageFactory.createImageBuilder(image.getHeight(),
+        image.getWidth(), channelCount);
+    if (tileSize == 0) {
+      byte[][] streams = new byte[channelCount][];
+      compressRegion(image, 0, 0, image.getHeight(), image.getWidth(), compressionFactor / 100,
+          newImage, streams, 0);
+      return new CompressedImage(newImage.build(), new WaveletCoefficients(image.getHeight(),
+          image.getWidth(), channelCount, 0, streams));
+    }
+    int tileRows = (image.getHeight() + tileSize - 1) / tileSize;
+    int tileColumns = (image.getWidth() + tileSize - 1) / tileSize;
+    byte[][] streams = new byte[tileRows * tileColumns * channelCount][];
+    scheduler.forEachBand(tileRows, 1, (startTile, endTile) -> {
+      for (int t = startTile; t < endTile; t++) {
+        int top = t * tileSize;
+        int height = Math.min(tileSize, image.getHeight() - top);
+        for (int u = 0; u < tileColumns; u++) {
+          int left = u * tileSize;
+          int width = Math.min(tileSize, image.getWidth() - left);
+          compressRegion(image, top, left, height, width, compressionFactor / 100, newImage,
+              streams, (t * tileColumns + u) * channelCount);
         }
       }
-      newChannelList.add(newChannel);
-    }
-    return ImageFactory.createImage(newChannelList);
+    });
+    return new CompressedImage(newImage.build(), new WaveletCoefficients(image.getHeight(),
+        image.getWidth(), channelCount, tileSize, streams));
   }
 
-  private double[] inverseTransform1D(double[] s, int len) {
-    List<Double> avgList = new ArrayList<>();
-    List<Double> diffList = new ArrayList<>();
-    for (int i = 0; i < len / 2; i++) {
-      Double a = s[i];
-      Double b = s[i + len / 2];
-      Double avg = (a + b) / Math.sqrt(2);
-      Double diff = (a - b) / Math.sqrt(2);
-      avgList.add(avg);
-      diffList.add(diff);
-    }
-    int index = 0;
-    for (int i = 0; i < avgList.size(); i += 1) {
-      s[index++] = avgList.get(i);
-      s[index++] = diffList.get(i);
-    }
-    return s;
-  }
-
-  private double[] transform1D(double[] s, int len) {
-    List<Double> avgList = new ArrayList<>();
-    List<Double> diffList = new ArrayList<>();
-    for (int i = 0; i < len - 1; i += 2) {
-      Double a = s[i];
-      Double b = s[i + 1];
-      Double avg = (a + b) / Math.sqrt(2);
-      Double diff = (a - b) / Math.sqrt(2);
-      avgList.add(avg);
-      diffList.add(diff);
-    }
-    int index = 0;
-    for (Double value : avgList) {
-      s[index] = value;
-      index++;
-    }
-    for (Double aDouble : diffList) {
-      s[index] = aDouble;
-      index++;
-    }
-    return s;
-  }
-
-
-  private double[][] transform2D(double[][] matrix) {
-    int len = matrix.length;
-    int c = len;
-    while (c > 1) {
-      for (int i = 0; i < c; i++) {
-        matrix[i] = transform1D(matrix[i], c);
-      }
-      for (int j = 0; j < c / 2; j++) {
-        double[] column = new double[len];
-        for (int i = 0; i < len; i++) {
-          column[i] = matrix[i][j];
-        }
-        transform1D(column, c);
-        for (int i = 0; i < len; i++) {
-          matrix[i][j] = column[i];
-        }
-      }
-      c = c / 2;
-    }
-    return matrix;
-  }
-
-  private double[][] inverseTransform2D(double[][] matrix) {
-    int len = matrix.length;
-    int c = 2;
-    while (c <= len) {
-      for (int j = 0; j < c / 2; j++) {
-        double[] column = new double[len];
-        for (int i = 0; i < len; i++) {
-          column[i] = matrix[i][j];
-        }
-        inverseTransform1D(column, c);
-        for (int i = 0; i < len; i++) {
-          matrix[i][j] = column[i];
+  private void compressRegion(ImageInterface image, int top, int left, int height, int width,
+      double factor, PackedImageBuilder newImage, byte[][] streams, int firstStream) {
+    List<double[][]> paddedChannel = getPaddedImage(image, top, left, height, width);
+    HaarTransform transform = new HaarTransform(paddedChannel.get(0).length,
+        paddedChannel.get(0)[0].length);
+    for (double[][] channel : paddedChannel) {
+      transform.forward(channel);
+    }
+    resetValues(paddedChannel, factor);
+    for (int c = 0; c < paddedChannel.size(); c++) {
+      streams[firstStream + c] = WaveletCoefficients.encode(paddedChannel.get(c));
+      transform.inverse(paddedChannel.get(c));
+    }
+    for (int c = 0; c < paddedChannel.size(); c++) {
+      double[][] channel = paddedChannel.get(c);
+      for (int i = 0; i < height; i++) {
+        for (int j = 0; j < width; j++) {
+          newImage.setPixel(c, top + i, left + j, (int) Math
+              .round(channel[i][j] < 0.0 ? 0 : Math.min(channel[i][j], 255.0)));
         }
       }
-      for (int i = 0; i < c; i++) {
-        matrix[i] = inverseTransform1D(matrix[i], c);
-      }
-      c = c * 2;
     }
-    return matrix;
   }
 
-  private List<double[][]> getPaddedImage(List<int[][]> channels) {
+  private List<double[][]> getPaddedImage(ImageInterface image, int top, int left, int height,
+      int width) {
     List<double[][]> paddedList = new ArrayList<>();
-    int height = channels.get(0).length;
-    int width = channels.get(0)[0].length;
-    int pow = 2;
-    while (pow < height || pow < width) {
-      pow = pow * 2;
-    }
-    for (int[][] channel : channels) {
-      double[][] paddedMatrix = new double[pow][pow];
+    int paddedHeight = WaveletCoefficients.paddedLength(height);
+    int paddedWidth = WaveletCoefficients.paddedLength(width);
+    for (int c = 0; c < image.getChannelCount(); c++) {
+      double[][] paddedMatrix = new double[paddedHeight][paddedWidth];
       for (int j = 0; j < height; j++) {
         for (int w = 0; w < width; w++) {
-          paddedMatrix[j][w] = channel[j][w];
+          paddedMatrix[j][w] = image.getPixel(c, top + j, left + w);
         }
       }
       paddedList.add(paddedMatrix);
@@ -163,17 +145,8 @@ public class CompressionOperation implements SingleImageProcessorWithOffset {
     return paddedList;
   }
 
-  private void resetValues(List<double[][]> channels, Double factor) {
-    Set<Double> uniqueValues = new TreeSet<>(Double::compareTo);
-    for (double[][] channel : channels) {
-      for (double[] row : channel) {
-        Arrays.stream(row).map(Math::abs).forEach(uniqueValues::add);
-      }
-    }
-    int thresholdIndex = Math
-        .min(uniqueValues.size() - 1, (int) Math.abs(factor * uniqueValues.size()));
-    List<Double> uniqueList = new ArrayList<>(uniqueValues);
-    Double value = uniqueList.get(thresholdIndex);
+  private void resetValues(List<double[][]> channels, double factor) {
+    double value = CoefficientThreshold.select(channels, factor);
     for (double[][] channel : channels) {
       for (int i = 0; i < channel.length; i++) {
         for (int j = 0; j < channel[0].length; j++) {
@@ -0,0 +1,145 @@
+package model.operations.pixeloffset;
+
+/**
+ * This class applies the Haar wavelet transform to a matrix whose sides are powers of two. Each
+ * level transforms the leading rows and then the leading columns of the current block, halving
+ * every side that is still longer than one. The transform works in place and reuses the scratch
+ * buffers it was created with, so a transform object must not be shared between threads.
+ */
+public class HaarTransform {
+
+  private static final double SQRT_2 = Math.sqrt(2);
+  private static final int BLOCK_SIZE = 32;
+
+  private final int height;
+  private final int width;
+  private final double[] scratch;
+  private final double[][] strip;
+
+  /**
+   * Constructs a transform for square matrices of the given side.
+   *
+   * @param length the side of the matrices to be transformed
+   */
+  public HaarTransform(int length) {
+    this(length, length);
+  }
+
+  /**
+   * Constructs a transform for matrices of the given height and width.
+   *
+   * @param height the number of rows of the matrices to be transformed
+   * @param width  the number of columns of the matrices to be transformed
+   */
+  public HaarTransform(int height, int width) {
+    this.height = height;
+    this.width = width;
+    this.scratch = new double[Math.max(height, width)];
+    this.strip = new double[BLOCK_SIZE][height];
+  }
+
+  /**
+   * This method replaces the matrix with its Haar wavelet coefficients.
+   *
+   * @param matrix the matrix to be transformed
+   */
+  public void forward(double[][] matrix) {
+    int rows = height;
+    int cols = width;
+    while (rows > 1 || cols > 1) {
+      if (cols > 1) {
+        for (int i = 0; i < rows; i++) {
+          forward1D(matrix[i], cols);
+        }
+      }
+      if (rows > 1) {
+        transformColumns(matrix, rows, cols > 1 ? cols / 2 : cols, false);
+      }
+      rows = rows > 1 ? rows / 2 : rows;
+      cols = cols > 1 ? cols / 2 : cols;
+    }
+  }
+
+  /**
+   * This method replaces the Haar wavelet coefficients in the matrix with the values they were
+   * computed from.
+   *
+   * @param matrix the matrix of coefficients
+   */
+  public void inverse(double[][] matrix) {
+    int levels = Math.max(Integer.numberOfTrailingZeros(height),
+        Integer.numberOfTrailingZeros(width));
+    for (int level = levels - 1; level >= 0; level--) {
+      int rows = Math.max(1, height >> level);
+      int cols = Math.max(1, width >> level);
+      if (rows > 1) {
+        transformColumns(matrix, rows, cols > 1 ? cols / 2 : cols, true);
+      }
+      if (cols > 1) {
+        for (int i = 0; i < rows; i++) {
+          inverse1D(matrix[i], cols);
+        }
+      }
+    }
+  }
+
+  /**
+   * Transforms the given number of leading columns over their first c samples. The columns are
+   * copied into a strip of rows a block at a time, so every pass over the matrix reads contiguous
+   * runs of each row instead of striding down a single column.
+   */
+  private void transformColumns(double[][] matrix, int c, int columns, boolean inverse) {
+    for (int j0 = 0; j0 < columns; j0 += BLOCK_SIZE) {
+      int block = Math.min(BLOCK_SIZE, columns - j0);
+      for (int i = 0; i < c; i++) {
+        double[] row = matrix[i];
+        for (int t = 0; t < block; t++) {
+          strip[t][i] = row[j0 + t];
+        }
+      }
+      for (int t = 0; t < block; t++) {
+        if (inverse) {
+          inverse1D(strip[t], c);
+        } else {
+          forward1D(strip[t], c);
+        }
+      }
+      for (int i = 0; i < c; i++) {
+        double[] row = matrix[i];
+        for (int t = 0; t < block; t++) {
+          row[j0 + t] = strip[t][i];
+        }
+      }
+    }
+  }
+
+  /**
+   * Replaces the first len samples with the averages of consecutive pairs followed by their
+   * differences.
+   */
+  private void forward1D(double[] s, int len) {
+    int half = len / 2;
+    for (int i = 0; i < half; i++) {
+      double a = s[2 * i];
+      double b = s[2 * i + 1];
+      scratch[i] = (a + b) / SQRT_2;
+      scratch[half + i] = (a - b) / SQRT_2;
+    }
+    System.arraycopy(scratch, 0, s, 0, len);
+  }
+
+  /**
+   * Replaces the first len samples, averages followed by differences, with the pairs they were
+   * computed from.
+   */
+  private void inverse1D(double[] s, int len) {
+    int half = len / 2;
+    for (int i = 0; i < half; i++) {
+      double a = s[i];
+      double b = s[i + half];
+      scratch[2 * i] = (a + b) / SQRT_2;
+      scratch[2 * i + 1] = (a - b) / SQRT_2;
+    }
+    System.arraycopy(scratch, 0, s, 0, len);
+  }
+}
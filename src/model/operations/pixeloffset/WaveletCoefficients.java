@@ -0,0 +1,367 @@
+package model.operations.pixeloffset;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import model.image.ImageFactory;
+import model.image.ImageInterface;
+import model.image.PackedImage.PackedImageBuilder;
+import model.operations.parallel.RowBandScheduler;
+
+/**
+ * This class holds the Haar wavelet coefficients of a compressed image in a sparse encoded form.
+ * The image is made of square tiles, or a single tile covering the whole image, and every channel
+ * of every tile is one stream. A stream lists the coefficients of the padded tile from the
+ * coarsest level to the finest, quantized to steps of 1 / 16, as the number of zeros before each
+ * non zero value followed by the value itself, both as variable length integers. Trailing zeros
+ * are not stored.
+ */
+public class WaveletCoefficients {
+
+  private static final double QUANTIZATION = 16;
+
+  private final int height;
+  private final int width;
+  private final int channelCount;
+  private final int tileSize;
+  private final byte[][] streams;
+
+  /**
+   * Constructs the coefficients of an image from its streams. The streams are not copied.
+   *
+   * @param height       the height of the image
+   * @param width        the width of the image
+   * @param channelCount the number of channels
+   * @param tileSize     the side of the tiles, or 0 if the image is a single tile
+   * @param streams      the stream of every channel of every tile, tiles in row-major order and
+   *                     channels of a tile next to each other
+   * @throws IllegalArgumentException if the number of streams does not match the tiles
+   */
+  public WaveletCoefficients(int height, int width, int channelCount, int tileSize,
+      byte[][] streams) throws IllegalArgumentException {
+    if (height <= 0 || width <= 0 || tileSize < 0) {
+      throw new IllegalArgumentException("Image dimensions must be positive");
+    }
+    this.height = height;
+    this.width = width;
+    this.channelCount = channelCount;
+    this.tileSize = tileSize;
+    this.streams = streams;
+    if (streams.length != getTileRows() * getTileColumns() * channelCount) {
+      throw new IllegalArgumentException("Number of streams does not match the tiles");
+    }
+  }
+
+  /**
+   * The height of the image is returned by this method.
+   *
+   * @return the height of the image
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * The width of the image is returned by this method.
+   *
+   * @return the width of the image
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * The number of channels of the image is returned by this method.
+   *
+   * @return the number of channels
+   */
+  public int getChannelCount() {
+    return channelCount;
+  }
+
+  /**
+   * The side of the tiles is returned by this method.
+   *
+   * @return the side of the tiles, or 0 if the image is a single tile
+   */
+  public int getTileSize() {
+    return tileSize;
+  }
+
+  /**
+   * The number of streams, one per channel of every tile, is returned by this method.
+   *
+   * @return the number of streams
+   */
+  public int getStreamCount() {
+    return streams.length;
+  }
+
+  /**
+   * A single encoded stream is returned by this method. The array is shared, not copied.
+   *
+   * @param index the index of the stream, tile * channels + channel
+   * @return the stream
+   */
+  public byte[] getStream(int index) {
+    return streams[index];
+  }
+
+  /**
+   * This method rebuilds the image by decoding every stream and applying the inverse transform.
+   * No forward transform is needed.
+   *
+   * @return the image
+   */
+  public ImageInterface reconstruct() {
+    PackedImageBuilder image = ImageFactory.createImageBuilder(height, width, channelCount);
+    int tileHeight = tileSize == 0 ? height : tileSize;
+    int tileWidth = tileSize == 0 ? width : tileSize;
+    int tileColumns = getTileColumns();
+    new RowBandScheduler().forEachBand(getTileRows(), 1, (startTile, endTile) -> {
+      for (int t = startTile; t < endTile; t++) {
+        int top = t * tileHeight;
+        int rows = Math.min(tileHeight, height - top);
+        for (int u = 0; u < tileColumns; u++) {
+          int left = u * tileWidth;
+          int cols = Math.min(tileWidth, width - left);
+          double[][] matrix = new double[paddedLength(rows)][paddedLength(cols)];
+          HaarTransform transform = new HaarTransform(matrix.length, matrix[0].length);
+          for (int c = 0; c < channelCount; c++) {
+            if (c > 0) {
+              for (double[] row : matrix) {
+                Arrays.fill(row, 0);
+              }
+            }
+            decode(streams[(t * tileColumns + u) * channelCount + c], matrix,
+                matrix.length * matrix[0].length);
+            transform.inverse(matrix);
+            for (int i = 0; i < rows; i++) {
+              for (int j = 0; j < cols; j++) {
+                image.setPixel(c, top + i, left + j, (int) Math
+                    .round(matrix[i][j] < 0.0 ? 0 : Math.min(matrix[i][j], 255.0)));
+              }
+            }
+          }
+        }
+      }
+    });
+    return image.build();
+  }
+
+  /**
+   * This method rebuilds a preview of the image scaled down by 2 to the power of the level. Only
+   * the coarse coefficients at the start of every stream are decoded, and the inverse transform
+   * runs on the top left block they fill, whose values are the scaled means of blocks of the
+   * image. Blocks that reach into the padding are averaged over the pixels of the image only.
+   *
+   * @param level the number of halvings, 0 for the full image
+   * @return the preview
+   * @throws IllegalArgumentException if the level is negative
+   */
+  public ImageInterface preview(int level) throws IllegalArgumentException {
+    if (level < 0) {
+      throw new IllegalArgumentException("Preview level should not be negative");
+    }
+    if (level == 0) {
+      return reconstruct();
+    }
+    int tileHeight = tileSize == 0 ? height : tileSize;
+    int tileWidth = tileSize == 0 ? width : tileSize;
+    int previewTileHeight = previewLength(tileHeight, level);
+    int previewTileWidth = previewLength(tileWidth, level);
+    int tileRows = getTileRows();
+    int tileColumns = getTileColumns();
+    int previewHeight = (tileRows - 1) * previewTileHeight
+        + previewLength(height - (tileRows - 1) * tileHeight, level);
+    int previewWidth = (tileColumns - 1) * previewTileWidth
+        + previewLength(width - (tileColumns - 1) * tileWidth, level);
+    PackedImageBuilder image = ImageFactory.createImageBuilder(previewHeight, previewWidth,
+        channelCount);
+    new RowBandScheduler().forEachBand(tileRows, 1, (startTile, endTile) -> {
+      for (int t = startTile; t < endTile; t++) {
+        int rows = Math.min(tileHeight, height - t * tileHeight);
+        for (int u = 0; u < tileColumns; u++) {
+          int cols = Math.min(tileWidth, width - u * tileWidth);
+          int paddedRows = paddedLength(rows);
+          int paddedCols = paddedLength(cols);
+          int blockRows = Math.max(1, paddedRows >> level);
+          int blockCols = Math.max(1, paddedCols >> level);
+          int scaleRows = paddedRows / blockRows;
+          int scaleCols = paddedCols / blockCols;
+          double scale = Math.sqrt((double) scaleRows * scaleCols);
+          double[][] block = new double[blockRows][blockCols];
+          HaarTransform transform = new HaarTransform(blockRows, blockCols);
+          for (int c = 0; c < channelCount; c++) {
+            if (c > 0) {
+              for (double[] row : block) {
+                Arrays.fill(row, 0);
+              }
+            }
+            decode(streams[(t * tileColumns + u) * channelCount + c], block,
+                blockRows * blockCols);
+            transform.inverse(block);
+            for (int i = 0; i < previewLength(rows, level); i++) {
+              int realRows = Math.min(scaleRows, rows - i * scaleRows);
+              for (int j = 0; j < previewLength(cols, level); j++) {
+                int realCols = Math.min(scaleCols, cols - j * scaleCols);
+                double value = block[i][j] / scale * scaleRows * scaleCols
+                    / (realRows * realCols);
+                image.setPixel(c, t * previewTileHeight + i, u * previewTileWidth + j,
+                    (int) Math.round(value < 0.0 ? 0 : Math.min(value, 255.0)));
+              }
+            }
+          }
+        }
+      }
+    });
+    return image.build();
+  }
+
+  private static int previewLength(int length, int level) {
+    if (level >= 31) {
+      return 1;
+    }
+    return (length + (1 << level) - 1) >> level;
+  }
+
+  private int getTileRows() {
+    return tileSize == 0 ? 1 : (height + tileSize - 1) / tileSize;
+  }
+
+  private int getTileColumns() {
+    return tileSize == 0 ? 1 : (width + tileSize - 1) / tileSize;
+  }
+
+  /**
+   * This method returns the length a side of a tile is padded to before it is transformed.
+   *
+   * @param length the length of the side
+   * @return the smallest power of two that is not less than the length
+   */
+  static int paddedLength(int length) {
+    int pow = 1;
+    while (pow < length) {
+      pow = pow * 2;
+    }
+    return pow;
+  }
+
+  /**
+   * This method encodes the coefficients of a padded tile channel into a stream.
+   *
+   * @param matrix the coefficients, with sides that are powers of two
+   * @return the stream
+   */
+  static byte[] encode(double[][] matrix) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long[] zeros = {0};
+    forEachInLevelOrder(matrix.length, matrix[0].length, (i, j) -> {
+      long value = Math.round(matrix[i][j] * QUANTIZATION);
+      if (value == 0) {
+        zeros[0]++;
+      } else {
+        writeVarint(out, zeros[0]);
+        writeVarint(out, (value << 1) ^ (value >> 63));
+        zeros[0] = 0;
+      }
+      return true;
+    });
+    return out.toByteArray();
+  }
+
+  /**
+   * This method decodes the first coefficients of a stream, in level order, into a zeroed matrix.
+   * Because coarse levels come first, the first rows * cols coefficients of a level fill the top
+   * left block of that size.
+   *
+   * @param stream the stream
+   * @param matrix the zeroed matrix to fill, with sides that are powers of two
+   * @param count  the number of coefficients to decode
+   */
+  static void decode(byte[] stream, double[][] matrix, int count) {
+    StreamReader reader = new StreamReader(stream);
+    long[] zeros = {reader.hasMore() ? reader.readVarint() : Long.MAX_VALUE};
+    int[] remaining = {count};
+    forEachInLevelOrder(matrix.length, matrix[0].length, (i, j) -> {
+      if (remaining[0]-- == 0) {
+        return false;
+      }
+      if (zeros[0] > 0) {
+        zeros[0]--;
+        return true;
+      }
+      long value = reader.readVarint();
+      matrix[i][j] = ((value >>> 1) ^ -(value & 1)) / QUANTIZATION;
+      zeros[0] = reader.hasMore() ? reader.readVarint() : Long.MAX_VALUE;
+      return true;
+    });
+  }
+
+  /**
+   * Visits every position of a matrix from the coarsest level to the finest. Level k is the top
+   * left block of height >> k by width >> k, and each level visits, row by row, the positions that
+   * the previous level did not.
+   */
+  private static void forEachInLevelOrder(int rows, int cols, PositionVisitor visitor) {
+    int levels = Math.max(Integer.numberOfTrailingZeros(rows),
+        Integer.numberOfTrailingZeros(cols));
+    int previousRows = 0;
+    int previousCols = 0;
+    for (int k = levels; k >= 0; k--) {
+      int levelRows = Math.max(1, rows >> k);
+      int levelCols = Math.max(1, cols >> k);
+      for (int i = 0; i < levelRows; i++) {
+        for (int j = i < previousRows ? previousCols : 0; j < levelCols; j++) {
+          if (!visitor.visit(i, j)) {
+            return;
+          }
+        }
+      }
+      previousRows = levelRows;
+      previousCols = levelCols;
+    }
+  }
+
+  private static void writeVarint(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private interface PositionVisitor {
+
+    boolean visit(int row, int col);
+  }
+
+  private static class StreamReader {
+
+    private final byte[] stream;
+    private int position;
+
+    StreamReader(byte[] stream) {
+      this.stream = stream;
+    }
+
+    boolean hasMore() {
+      return position < stream.length;
+    }
+
+    long readVarint() {
+      long value = 0;
+      int shift = 0;
+      while (true) {
+        if (position >= stream.length) {
+          throw new IllegalArgumentException("Wavelet stream is truncated");
+        }
+        byte b = stream[position++];
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+        shift += 7;
+      }
+    }
+  }
+}
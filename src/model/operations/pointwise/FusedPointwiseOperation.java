@@ -0,0 +1,144 @@
+package model.operations.pointwise;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.image.ImageFactory;
+import model.image.ImageInterface;
+import model.image.PackedImage.PackedImageBuilder;
+import model.operations.parallel.RowBandScheduler;
+
+/**
+ * This class runs a chain of per-pixel steps in one pass over the image. Every band of rows is
+ * read once, taken through every step while it is still in the cache and written once, so no
+ * image is built for the steps in between. Consecutive steps that map every sample through a
+ * table are composed into a single table. Each step still truncates and clamps its samples
+ * exactly where its own operation does, so the result is the same as running the operations one
+ * after another.
+ */
+public class FusedPointwiseOperation {
+
+  private final RowBandScheduler scheduler;
+
+  /**
+   * Constructs a fused operation that runs bands of rows on every available processor.
+   */
+  public FusedPointwiseOperation() {
+    this(new RowBandScheduler());
+  }
+
+  /**
+   * Constructs a fused operation that runs bands of rows with the given scheduler.
+   *
+   * @param scheduler the scheduler that runs the bands
+   */
+  public FusedPointwiseOperation(RowBandScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * This method applies the steps to the image, the first step first.
+   *
+   * @param image  the image to be processed
+   * @param stages the steps to apply
+   * @return new processed image, or the image itself if no step changes it
+   * @throws IllegalArgumentException if a step cannot be applied to the result of the steps
+   *                                  before it
+   */
+  public ImageInterface apply(ImageInterface image, List<PointwiseStage> stages)
+      throws IllegalArgumentException {
+    int channelCount = image.getChannelCount();
+    int bitDepth = image.getBitDepth();
+    List<PointwiseStage> steps = new ArrayList<>();
+    int[] table = null;
+    for (PointwiseStage stage : stages) {
+      int nextChannelCount = stage.getChannelCount(channelCount);
+      if (stage.changesImage(channelCount)) {
+        int[] stageTable = stage.getLookupTable();
+        if (stageTable != null && bitDepth == 8) {
+          table = table == null ? stageTable : compose(table, stageTable);
+        } else {
+          if (table != null) {
+            steps.add(new LookupTableStage(table));
+            table = null;
+          }
+          steps.add(stage);
+        }
+        bitDepth = stage.getBitDepth(bitDepth);
+      }
+      channelCount = nextChannelCount;
+    }
+    if (table != null) {
+      steps.add(new LookupTableStage(table));
+    }
+    if (steps.isEmpty()) {
+      return image;
+    }
+    return run(image, steps, channelCount, bitDepth);
+  }
+
+  private ImageInterface run(ImageInterface image, List<PointwiseStage> steps,
+      int resultChannelCount, int resultBitDepth) {
+    int height = image.getHeight();
+    int width = image.getWidth();
+    int inputChannelCount = image.getChannelCount();
+    int[] channelCounts = new int[steps.size()];
+    int channelCount = inputChannelCount;
+    for (int s = 0; s < steps.size(); s++) {
+      channelCounts[s] = channelCount;
+      channelCount = steps.get(s).getChannelCount(channelCount);
+    }
+    PackedImageBuilder newImage = ImageFactory.createImageBuilder(height, width,
+        resultChannelCount, resultBitDepth);
+    scheduler.forEachBand(height, (startRow, endRow) -> {
+      int[][] rows = new int[inputChannelCount][width];
+      for (int i = startRow; i < endRow; i++) {
+        for (int c = 0; c < inputChannelCount; c++) {
+          image.getRow(c, i, rows[c], 0);
+        }
+        for (int s = 0; s < steps.size(); s++) {
+          steps.get(s).applyRow(rows, channelCounts[s], width);
+        }
+        for (int c = 0; c < resultChannelCount; c++) {
+          newImage.setRow(c, i, rows[c], 0);
+        }
+      }
+    });
+    return newImage.build();
+  }
+
+  private static int[] compose(int[] first, int[] second) {
+    int[] composed = new int[first.length];
+    for (int value = 0; value < first.length; value++) {
+      composed[value] = second[first[value]];
+    }
+    return composed;
+  }
+
+  /**
+   * This class maps every sample of every channel through a table.
+   */
+  private static class LookupTableStage implements PointwiseStage {
+
+    private final int[] table;
+
+    LookupTableStage(int[] table) {
+      this.table = Arrays.copyOf(table, table.length);
+    }
+
+    @Override
+    public int getChannelCount(int inputChannelCount) {
+      return inputChannelCount;
+    }
+
+    @Override
+    public void applyRow(int[][] rows, int channelCount, int width) {
+      for (int c = 0; c < channelCount; c++) {
+        int[] row = rows[c];
+        for (int j = 0; j < width; j++) {
+          row[j] = table[row[j]];
+        }
+      }
+    }
+  }
+}
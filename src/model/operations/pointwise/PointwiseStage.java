@@ -0,0 +1,61 @@
+package model.operations.pointwise;
+
+/**
+ * This interface represents one step of a per-pixel operation, whose result at a pixel depends
+ * only on the samples of that pixel. Steps work on a row of every channel at a time, so a chain of
+ * them can be run in a single pass over the image by a FusedPointwiseOperation.
+ */
+public interface PointwiseStage {
+
+  /**
+   * Returns the number of channels this step produces from an image with the given number of
+   * channels.
+   *
+   * @param inputChannelCount the number of channels of the input
+   * @return the number of channels of the result
+   * @throws IllegalArgumentException if the step cannot be applied to that many channels
+   */
+  int getChannelCount(int inputChannelCount) throws IllegalArgumentException;
+
+  /**
+   * Checks whether this step changes an image with the given number of channels. A step that does
+   * not returns its input unchanged, samples and bit depth included.
+   *
+   * @param inputChannelCount the number of channels of the input
+   * @return true if the step changes the image
+   */
+  default boolean changesImage(int inputChannelCount) {
+    return true;
+  }
+
+  /**
+   * Returns the bit depth of the samples this step produces from samples of the given bit depth.
+   * Steps that clamp their results to 0 to 255 produce 8-bit samples.
+   *
+   * @param inputBitDepth the bit depth of the input, 8 or 16
+   * @return the bit depth of the result, 8 or 16
+   */
+  default int getBitDepth(int inputBitDepth) {
+    return 8;
+  }
+
+  /**
+   * Replaces the samples of one row of every channel with the samples of the result. The result
+   * fits the bit depth given by getBitDepth, and is stored in the first rows of the array.
+   *
+   * @param rows         the same row of every channel, each at least width long
+   * @param channelCount the number of channels of the input
+   * @param width        the number of samples in a row
+   */
+  void applyRow(int[][] rows, int channelCount, int width);
+
+  /**
+   * Returns the table that maps every 8-bit sample to its result, if this step applies the same
+   * mapping to every sample of every channel independently.
+   *
+   * @return the 256 results, or null if the step mixes channels or positions
+   */
+  default int[] getLookupTable() {
+    return null;
+  }
+}
@@ -1,9 +1,8 @@
 package model.operations.rotation;
 
-import java.util.ArrayList;
-import java.util.List;
 import model.image.ImageFactory;
 import model.image.ImageInterface;
+import model.image.PackedImage.PackedImageBuilder;
 import model.operations.operationinterfaces.SingleImageProcessor;
 
 /**
@@ -20,22 +19,21 @@ public class HorizontalFlipOperation implements SingleImageProcessor {
   public ImageInterface apply(ImageInterface image) {
     int height = image.getHeight();
     int width = image.getWidth();
-    List<int[][]> imageChannel = image.getChannel();
-    List<int[][]> flippedChannel = new ArrayList<>();
-
-    for (int[][] channel : imageChannel) {
-      int[][] flippedPixels = new int[height][width];
+    int channelCount = image.getChannelCount();
+    PackedImageBuilder flippedImage = ImageFactory.createImageBuilder(height, width,
+        channelCount, image.getBitDepth());
+    int[] row = new int[width];
 
+    for (int c = 0; c < channelCount; c++) {
       for (int i = 0; i < height; i++) {
+        image.getRow(c, i, row, 0);
         for (int j = 0; j < width; j++) {
-          flippedPixels[i][j] = channel[i][width - 1 - j];
+          flippedImage.setPixel(c, i, j, row[width - 1 - j]);
         }
       }
-
-      flippedChannel.add(flippedPixels);
     }
 
-    return ImageFactory.createImage(flippedChannel);
+    return flippedImage.build();
   }
 
 
@@ -1,9 +1,8 @@
 package model.operations.rotation;
 
-import java.util.ArrayList;
-import java.util.List;
 import model.image.ImageFactory;
 import model.image.ImageInterface;
+import model.image.PackedImage.PackedImageBuilder;
 import model.operations.operationinterfaces.SingleImageProcessor;
 
 /**
@@ -20,21 +19,20 @@ public class VerticalFlipOperation implements SingleImageProcessor {
   public ImageInterface apply(ImageInterface image) {
     int height = image.getHeight();
     int width = image.getWidth();
-    List<int[][]> imageChannel = image.getChannel();
-    List<int[][]> flippedChannel = new ArrayList<>();
-
-    for (int[][] channel : imageChannel) {
-      int[][] flippedPixels = new int[height][width];
+    int channelCount = image.getChannelCount();
+    PackedImageBuilder flippedImage = ImageFactory.createImageBuilder(height, width,
+        channelCount, image.getBitDepth());
+    int[] row = new int[width];
 
+    for (int c = 0; c < channelCount; c++) {
       for (int i = 0; i < height; i++) {
         int flippedRow = height - 1 - i;
-        System.arraycopy(channel[flippedRow], 0, flippedPixels[i], 0, width);
+        image.getRow(c, flippedRow, row, 0);
+        flippedImage.setRow(c, i, row, 0);
       }
-
-      flippedChannel.add(flippedPixels);
     }
 
-    return ImageFactory.createImage(flippedChannel);
+    return flippedImage.build();
   }
 
 
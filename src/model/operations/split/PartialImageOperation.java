@@ -3,7 +3,9 @@ package model.operations.split;
 import static model.operations.operatorutil.OperatorUtil.castOperatorToDouble;
 
 import java.util.List;
+import model.image.ImageFactory;
 import model.image.ImageInterface;
+import model.image.PackedImage.PackedImageBuilder;
 import model.operations.operationinterfaces.MultipleToSingleImageProcessorWithOffset;
 
 /**
@@ -31,19 +33,26 @@ public class PartialImageOperation implements MultipleToSingleImageProcessorWith
     int height = newImage.getHeight();
     int width = newImage.getWidth();
     int perWidth = width * percentage / 100;
+    if (perWidth == width) {
+      return newImage;
+    }
 
-    for (int w = 0; w < newImage.getChannel().size(); w++) {
-      int[][] origChannel = originalImage.getChannel().get(w);
-      int[][] newChannel = newImage.getChannel().get(w);
-
+    int channelCount = newImage.getChannelCount();
+    int bitDepth = Math.max(originalImage.getBitDepth(), newImage.getBitDepth());
+    PackedImageBuilder partialImage = ImageFactory.createImageBuilder(height, width,
+        channelCount, bitDepth);
+    int[] row = new int[width];
+    int[] origRow = new int[width];
+    for (int w = 0; w < channelCount; w++) {
       for (int i = 0; i < height; i++) {
-        if (width - perWidth >= 0) {
-          System.arraycopy(origChannel[i], perWidth, newChannel[i], perWidth, width - perWidth);
-        }
+        newImage.getRow(w, i, row, 0);
+        originalImage.getRow(w, i, origRow, 0);
+        System.arraycopy(origRow, perWidth, row, perWidth, width - perWidth);
+        partialImage.setRow(w, i, row, 0);
       }
     }
 
-    return newImage;
+    return partialImage.build();
   }
 }
 
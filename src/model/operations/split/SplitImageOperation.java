@@ -1,10 +1,11 @@
 package model.operations.split;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import model.image.ImageFactory;
 import model.image.ImageInterface;
 import model.operations.operationinterfaces.SingleImageProcessorWithOffset;
+import model.operations.pointwise.FusedPointwiseOperation;
+import model.operations.pointwise.PointwiseStage;
 
 /**
  * This class represents a split image operation.
@@ -23,19 +24,51 @@ public class SplitImageOperation implements SingleImageProcessorWithOffset {
   @Override
   public ImageInterface apply(ImageInterface image, Object operator)
       throws IllegalArgumentException {
-    List<int[][]> imageChannel = image.getChannel();
-    int imageComponentNumber = (int) operator;
-    if (imageChannel.size() == 1) {
-      throw new IllegalArgumentException("Image must have more than 1 channel");
+    return new FusedPointwiseOperation().apply(image, List.of(toStage(operator)));
+  }
+
+  /**
+   * This method returns the split on the given channel as a per-pixel step, so it can be run fused
+   * with the steps of other per-pixel operations.
+   *
+   * @param operator the index of the channel to keep
+   * @return the step
+   */
+  public PointwiseStage toStage(Object operator) {
+    return new ComponentStage((int) operator);
+  }
+
+  /**
+   * This class keeps one channel of every pixel and sets the others to zero.
+   */
+  private static class ComponentStage implements PointwiseStage {
+
+    private final int imageComponentNumber;
+
+    ComponentStage(int imageComponentNumber) {
+      this.imageComponentNumber = imageComponentNumber;
+    }
+
+    @Override
+    public int getChannelCount(int inputChannelCount) throws IllegalArgumentException {
+      if (inputChannelCount == 1) {
+        throw new IllegalArgumentException("Image must have more than 1 channel");
+      }
+      return inputChannelCount;
+    }
+
+    @Override
+    public int getBitDepth(int inputBitDepth) {
+      return inputBitDepth;
     }
-    List<int[][]> channelList = new ArrayList<>();
-    for (int i = 0; i < imageChannel.size(); i++) {
-      if (i == imageComponentNumber) {
-        channelList.add(imageChannel.get(i));
-      } else {
-        channelList.add(new int[image.getHeight()][image.getWidth()]);
+
+    @Override
+    public void applyRow(int[][] rows, int channelCount, int width) {
+      for (int c = 0; c < channelCount; c++) {
+        if (c != imageComponentNumber) {
+          Arrays.fill(rows[c], 0, width, 0);
+        }
       }
     }
-    return ImageFactory.createImage(channelList);
   }
 }
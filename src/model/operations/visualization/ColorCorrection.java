@@ -1,14 +1,12 @@
 package model.operations.visualization;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import model.image.ImageFactory;
 import model.image.ImageInterface;
-import model.operations.merge.MergeSingleChannelImages;
+import model.image.PackedImage.PackedImageBuilder;
 import model.operations.operationinterfaces.SingleImageProcessor;
 import model.operations.operationinterfaces.SingleImageProcessorWithOffset;
-import model.operations.pixeloffset.BrightnessOperation;
 import model.operations.split.PartialImageOperation;
 
 /**
@@ -36,7 +34,7 @@ public class ColorCorrection implements SingleImageProcessorWithOffset, SingleIm
   private ImageInterface getImage(ImageInterface image, Object operation) {
     List<int[]> frequencyChannels = VisualizeImageUtil.calculateFrequencyPerChannel(image);
     List<Integer> peaks = new ArrayList<>();
-    for (int x = 0; x < image.getChannel().size(); x++) {
+    for (int x = 0; x < image.getChannelCount(); x++) {
       peaks.add(findPeak(frequencyChannels.get(x)));
     }
     int avg = (int) peaks.stream().mapToInt(Integer::intValue).average().getAsDouble();
@@ -46,15 +44,20 @@ public class ColorCorrection implements SingleImageProcessorWithOffset, SingleIm
 
   private ImageInterface colorCorrect(ImageInterface image, List<Integer> peaks, int avg,
       Object operation) {
-    List<ImageInterface> greyscaleImages = new ArrayList<>();
-    for (int i = 0; i < image.getChannel().size(); i++) {
-      int colorCorrection = avg - peaks.get(i);
-      greyscaleImages.add(new BrightnessOperation()
-          .apply(ImageFactory
-                  .createImage(Collections.singletonList(image.getChannel().get(i)))
-              , colorCorrection));
+    int height = image.getHeight();
+    int width = image.getWidth();
+    PackedImageBuilder correctedImage = ImageFactory.createImageBuilder(height, width,
+        image.getChannelCount());
+    for (int c = 0; c < image.getChannelCount(); c++) {
+      int colorCorrection = avg - peaks.get(c);
+      for (int i = 0; i < height; i++) {
+        for (int j = 0; j < width; j++) {
+          int pixel = Math.min(image.getPixel(c, i, j) + colorCorrection, 255);
+          correctedImage.setPixel(c, i, j, Math.max(pixel, 0));
+        }
+      }
     }
-    return new MergeSingleChannelImages().apply(greyscaleImages);
+    return correctedImage.build();
   }
 
   private int findPeak(int[] normalizedFrequencyChannel) {
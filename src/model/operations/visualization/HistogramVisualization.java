@@ -3,11 +3,11 @@ package model.operations.visualization;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import model.image.ImageFactory;
 import model.image.ImageInterface;
+import model.image.PackedImage.PackedImageBuilder;
 import model.operations.operationinterfaces.SingleImageProcessor;
 
 /**
@@ -28,16 +28,17 @@ public class HistogramVisualization implements SingleImageProcessor {
   public ImageInterface apply(ImageInterface image) {
     List<int[]> frequencyChannels = VisualizeImageUtil.calculateFrequencyPerChannel(image);
     int maxFrequencyValue = findMaxFrequency(frequencyChannels);
-    List<int[][]> processedNormalizedChannels = new ArrayList<>();
+    PackedImageBuilder processedNormalizedChannels = ImageFactory.createImageBuilder(MAX_SIZE,
+        MAX_SIZE, image.getChannelCount());
     // Normalize the frequencies and create the histogram
-    for (int x = 0; x < image.getChannel().size(); x++) {
+    for (int x = 0; x < image.getChannelCount(); x++) {
       int[] normalizedFrequencyChannel = normalizeFrequency(frequencyChannels.get(x),
           maxFrequencyValue);
-      processedNormalizedChannels.add(processNormalizedImages(normalizedFrequencyChannel));
+      processNormalizedImages(normalizedFrequencyChannel, processedNormalizedChannels, x);
     }
     // Delete common pixels in the histogram across multiple channels to avoid overlapping
     postProcessingOfChannels(processedNormalizedChannels);
-    return ImageFactory.createImage(processedNormalizedChannels);
+    return processedNormalizedChannels.build();
   }
 
   /**
@@ -65,40 +66,40 @@ public class HistogramVisualization implements SingleImageProcessor {
     return normalizedFrequencies;
   }
 
-  private void postProcessingOfChannels(List<int[][]> processedNormalizedChannels) {
-    for (int i = 0; i < processedNormalizedChannels.get(0).length; i++) {
-      for (int j = 0; j < processedNormalizedChannels.get(0)[0].length; j++) {
-        int pixelRed = processedNormalizedChannels.get(0)[i][j];
-        int pixelGreen = processedNormalizedChannels.get(1)[i][j];
-        int pixelBlue = processedNormalizedChannels.get(2)[i][j];
+  private void postProcessingOfChannels(PackedImageBuilder processedNormalizedChannels) {
+    for (int i = 0; i < MAX_SIZE; i++) {
+      for (int j = 0; j < MAX_SIZE; j++) {
+        int pixelRed = processedNormalizedChannels.getPixel(0, i, j);
+        int pixelGreen = processedNormalizedChannels.getPixel(1, i, j);
+        int pixelBlue = processedNormalizedChannels.getPixel(2, i, j);
 
         if (pixelRed == pixelGreen && pixelGreen != pixelBlue) {
-          processedNormalizedChannels.get(0)[i][j] = 0;
+          processedNormalizedChannels.setPixel(0, i, j, 0);
         } else if (pixelRed == pixelBlue && pixelBlue != pixelGreen) {
-          processedNormalizedChannels.get(0)[i][j] = 0;
+          processedNormalizedChannels.setPixel(0, i, j, 0);
         } else if (pixelGreen == pixelBlue && pixelBlue != pixelRed) {
-          processedNormalizedChannels.get(1)[i][j] = 0;
+          processedNormalizedChannels.setPixel(1, i, j, 0);
         } else if (pixelRed == pixelGreen) {
-          processedNormalizedChannels.get(0)[i][j] = 0;
-          processedNormalizedChannels.get(1)[i][j] = 0;
+          processedNormalizedChannels.setPixel(0, i, j, 0);
+          processedNormalizedChannels.setPixel(1, i, j, 0);
         }
       }
     }
   }
 
-  private int[][] processNormalizedImages(int[] normalizedFrequencyChannel) {
+  private void processNormalizedImages(int[] normalizedFrequencyChannel,
+      PackedImageBuilder histogramImage, int channel) {
     BufferedImage bufferedImage = createBufferHistogram(normalizedFrequencyChannel);
-    return convertToImageFormat(bufferedImage);
+    convertToImageFormat(bufferedImage, histogramImage, channel);
   }
 
-  private int[][] convertToImageFormat(BufferedImage bufferedImage) {
-    int[][] pixels = new int[MAX_SIZE][MAX_SIZE];
+  private void convertToImageFormat(BufferedImage bufferedImage,
+      PackedImageBuilder histogramImage, int channel) {
     for (int i = 0; i < MAX_SIZE; i++) {
       for (int j = 0; j < MAX_SIZE; j++) {
-        pixels[i][j] = bufferedImage.getRGB(j, i) & 0xFF;
+        histogramImage.setPixel(channel, i, j, bufferedImage.getRGB(j, i) & 0xFF);
       }
     }
-    return pixels;
   }
 
   private BufferedImage createBufferHistogram(int[] normalizedFrequencyChannel) {
@@ -1,12 +1,12 @@
 package model.operations.visualization;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
-import model.image.ImageFactory;
 import model.image.ImageInterface;
 import model.operations.operationinterfaces.SingleImageProcessorWithOffset;
+import model.operations.pointwise.FusedPointwiseOperation;
+import model.operations.pointwise.PointwiseStage;
 import model.operations.split.PartialImageOperation;
 
 /**
@@ -25,16 +25,48 @@ public class LevelAdjustment implements SingleImageProcessorWithOffset {
   @Override
   public ImageInterface apply(ImageInterface image, Object operator)
       throws IllegalArgumentException {
+    List<Integer> levelAdjustmentParameters = parseParameters(operator);
+    String splitOperation;
+    if (levelAdjustmentParameters.size() == 4) {
+      splitOperation = operator.toString().split("\\s+")[3];
+    } else {
+      splitOperation = "100";
+    }
+    ImageInterface newImage = new FusedPointwiseOperation().apply(image,
+        List.of(createLevelAdjustment(levelAdjustmentParameters)));
+    return new PartialImageOperation()
+        .apply(List.of(image, newImage), splitOperation);
+  }
+
+  /**
+   * This method returns the level adjustment, without any split, as a per-pixel step, so it can be
+   * run fused with the steps of other per-pixel operations.
+   *
+   * @param operator the operator to be applied
+   * @return the step
+   * @throws IllegalArgumentException if the operator is less than 3 and not in ascending order
+   */
+  public PointwiseStage toStage(Object operator) throws IllegalArgumentException {
+    return createLevelAdjustment(parseParameters(operator));
+  }
+
+  /**
+   * Checks whether the operator asks for a split view of the level adjustment.
+   *
+   * @param operator the operator to be applied
+   * @return true if the operator has a split percentage
+   * @throws IllegalArgumentException if the operator is less than 3 and not in ascending order
+   */
+  public boolean isSplit(Object operator) throws IllegalArgumentException {
+    return parseParameters(operator).size() == 4;
+  }
+
+  private List<Integer> parseParameters(Object operator) throws IllegalArgumentException {
     List<Integer> levelAdjustmentParameters =
         Arrays.stream(operator.toString().trim().split("\\s+"))
             .map(Integer::parseInt).collect(Collectors.toList());
-    String splitOperation;
     if (levelAdjustmentParameters.size() != 4 && levelAdjustmentParameters.size() != 3) {
       throw new IllegalArgumentException("Invalid number of arguments");
-    } else if (levelAdjustmentParameters.size() == 4) {
-      splitOperation = operator.toString().split("\\s+")[3];
-    } else {
-      splitOperation = "100";
     }
     if (levelAdjustmentParameters.get(2) < 0 || levelAdjustmentParameters.get(2) > 255
         || levelAdjustmentParameters.get(0) < 0 || levelAdjustmentParameters.get(0) > 255
@@ -46,14 +78,10 @@ public class LevelAdjustment implements SingleImageProcessorWithOffset {
         && levelAdjustmentParameters.get(1) < levelAdjustmentParameters.get(2))) {
       throw new IllegalArgumentException("Invalid ordering of parameters");
     }
-    ImageInterface newImage = ImageFactory
-        .createImage(createLevelAdjustment(image, levelAdjustmentParameters));
-    return new PartialImageOperation()
-        .apply(List.of(image, newImage), splitOperation);
+    return levelAdjustmentParameters;
   }
 
-  private List<int[][]> createLevelAdjustment(ImageInterface image,
-      List<Integer> levelAdjustmentParameters) {
+  private PointwiseStage createLevelAdjustment(List<Integer> levelAdjustmentParameters) {
     // b is black
     // m is middle
     // w is white
@@ -79,32 +107,57 @@ public class LevelAdjustment implements SingleImageProcessorWithOffset {
         / commonDivisorForAdjustmentParameter);
     double parameterForConstant = (levelAdjustmentForConstant
         / commonDivisorForAdjustmentParameter);
-    List<int[][]> channels = new ArrayList<>();
-    for (int[][] channel : image.getChannel()) {
-      channels.add(createLevelAdjustmenPerChannel(channel,
-          parameterForQuadratic, parameterForLinearity,
-          parameterForConstant));
-    }
-    return channels;
+    return new CurveStage(parameterForQuadratic, parameterForLinearity, parameterForConstant);
   }
 
-  private int[][] createLevelAdjustmenPerChannel(int[][] channel,
-      double parameterForQuadratic,
-      double parameterForLinearity,
-      double parameterForConstant) {
-    int[][] newArr = new int[channel.length][channel[0].length];
-    for (int i = 0; i < channel.length; i++) {
-      for (int j = 0; j < channel[0].length; j++) {
-        int pixel = channel[i][j];
-        newArr[i][j] = clamp((int) (parameterForQuadratic * pixel * pixel
-            + parameterForLinearity * pixel
-            + parameterForConstant));
+  /**
+   * This class maps every sample of every channel through the quadratic curve of the adjustment.
+   */
+  private static class CurveStage implements PointwiseStage {
+
+    private final double parameterForQuadratic;
+    private final double parameterForLinearity;
+    private final double parameterForConstant;
+    private final int[] table = new int[256];
+
+    CurveStage(double parameterForQuadratic, double parameterForLinearity,
+        double parameterForConstant) {
+      this.parameterForQuadratic = parameterForQuadratic;
+      this.parameterForLinearity = parameterForLinearity;
+      this.parameterForConstant = parameterForConstant;
+      for (int pixel = 0; pixel < table.length; pixel++) {
+        table[pixel] = adjust(pixel);
       }
     }
-    return newArr;
-  }
 
-  private int clamp(int pixel) {
-    return Math.min(255, Math.max(0, pixel));
+    private int adjust(int pixel) {
+      return clamp((int) (parameterForQuadratic * pixel * pixel
+          + parameterForLinearity * pixel
+          + parameterForConstant));
+    }
+
+    private int clamp(int pixel) {
+      return Math.min(255, Math.max(0, pixel));
+    }
+
+    @Override
+    public int getChannelCount(int inputChannelCount) {
+      return inputChannelCount;
+    }
+
+    @Override
+    public void applyRow(int[][] rows, int channelCount, int width) {
+      for (int c = 0; c < channelCount; c++) {
+        int[] row = rows[c];
+        for (int j = 0; j < width; j++) {
+          row[j] = adjust(row[j]);
+        }
+      }
+    }
+
+    @Override
+    public int[] getLookupTable() {
+      return table;
+    }
   }
 }
@@ -20,47 +20,35 @@ public class VisualizeImageUtil {
    */
   public static List<int[]> calculateFrequencyPerChannel(ImageInterface image)
       throws IllegalArgumentException {
-    if (image.getChannel().size() != 3) {
+    if (image.getChannelCount() != 3) {
       throw new IllegalArgumentException("Image must have 3 channels");
     }
     List<int[]> frequencies = new ArrayList<>();
     // Found max element in the channel so that we can normalize the values
-    int maxElement = findMaxElementInTheChannel(image.getChannel());
-    for (int i = 0; i < image.getChannel().size(); i++) {
-      int[][] normalizedChannel = createNormalizedChannel(image.getChannel().get(i),
-          maxElement);
-      int[] frequenciesInChannel = createFrequencyList(normalizedChannel);
-      frequencies.add(frequenciesInChannel);
+    int maxElement = findMaxElementInTheChannel(image);
+    for (int i = 0; i < image.getChannelCount(); i++) {
+      frequencies.add(createFrequencyList(image, i, maxElement));
     }
 
     return frequencies;
   }
 
-  private static int[] createFrequencyList(int[][] normalizedChannel) {
+  private static int[] createFrequencyList(ImageInterface image, int channel, int maxElement) {
     int[] frequencies = new int[256];
-    for (int i = 0; i < normalizedChannel.length; i++) {
-      for (int j = 0; j < normalizedChannel[0].length; j++) {
-        frequencies[normalizedChannel[i][j]]++;
+    for (int i = 0; i < image.getHeight(); i++) {
+      for (int j = 0; j < image.getWidth(); j++) {
+        frequencies[(int) (image.getPixel(channel, i, j) * MAX_COLOR / maxElement)]++;
       }
     }
     return frequencies;
   }
 
-  private static int[][] createNormalizedChannel(int[][] channel, int maxElement) {
-    int[][] normalizedChannel = new int[channel.length][channel[0].length];
-    for (int i = 0; i < channel.length; i++) {
-      for (int j = 0; j < channel[0].length; j++) {
-        normalizedChannel[i][j] = (int) (channel[i][j] * MAX_COLOR / maxElement);
-      }
-    }
-    return normalizedChannel;
-  }
-
-  private static int findMaxElementInTheChannel(List<int[][]> channels) {
+  private static int findMaxElementInTheChannel(ImageInterface image) {
     int max = Integer.MIN_VALUE;
-    for (int[][] channel : channels) {
-      for (int[] rows : channel) {
-        for (int rowElement : rows) {
+    for (int c = 0; c < image.getChannelCount(); c++) {
+      for (int i = 0; i < image.getHeight(); i++) {
+        for (int j = 0; j < image.getWidth(); j++) {
+          int rowElement = image.getPixel(c, i, j);
           if (rowElement > max) {
             max = rowElement;
           }
@@ -18,7 +18,7 @@ import org.junit.Test;
  */
 public class ImageProcessingApplicationTest {
 
-  private final String imagePath = "test_image.jpg";
+  private final String imagePath = "test_image.png";
 
   @Before
   public void setUp() throws IOException {
@@ -36,7 +36,7 @@ public class ImageProcessingApplicationTest {
   public void testScriptFile() throws IOException {
     String scriptContent = "load " + imagePath + " image1\n"
         + "brighten 10 image1 image2\n"
-        + "save brightImage.jpg image2";
+        + "save brightImage.png image2";
     File tempFile = File.createTempFile("temp", ".txt");
     String filePath = tempFile.getAbsolutePath();
     PrintWriter writer = new PrintWriter(new FileWriter(tempFile));
@@ -45,7 +45,7 @@ public class ImageProcessingApplicationTest {
 
     String runString = "run " + filePath;
     ImageProcessingApplication.main(new String[]{"-file", filePath});
-    ImageInterface img = IOFileFactory.decodeImage("brightImage.jpg");
+    ImageInterface img = IOFileFactory.decodeImage("brightImage.png");
 
     int[][] redChannel1 = new int[][]{{255, 255, 255}, {255, 255, 255}, {255, 255, 255}};
     int[][] greenChannel1 = new int[][]{{10, 10, 10}, {10, 10, 10}, {10, 96, 10}};
@@ -56,7 +56,7 @@ public class ImageProcessingApplicationTest {
         .build();
     assertEqualImages(imageInterface1, img);
     cleanupImages(Arrays.asList(imagePath));
-    cleanupImages(Arrays.asList("brightImage.jpg"));
+    cleanupImages(Arrays.asList("brightImage.png"));
   }
 
   private void cleanupImages(List<String> paths) {
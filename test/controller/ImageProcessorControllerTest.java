@@ -3,15 +3,20 @@ package controller;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.awt.Rectangle;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.Collections;
 import java.util.List;
 import logger.ViewLogger;
+import model.image.ImageFactory;
 import model.image.ImageInterface;
+import model.imageio.IOFileFactory;
+import model.imageio.SaveOptions;
 import model.imageprocessingmodel.ImageProcessorModel;
 import model.imageprocessingmodel.ImageProcessorModelInterface;
 import org.junit.Before;
@@ -130,6 +135,189 @@ public class ImageProcessorControllerTest {
         .contains("path/to/image.jpgimage1image1image210image1image310"));
   }
 
+  @Test
+  public void testBlurWithRadius() throws IOException {
+    StringBuilder s = new StringBuilder();
+    MockModel modelMock = new MockModel(s);
+    controller = new ImageProcessorController(logger, modelMock,
+        new StringReader("blur image1 image2 radius 15\nblur image1 image3 radius 4 split 30\n"
+            + "exit"), out);
+    controller.startImageProcessingController();
+    assertEquals("image1image215100image1image3430", s.toString());
+  }
+
+  @Test
+  public void testBlurWithRadiusAndInvalidSplit() throws IOException {
+    StringBuilder s = new StringBuilder();
+    MockModel modelMock = new MockModel(s);
+    controller = new ImageProcessorController(logger, modelMock,
+        new StringReader("blur image1 image2 radius 3 foo 50\nexit"), out);
+    controller.startImageProcessingController();
+    assertEquals("", s.toString());
+    assertTrue(out.toString().contains("Invalid component command"));
+  }
+
+  @Test
+  public void testBlurWithInvalidRadius() throws IOException {
+    controller = new ImageProcessorController(logger, model,
+        new StringReader("blur image1 image2 radius big\nexit"), out);
+    controller.startImageProcessingController();
+    assertTrue(out.toString().contains("Blur radius should be an integer value"));
+  }
+
+  @Test
+  public void testConvolve() throws IOException {
+    StringBuilder s = new StringBuilder();
+    MockModel modelMock = new MockModel(s);
+    controller = new ImageProcessorController(logger, modelMock,
+        new StringReader("convolve 0,1,0;1,1,1;0,1,0 image1 image2\n"
+            + "convolve k.txt image1 image3 split 40\nexit"), out);
+    controller.startImageProcessingController();
+    assertEquals("0,1,0;1,1,1;0,1,0image1image2100k.txtimage1image340", s.toString());
+  }
+
+  @Test
+  public void testConvolveWithInvalidSplit() throws IOException {
+    StringBuilder s = new StringBuilder();
+    MockModel modelMock = new MockModel(s);
+    controller = new ImageProcessorController(logger, modelMock,
+        new StringReader("convolve k.txt image1 image3 foo 40\nexit"), out);
+    controller.startImageProcessingController();
+    assertEquals("", s.toString());
+    assertTrue(out.toString().contains("Invalid component command"));
+  }
+
+  @Test
+  public void testCompressWithTiles() throws IOException {
+    StringBuilder s = new StringBuilder();
+    MockModel modelMock = new MockModel(s);
+    controller = new ImageProcessorController(logger, modelMock,
+        new StringReader("compress 40 image1 image2 tile 256\nexit"), out);
+    controller.startImageProcessingController();
+    assertEquals("image1image240256", s.toString());
+  }
+
+  @Test
+  public void testLoadPreview() throws IOException {
+    StringBuilder s = new StringBuilder();
+    MockModel modelMock = new MockModel(s);
+    controller = new ImageProcessorController(logger, modelMock,
+        new StringReader("load-preview res/a.haar 2 thumb\nexit"), out);
+    controller.startImageProcessingController();
+    assertEquals("res/a.haar2thumb", s.toString());
+  }
+
+  @Test
+  public void testLoadRegionAndSubsample() throws IOException {
+    StringBuilder s = new StringBuilder();
+    MockModel modelMock = new MockModel(s);
+    controller = new ImageProcessorController(logger, modelMock,
+        new StringReader("load res/a.jpg crop --subsample 4 --region 10,20,300,200\n"
+            + "load res/a.jpg thumb --subsample 8\n"
+            + "load res/a.jpg bad --region 1,2,3\nexit"), out);
+    controller.startImageProcessingController();
+    assertEquals("res/a.jpgcrop" + new Rectangle(10, 20, 300, 200) + "4res/a.jpgthumbnull8",
+        s.toString());
+    assertTrue(out.toString().contains("Invalid load command"));
+  }
+
+  @Test
+  public void testScriptPrefetchesUpcomingLoads() throws IOException {
+    String scriptContent = "load a.png a\n"
+        + "load b.png b\n"
+        + "save c.png b\n"
+        + "load c.png c\n"
+        + "load d.png d\n";
+    File tempFile = createTempScriptFile(scriptContent);
+    assert tempFile != null;
+    StringBuilder s = new StringBuilder();
+    MockModel modelMock = new MockModel(s);
+    controller = new ImageProcessorController(logger, modelMock,
+        new StringReader("run " + tempFile.getAbsolutePath() + "\nexit"), out);
+    controller.startImageProcessingController();
+    // c.png is read only after the save that writes it, so neither it nor d.png behind it
+    // is prefetched before the save has run
+    assertEquals("prefetch b.png a.pnga"
+        + "b.pngb"
+        + "c.pngb"
+        + "prefetch d.png c.pngc"
+        + "d.pngd", s.toString());
+  }
+
+  @Test
+  public void testScriptDoesNotPrefetchLoadsOfFilesSavedWithOptions() throws IOException {
+    String scriptContent = "load a.ppm a\n"
+        + "save c.ppm a --ascii\n"
+        + "load c.ppm c\n";
+    File tempFile = createTempScriptFile(scriptContent);
+    assert tempFile != null;
+    StringBuilder s = new StringBuilder();
+    MockModel modelMock = new MockModel(s);
+    controller = new ImageProcessorController(logger, modelMock,
+        new StringReader("run " + tempFile.getAbsolutePath() + "\nexit"), out);
+    controller.startImageProcessingController();
+    // c.ppm is only loaded, and not prefetched, once the save that writes it has run
+    assertEquals("a.ppma"
+        + "c.ppma quality -1 level -1 ascii true "
+        + "c.ppmc", s.toString());
+  }
+
+  @Test
+  public void testSaveOptions() throws IOException {
+    StringBuilder s = new StringBuilder();
+    MockModel modelMock = new MockModel(s);
+    controller = new ImageProcessorController(logger, modelMock,
+        new StringReader("save a.jpg image1 --quality 90\n"
+            + "save a.png image1 --compression fastest\n"
+            + "save a.png image1 --compression 9\n"
+            + "save a.ppm image1 --ascii\n"
+            + "save a.png image1 --compression\n"
+            + "save a.jpg image1 --quality 101\nexit"), out);
+    controller.startImageProcessingController();
+    assertEquals("a.jpgimage1 quality 90 level -1 ascii false "
+        + "a.pngimage1 quality -1 level 0 ascii false "
+        + "a.pngimage1 quality -1 level 9 ascii false "
+        + "a.ppmimage1 quality -1 level -1 ascii true ", s.toString());
+    assertTrue(out.toString().contains("Invalid save command"));
+    assertTrue(out.toString().contains("JPEG quality should be between 0 and 100"));
+  }
+
+  @Test
+  public void testWriteBehindAndFlush() throws IOException {
+    StringBuilder s = new StringBuilder();
+    MockModel modelMock = new MockModel(s);
+    controller = new ImageProcessorController(logger, modelMock,
+        new StringReader("write-behind on\nsave a.png image1\nflush\nwrite-behind maybe\nexit"),
+        out);
+    controller.startImageProcessingController();
+    assertEquals("write-behind true a.pngimage1", s.toString());
+    assertTrue(out.toString().contains("Invalid write-behind command"));
+  }
+
+  @Test
+  public void testLazy() throws IOException {
+    StringBuilder s = new StringBuilder();
+    MockModel modelMock = new MockModel(s);
+    controller = new ImageProcessorController(logger, modelMock,
+        new StringReader("lazy on\nlazy off\nlazy maybe\nexit"), out);
+    controller.startImageProcessingController();
+    assertEquals("lazy true lazy false ", s.toString());
+    assertTrue(out.toString().contains("Invalid lazy command"));
+  }
+
+  @Test
+  public void testExitReportsFailedBackgroundSave() throws IOException {
+    String imagePath = "test_write_behind.ppm";
+    IOFileFactory.encodeAndSaveImage(imagePath,
+        ImageFactory.createImage(Collections.singletonList(new int[][]{{1, 2}, {3, 4}})));
+    controller = new ImageProcessorController(logger, model,
+        new StringReader("load " + imagePath + " image1\nwrite-behind on\n"
+            + "save no_such_directory/out.png image1\nexit"), out);
+    controller.startImageProcessingController();
+    assertTrue(out.toString().contains("Failed to save no_such_directory/out.png"));
+    new File(imagePath).delete();
+  }
+
   private File createTempScriptFile(String scriptContent) {
     try {
       File tempFile = File.createTempFile("temp", ".txt");
@@ -162,6 +350,18 @@ public class ImageProcessorControllerTest {
       //comment
     }
 
+    @Override
+    public void blurImage(String imageName, String destImageName, int radius,
+        Object operator) {
+      log.append(imageName).append(destImageName).append(radius).append(operator.toString());
+    }
+
+    @Override
+    public void convolveImage(String imageName, String destImageName, String kernel,
+        Object operator) {
+      log.append(kernel).append(imageName).append(destImageName).append(operator.toString());
+    }
+
     @Override
     public void sharpenImage(String imageName, String destImageName, Object operator) {
       //comment
@@ -227,6 +427,12 @@ public class ImageProcessorControllerTest {
       //comment
     }
 
+    @Override
+    public void compressImage(String imageName, String destImageName, Object operator,
+        int tileSize) {
+      log.append(imageName).append(destImageName).append(operator.toString()).append(tileSize);
+    }
+
     @Override
     public void valueImage(String imageName, String destImageName) {
       //comment
@@ -267,6 +473,50 @@ public class ImageProcessorControllerTest {
       log.append(imagePath).append(imageName);
     }
 
+    @Override
+    public void loadImage(String imagePath, String imageName, Rectangle region, int subsample)
+        throws IOException {
+      log.append(imagePath).append(imageName).append(region).append(subsample);
+    }
+
+    @Override
+    public void saveImage(String imagePath, String imageName, SaveOptions options) {
+      log.append(imagePath).append(imageName).append(" quality ").append(options.getQuality())
+          .append(" level ").append(options.getCompressionLevel()).append(" ascii ")
+          .append(options.isAscii()).append(" ");
+    }
+
+    @Override
+    public void setWriteBehind(boolean enabled) {
+      log.append("write-behind ").append(enabled).append(" ");
+    }
+
+    @Override
+    public void setLazy(boolean enabled) {
+      log.append("lazy ").append(enabled).append(" ");
+    }
+
+    @Override
+    public void flushSaves() {
+      //comment
+    }
+
+    @Override
+    public void prefetchImage(String imagePath) {
+      log.append("prefetch ").append(imagePath).append(" ");
+    }
+
+    @Override
+    public void discardPrefetchedImages() {
+      //comment
+    }
+
+    @Override
+    public void loadImagePreview(String imagePath, int level, String imageName)
+        throws IOException {
+      log.append(imagePath).append(level).append(imageName);
+    }
+
     @Override
     public void saveImage(String imagePath, String imageName) throws IOException {
       log.append(imagePath).append(imageName);
@@ -26,7 +26,7 @@ import org.junit.Test;
  */
 public class IntegrationTest {
 
-  private final String imagePath = "test_image.jpg";
+  private final String imagePath = "test_image.png";
   ImageProcessorController imageProcessorController;
   private StringWriter out;
   private ViewLogger logger;
@@ -47,7 +47,7 @@ public class IntegrationTest {
 
   @Test
   public void testBrightenFlow() throws IOException {
-    String newImagePath = "test_image_bright.jpg";
+    String newImagePath = "test_image_bright.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{245, 245, 245}, {245, 245, 245},
         {245, 245, 245}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 76, 0}};
@@ -70,7 +70,7 @@ public class IntegrationTest {
 
   @Test
   public void testCompressionFlow() throws IOException {
-    String newImagePath = "test_image_compression.jpg";
+    String newImagePath = "test_image_compression.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{255, 255, 255}, {255, 255, 255},
         {223, 223, 255}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 0, 0}};
@@ -93,7 +93,7 @@ public class IntegrationTest {
 
   @Test
   public void testHistogram() throws IOException {
-    String newImagePath = "test_image_histogram.jpg";
+    String newImagePath = "test_image_histogram.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{255, 255, 255}, {255, 255, 255},
         {223, 223, 255}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 0, 0}};
@@ -115,7 +115,7 @@ public class IntegrationTest {
 
   @Test
   public void testColorCorrection() throws IOException {
-    String newImagePath = "test_image_color_correct.jpg";
+    String newImagePath = "test_image_color_correct.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{255, 255, 255}, {255, 255, 255},
         {255, 255, 255}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 0, 0}};
@@ -138,7 +138,7 @@ public class IntegrationTest {
 
   @Test
   public void testColorCorrectionWithSplit() throws IOException {
-    String newImagePath = "test_image_color_correct.jpg";
+    String newImagePath = "test_image_color_correct.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{255, 255, 255}, {255, 255, 255},
         {255, 255, 255}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 86, 0}};
@@ -161,7 +161,7 @@ public class IntegrationTest {
 
   @Test
   public void testLevelAdjust() throws IOException {
-    String newImagePath = "test_image_level_adjust.jpg";
+    String newImagePath = "test_image_level_adjust.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{0, 0, 0}, {0, 0, 0},
         {0, 0, 0}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 230, 0}};
@@ -184,7 +184,7 @@ public class IntegrationTest {
 
   @Test
   public void testLevelAdjustErrorIncorrectOrder() throws IOException {
-    String newImagePath = "test_image_level_adjust.jpg";
+    String newImagePath = "test_image_level_adjust.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{0, 0, 0}, {0, 0, 0},
         {0, 0, 0}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 230, 0}};
@@ -205,7 +205,7 @@ public class IntegrationTest {
 
   @Test
   public void testLevelAdjustErrorIncorrectInput() throws IOException {
-    String newImagePath = "test_image_level_adjust.jpg";
+    String newImagePath = "test_image_level_adjust.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{0, 0, 0}, {0, 0, 0},
         {0, 0, 0}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 230, 0}};
@@ -226,7 +226,7 @@ public class IntegrationTest {
 
   @Test
   public void testLevelAdjustErrorIncorrectInput2() throws IOException {
-    String newImagePath = "test_image_level_adjust.jpg";
+    String newImagePath = "test_image_level_adjust.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{0, 0, 0}, {0, 0, 0},
         {0, 0, 0}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 230, 0}};
@@ -247,7 +247,7 @@ public class IntegrationTest {
 
   @Test
   public void testLevelAdjustSplit() throws IOException {
-    String newImagePath = "test_image_level_adjust.jpg";
+    String newImagePath = "test_image_level_adjust.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{0, 0, 0}, {0, 0, 0},
         {0, 0, 0}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 230, 0}};
@@ -270,7 +270,7 @@ public class IntegrationTest {
 
   @Test
   public void testBrightenFlowAfterIncorrectCommand() throws IOException {
-    String newImagePath = "test_image_bright.jpg";
+    String newImagePath = "test_image_bright.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{245, 245, 245}, {245, 245, 245},
         {245, 245, 245}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 76, 0}};
@@ -300,8 +300,8 @@ public class IntegrationTest {
 
   @Test()
   public void testIncorrectImageName() throws IOException {
-    String newImagePath = "test_image_bright.jpg";
-    String newImagePath1 = "inc_test_image_bright.jpg";
+    String newImagePath = "test_image_bright.png";
+    String newImagePath1 = "inc_test_image_bright.png";
     String loadCommand = "load " + newImagePath1 + " test\n";
     String brightenCommand = "brighten -10 test test_bright\n";
     String saveCommand = "save " + newImagePath + " test_bright\n";
@@ -328,7 +328,7 @@ public class IntegrationTest {
   @Test
   public void testRedComponentFlow() throws IOException {
     // Define your expected image and other necessary variables
-    String newImagePath = "test_image_red_component.jpg";
+    String newImagePath = "test_image_red_component.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{255, 255, 255}, {255, 255, 255},
         {255, 255, 255}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 0, 0}};
@@ -361,7 +361,7 @@ public class IntegrationTest {
 
   @Test
   public void testGreenComponentFlow() throws IOException {
-    String newImagePath = "test_image_green_component.jpg";
+    String newImagePath = "test_image_green_component.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{0, 0, 0}, {0, 0, 0}, {0, 0, 0}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 86, 0}};
     int[][] newChannelAfterIncreaseBrightnessBlue = {{0, 0, 0}, {0, 0, 0}, {0, 0, 0}};
@@ -382,7 +382,7 @@ public class IntegrationTest {
 
   @Test
   public void testBlueComponentFlow() throws IOException {
-    String newImagePath = "test_image_blue_component.jpg";
+    String newImagePath = "test_image_blue_component.png";
     int[][] newChannelAfterIncreaseBrightnessRed = {{0, 0, 0}, {0, 0, 0}, {0, 0, 0}};
     int[][] newChannelAfterIncreaseBrightnessGreen = {{0, 0, 0}, {0, 0, 0}, {0, 0, 0}};
     int[][] newChannelAfterIncreaseBrightnessBlue = {{254, 254, 240}, {240, 0, 90}, {83, 255, 44}};
@@ -403,7 +403,7 @@ public class IntegrationTest {
 
   @Test
   public void testHorizontalFlipFlow() throws IOException {
-    String newImagePath = "test_image_horizontal_flip.jpg";
+    String newImagePath = "test_image_horizontal_flip.png";
     int[][] newChannelAfterHorizontalRotationRed = {{255, 255, 255}, {255, 255, 255},
         {255, 255, 255}};
     int[][] newChannelAfterHorizontalRotationGreen = {{0, 0, 0}, {0, 0, 0}, {0, 86, 0}};
@@ -426,7 +426,7 @@ public class IntegrationTest {
 
   @Test
   public void testVerticalFlipFlow() throws IOException {
-    String newImagePath = "test_image_vertical_flip.jpg";
+    String newImagePath = "test_image_vertical_flip.png";
     int[][] newChannelAfterVerticalRotationRed = {{255, 255, 255}, {255, 255, 255},
         {255, 255, 255}};
     int[][] newChannelAfterVerticalRotationGreen = {{0, 86, 0}, {0, 0, 0}, {0, 0, 0}};
@@ -448,7 +448,7 @@ public class IntegrationTest {
 
   @Test
   public void testduplicateName() throws IOException {
-    String newImagePath = "test_image_vertical_flip.jpg";
+    String newImagePath = "test_image_vertical_flip.png";
     String loadCommand = "load " + imagePath + " test\n";
     String verticalFlipCommand_1 = "vertical-flip test test_vertical_flip\n";
     String verticalFlipCommand_2 = "vertical-flip test test_vertical_flip\n";
@@ -465,7 +465,7 @@ public class IntegrationTest {
 
   @Test
   public void testNoImage() throws IOException {
-    String newImagePath = "test_image_vertical_flip.jpg";
+    String newImagePath = "test_image_vertical_flip.png";
     String loadCommand = "load " + imagePath + " test\n";
     String verticalFlipCommand_1 = "vertical-flip test1 test_vertical_flip\n";
     String saveCommand = "save " + newImagePath + " test_vertical_flip\n";
@@ -479,7 +479,7 @@ public class IntegrationTest {
   @Test
   public void testBlurFlow() throws IOException {
     // Define your expected image and other necessary variables
-    String newImagePath = "test_image_blur.jpg";
+    String newImagePath = "test_image_blur.png";
     int[][] newChannelAfterBlurRed = {{140, 186, 140}, {186, 247, 186}, {140, 186, 140}};
     int[][] newChannelAfterBlurGreen = {{0, 0, 0}, {5, 10, 5}, {10, 21, 10}};
     int[][] newChannelAfterBlurBlue = {{124, 144, 102}, {131, 140, 87}, {81, 98, 53}};
@@ -502,7 +502,7 @@ public class IntegrationTest {
   @Test
   public void testBlurFlowWithSplit() throws IOException {
     // Define your expected image and other necessary variables
-    String newImagePath = "test_image_blur.jpg";
+    String newImagePath = "test_image_blur.png";
     int[][] newChannelAfterBlurRed = {{140, 255, 255}, {186, 255, 255}, {140, 255, 255}};
     int[][] newChannelAfterBlurGreen = {{0, 0, 0}, {5, 0, 0}, {10, 86, 0}};
     int[][] newChannelAfterBlurBlue = {{124, 254, 240}, {131, 0, 90}, {81, 255, 44}};
@@ -524,7 +524,7 @@ public class IntegrationTest {
 
   @Test
   public void testSharpenFlow() throws IOException {
-    String newImagePath = "test_image_sharpen.jpg";
+    String newImagePath = "test_image_sharpen.png";
     int[][] newChannelAfterSharpenRed = {{255, 255, 255}, {255, 255, 255}, {255, 255, 255}};
     int[][] newChannelAfterSharpenGreen = {{0, 0, 0}, {21, 21, 21}, {21, 86, 21}};
     int[][] newChannelAfterSharpenBlue = {{255, 255, 215}, {255, 255, 215}, {97, 255, 0}};
@@ -546,7 +546,7 @@ public class IntegrationTest {
 
   @Test
   public void testSharpenFlowWithSplit() throws IOException {
-    String newImagePath = "test_image_sharpen.jpg";
+    String newImagePath = "test_image_sharpen.png";
     int[][] newChannelAfterSharpenRed = {{255, 255, 255}, {255, 255, 255}, {255, 255, 255}};
     int[][] newChannelAfterSharpenGreen = {{0, 0, 0}, {21, 0, 0}, {21, 86, 0}};
     int[][] newChannelAfterSharpenBlue = {{255, 254, 240}, {255, 0, 90}, {97, 255, 44}};
@@ -568,7 +568,7 @@ public class IntegrationTest {
 
   @Test
   public void testMergeImage() throws IOException {
-    String newImagePath = "test_image_merge.jpg";
+    String newImagePath = "test_image_merge.png";
     int[][] newChannelAfterMergeRed = {{255, 255, 255}, {255, 255, 255}, {255, 255, 255}};
     int[][] newChannelAfterMergeGreen = new int[][]{{0, 0, 0}, {0, 0, 0}, {0, 86, 0}};
     int[][] newChannelAfterMergeBlue = new int[][]{{254, 254, 240}, {240, 0, 90}, {83, 255, 44}};
@@ -590,7 +590,7 @@ public class IntegrationTest {
 
   @Test
   public void testMergeImageWithError() throws IOException {
-    String newImagePath = "test_image_merge.jpg";
+    String newImagePath = "test_image_merge.png";
     String loadCommand = "load " + imagePath + " test\n";
     String mergeCommand = "rgb-combine test_merge test test\n";
     String saveCommand = "save " + newImagePath + " test_merge\n";
@@ -604,9 +604,9 @@ public class IntegrationTest {
 
   @Test
   public void testSplitImage() throws IOException {
-    String newImagePathRed = "test_image_split_red.jpg";
-    String newImagePathGreen = "test_image_split_green.jpg";
-    String newImagePathBlue = "test_image_split_blue.jpg";
+    String newImagePathRed = "test_image_split_red.png";
+    String newImagePathGreen = "test_image_split_green.png";
+    String newImagePathBlue = "test_image_split_blue.png";
     int[][] newChannelAfterSplitRed = {{255, 255, 255}, {255, 255, 255}, {255, 255, 255}};
     int[][] newChannelAfterSplitGreen = new int[][]{{0, 0, 0}, {0, 0, 0}, {0, 86, 0}};
     int[][] newChannelAfterSplitBlue = new int[][]{{254, 254, 240}, {240, 0, 90}, {83, 255, 44}};
@@ -646,7 +646,7 @@ public class IntegrationTest {
 
   @Test
   public void testScriptFile() throws IOException {
-    String newImagePath = "test_image_sharpen.jpg";
+    String newImagePath = "test_image_sharpen.png";
 
     String loadCommand = "load " + imagePath + " test\n";
     String sharpenCommand = "sharpen test test_sharpen\n";
@@ -660,7 +660,7 @@ public class IntegrationTest {
     logger = new ViewLogger(out);
     String scriptContent = "load " + newImagePath + " image1\n"
         + "brighten 10 image1 image2\n"
-        + "save brightImage.jpg image2";
+        + "save brightImage.png image2";
     File tempFile = File.createTempFile("temp", ".txt");
     String filePath = tempFile.getAbsolutePath();
     PrintWriter writer = new PrintWriter(new FileWriter(tempFile));
@@ -673,12 +673,12 @@ public class IntegrationTest {
     imageProcessorController.startImageProcessingController();
     assertTrue(out.toString().contains("Command ran successfully"));
     cleanupImages(Arrays.asList(imagePath, newImagePath));
-    cleanupImages(Arrays.asList("brightImage.jpg", newImagePath));
+    cleanupImages(Arrays.asList("brightImage.png", newImagePath));
   }
 
   @Test
   public void testIncorrectScriptFile() throws IOException {
-    String newImagePath = "test_image_sharpen.jpg";
+    String newImagePath = "test_image_sharpen.png";
 
     String loadCommand = "load " + imagePath + " test\n";
     String sharpenCommand = "sharpen test test_sharpen\n";
@@ -692,7 +692,7 @@ public class IntegrationTest {
     logger = new ViewLogger(out);
     String scriptContent = "load " + newImagePath + " image1\n"
         + "brighten 10 image1 image2\n"
-        + "save brightImage.jpg image2";
+        + "save brightImage.png image2";
     File tempFile = File.createTempFile("temp", ".txt");
     String filePath = tempFile.getAbsolutePath();
     PrintWriter writer = new PrintWriter(new FileWriter(tempFile));
@@ -705,12 +705,12 @@ public class IntegrationTest {
     imageProcessorController.startImageProcessingController();
     assertTrue(out.toString().contains("File does not exist with name"));
     cleanupImages(Arrays.asList(imagePath, newImagePath));
-    cleanupImages(Arrays.asList("brightImage.jpg", newImagePath));
+    cleanupImages(Arrays.asList("brightImage.png", newImagePath));
   }
 
   @Test
   public void testSepiaFlow() throws IOException {
-    String newImagePath = "test_image_sepia.jpg";
+    String newImagePath = "test_image_sepia.png";
     int[][] newChannelAfterSepiaRed = {{148, 148, 145}, {145, 100, 117}, {115, 214, 108}};
     int[][] newChannelAfterSepiaGreen = {{131, 131, 129}, {129, 88, 104}, {102, 190, 96}};
     int[][] newChannelAfterSepiaBlue = {{102, 102, 100}, {100, 69, 81}, {80, 148, 75}};
@@ -732,7 +732,7 @@ public class IntegrationTest {
 
   @Test
   public void testSepiaFlowWithPercentage() throws IOException {
-    String newImagePath = "test_image_sepia.jpg";
+    String newImagePath = "test_image_sepia.png";
     int[][] newChannelAfterSepiaRed = {{148, 255, 255}, {145, 255, 255}, {115, 255, 255}};
     int[][] newChannelAfterSepiaGreen = {{131, 0, 0}, {129, 0, 0}, {102, 86, 0}};
     int[][] newChannelAfterSepiaBlue = {{102, 254, 240}, {100, 0, 90}, {80, 255, 44}};
@@ -754,7 +754,7 @@ public class IntegrationTest {
 
   @Test
   public void testGreyscaleFlow() throws IOException {
-    String newImagePath = "test_image_grey.jpg";
+    String newImagePath = "test_image_grey.png";
     int[][] newChannelAfterRed = {{72, 72, 71}, {71, 54, 60}, {60, 134, 57}};
     List<int[][]> newChannleList = Collections.singletonList(newChannelAfterRed);
     String loadCommand = "load " + imagePath + " test\n";
@@ -772,7 +772,7 @@ public class IntegrationTest {
 
   @Test
   public void testGreyscaleFlowWithSplit() throws IOException {
-    String newImagePath = "test_image_grey.jpg";
+    String newImagePath = "test_image_grey.png";
     int[][] newChannelAfterSepiaRed = {{72, 255, 255}, {71, 255, 255}, {60, 255, 255}};
     int[][] newChannelAfterSepiaGreen = {{72, 0, 0}, {71, 0, 0}, {60, 86, 0}};
     int[][] newChannelAfterSepiaBlue = {{72, 254, 240}, {71, 0, 90}, {60, 255, 44}};
@@ -794,7 +794,7 @@ public class IntegrationTest {
 
   @Test
   public void testMultipleOperations() throws IOException {
-    String newImagePath = "test_image_sepia.jpg";
+    String newImagePath = "test_image_sepia.png";
     int[][] newChannelAfterSepiaRed = {{148, 148, 145}, {145, 100, 117}, {115, 214, 108}};
     int[][] newChannelAfterSepiaGreen = {{131, 131, 129}, {129, 88, 104}, {102, 190, 96}};
     int[][] newChannelAfterSepiaBlue = {{102, 102, 100}, {100, 69, 81}, {80, 148, 75}};
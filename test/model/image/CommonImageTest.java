@@ -2,6 +2,7 @@ package model.image;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -33,6 +34,23 @@ public class CommonImageTest {
     assertEquals(2, image.getChannel().get(0)[0].length);
   }
 
+  @Test
+  public void testGetChannelReturnsSameView() {
+    assertSame(image.getChannel(), image.getChannel());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testGetChannelIsReadOnly() {
+    image.getChannel().add(new int[2][2]);
+  }
+
+  @Test
+  public void testGetChannelByIndex() {
+    assertSame(image.getChannel().get(1), image.getChannel(1));
+    assertEquals(3, image.getChannelCount());
+    assertEquals(255, image.getPixel(2, 1, 0));
+  }
+
   @Test
   public void testGetHeight() {
     assertEquals(2, image.getHeight());
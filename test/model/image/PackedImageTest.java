@@ -0,0 +1,141 @@
+package model.image;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import model.image.PackedImage.PackedImageBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the PackedImage class.
+ */
+public class PackedImageTest {
+
+  private ImageInterface image;
+
+  @Before
+  public void setUp() {
+    int[][] redChannel = {{255, 0, 7}, {0, 255, 9}};
+    int[][] greenChannel = {{0, 255, 1}, {255, 0, 2}};
+    int[][] blueChannel = {{0, 0, 128}, {255, 255, 64}};
+    image = ImageFactory.createImage(List.of(redChannel, greenChannel, blueChannel));
+  }
+
+  @Test
+  public void testFactoryCreatesPackedImage() {
+    assertEquals(PackedImage.class, image.getClass());
+    assertEquals(8, ((PackedImage) image).getBitDepth());
+    assertEquals(3, ((PackedImage) image).getStride());
+  }
+
+  @Test
+  public void testDimensions() {
+    assertEquals(2, image.getHeight());
+    assertEquals(3, image.getWidth());
+    assertEquals(3, image.getChannelCount());
+  }
+
+  @Test
+  public void testGetPixel() {
+    assertEquals(255, image.getPixel(0, 0, 0));
+    assertEquals(9, image.getPixel(0, 1, 2));
+    assertEquals(128, image.getPixel(2, 0, 2));
+    assertEquals(64, ((PackedImage) image).getPixel(2, 5));
+  }
+
+  @Test
+  public void testGetRow() {
+    int[] row = new int[4];
+    image.getRow(2, 1, row, 1);
+    assertArrayEquals(new int[]{0, 255, 255, 64}, row);
+  }
+
+  @Test
+  public void testGetChannel() {
+    assertEquals(3, image.getChannel().size());
+    assertArrayEquals(new int[][]{{0, 255, 1}, {255, 0, 2}}, image.getChannel().get(1));
+  }
+
+  @Test
+  public void testGetChannelByIndex() {
+    assertArrayEquals(new int[][]{{0, 0, 128}, {255, 255, 64}}, image.getChannel(2));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testGetChannelIsReadOnly() {
+    image.getChannel().remove(0);
+  }
+
+  @Test
+  public void testSixteenBitSamples() {
+    int[][] channel = {{1000, 65535}, {0, 256}};
+    ImageInterface deepImage = ImageFactory.createImage(List.<int[][]>of(channel));
+    assertEquals(16, ((PackedImage) deepImage).getBitDepth());
+    assertArrayEquals(channel, deepImage.getChannel().get(0));
+  }
+
+  @Test
+  public void testOutOfRangeSamplesAreNotPacked() {
+    int[][] channel = {{-1, 2}, {3, 4}};
+    ImageInterface unpackedImage = ImageFactory.createImage(List.<int[][]>of(channel));
+    assertEquals(CommonImage.class, unpackedImage.getClass());
+    assertEquals(-1, unpackedImage.getPixel(0, 0, 0));
+  }
+
+  @Test
+  public void testBuilder() {
+    PackedImageBuilder builder = ImageFactory.createImageBuilder(2, 2, 1);
+    builder.setPixel(0, 1, 1, 200).setRow(0, 0, new int[]{5, 6}, 0);
+    assertEquals(200, builder.getPixel(0, 1, 1));
+    ImageInterface builtImage = builder.build();
+    assertArrayEquals(new int[][]{{5, 6}, {0, 200}}, builtImage.getChannel().get(0));
+  }
+
+  @Test
+  public void testCopyChannel() {
+    ImageInterface copy = ImageFactory.createImageBuilder(2, 3, 1)
+        .copyChannel(image, 2, 0).build();
+    assertArrayEquals(image.getChannel().get(2), copy.getChannel().get(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCopyChannelInvalidDimensions() {
+    ImageFactory.createImageBuilder(3, 3, 1).copyChannel(image, 0, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBuilderInvalidChannelCount() {
+    ImageFactory.createImageBuilder(2, 2, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBuilderInvalidBitDepth() {
+    new PackedImageBuilder(2, 2, 1, 12);
+  }
+
+  @Test
+  public void testWrapBuffers() {
+    ByteBuffer bytes = ByteBuffer.wrap(new byte[]{1, 2, (byte) 200, 4, 5, 6});
+    ImageInterface wrapped = PackedImage.wrap(2, 3, 8, new ByteBuffer[]{bytes});
+    assertArrayEquals(new int[][]{{1, 2, 200}, {4, 5, 6}}, wrapped.getChannel(0));
+    ImageInterface copy = ImageFactory.createImageBuilder(2, 3, 1)
+        .copyChannel(wrapped, 0, 0).build();
+    assertArrayEquals(wrapped.getChannel(0), copy.getChannel(0));
+
+    ByteBuffer shorts = ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xFE, 0, 7});
+    ImageInterface deep = PackedImage.wrap(1, 2, 16, new ByteBuffer[]{shorts});
+    assertEquals(65534, deep.getPixel(0, 0, 0));
+    assertEquals(16, ((PackedImage) deep).getBitDepth());
+    ImageInterface deepCopy = new PackedImageBuilder(1, 2, 1, 16).copyChannel(deep, 0, 0)
+        .build();
+    assertArrayEquals(new int[][]{{65534, 7}}, deepCopy.getChannel(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrapPlaneTooSmall() {
+    PackedImage.wrap(2, 2, 16, new ByteBuffer[]{ByteBuffer.allocate(4)});
+  }
+}
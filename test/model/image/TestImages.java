@@ -0,0 +1,52 @@
+package model.image;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class makes the images that tests of several packages are run on.
+ */
+public class TestImages {
+
+  /**
+   * A 10x10 single channel image with every sample set to the given value is returned by this
+   * method.
+   *
+   * @param value the value of every sample
+   * @return the image
+   */
+  public static ImageInterface createUniformImage(int value) {
+    int[][] grey = new int[10][10];
+    for (int[] row : grey) {
+      Arrays.fill(row, value);
+    }
+    return ImageFactory.createImage(Collections.singletonList(grey));
+  }
+
+  /**
+   * An image of random 8-bit samples is returned by this method. The samples only depend on the
+   * height and width, so images of the same size are equal.
+   *
+   * @param height       the height of the image
+   * @param width        the width of the image
+   * @param channelCount the number of channels
+   * @return the image
+   */
+  public static ImageInterface createRandomImage(int height, int width, int channelCount) {
+    Random random = new Random(height * 31L + width);
+    List<int[][]> channels = new ArrayList<>();
+    for (int c = 0; c < channelCount; c++) {
+      int[][] channel = new int[height][width];
+      for (int i = 0; i < height; i++) {
+        for (int j = 0; j < width; j++) {
+          channel[i][j] = random.nextInt(256);
+        }
+      }
+      channels.add(channel);
+    }
+    return ImageFactory.createImage(channels);
+  }
+}
@@ -0,0 +1,85 @@
+package model.imageio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import commonlabels.ImageFormats;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import model.image.ImageFactory;
+import model.image.ImageInterface;
+
+import org.junit.Test;
+
+/**
+ * This class tests the CodecRegistry class and the codec selection of IOFileFactory.
+ */
+public class CodecRegistryTest {
+
+  private final int[][] red = {{255, 0}, {10, 20}};
+  private final int[][] green = {{0, 255}, {30, 40}};
+  private final int[][] blue = {{0, 0}, {50, 60}};
+
+  @Test
+  public void testBuiltInCodecsAreRegistered() {
+    assertTrue(CodecRegistry.getCodecs().get(0) instanceof PPMFileAdapter);
+    assertTrue(CodecRegistry.getCodecs().get(1) instanceof CommonFormatsFileAdapter);
+    assertTrue(CodecRegistry.getCodecs().get(2) instanceof HaarFileAdapter);
+  }
+
+  @Test
+  public void testForExtension() {
+    assertSame(CodecRegistry.getCodecs().get(0), CodecRegistry.forExtension("pgm"));
+    assertSame(CodecRegistry.getCodecs().get(1), CodecRegistry.forExtension("JPEG"));
+    assertSame(CodecRegistry.getCodecs().get(2), CodecRegistry.forExtension("haar"));
+    assertNull(CodecRegistry.forExtension("gif"));
+  }
+
+  @Test
+  public void testForContent() throws IOException {
+    String fileName = "test_sniff.bin";
+    Files.write(new File(fileName).toPath(), new byte[]{'P', '6', '\n', '1'});
+    assertSame(CodecRegistry.getCodecs().get(0), CodecRegistry.forContent(fileName));
+    Files.write(new File(fileName).toPath(), new byte[]{'H', 'A', 'A', 'R', 1});
+    assertSame(CodecRegistry.getCodecs().get(2), CodecRegistry.forContent(fileName));
+    Files.write(new File(fileName).toPath(), new byte[]{'G', 'I', 'F', '8'});
+    assertNull(CodecRegistry.forContent(fileName));
+    assertTrue(Files.deleteIfExists(new File(fileName).toPath()));
+    assertNull(CodecRegistry.forContent(fileName));
+  }
+
+  @Test
+  public void testDecodePngWithWrongExtension() throws IOException {
+    ImageInterface image = ImageFactory.createImage(Arrays.asList(red, green, blue));
+    new CommonFormatsFileAdapter().encodeAndSaveImage("test_sniff.ppm", image,
+        ImageFormats.PNG);
+    ImageInterface decodedImage = IOFileFactory.decodeImage("test_sniff.ppm");
+    assertArrayEquals(red, decodedImage.getChannel(0));
+    assertArrayEquals(green, decodedImage.getChannel(1));
+    assertArrayEquals(blue, decodedImage.getChannel(2));
+    assertTrue(Files.deleteIfExists(new File("test_sniff.ppm").toPath()));
+  }
+
+  @Test
+  public void testDecodePpmWithoutExtension() throws IOException {
+    ImageInterface image = ImageFactory.createImage(Arrays.asList(red, green, blue));
+    new PPMFileAdapter().encodeAndSaveImage("test_sniff", image, ImageFormats.PPM_BINARY);
+    ImageInterface decodedImage = IOFileFactory.decodeImage("test_sniff");
+    assertEquals(3, decodedImage.getChannelCount());
+    assertArrayEquals(blue, decodedImage.getChannel(2));
+    assertTrue(Files.deleteIfExists(new File("test_sniff").toPath()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSaveUnknownExtension() throws IOException {
+    IOFileFactory.encodeAndSaveImage("test_sniff.gif",
+        ImageFactory.createImage(Arrays.asList(red, green, blue)));
+  }
+}
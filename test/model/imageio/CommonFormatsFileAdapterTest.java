@@ -1,16 +1,22 @@
 package model.imageio;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import commonlabels.ImageFormats;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 import javax.imageio.ImageIO;
 import model.image.ImageFactory;
 import model.image.ImageInterface;
+import model.imageio.SaveOptions.SaveOptionsBuilder;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -128,4 +134,171 @@ public class CommonFormatsFileAdapterTest {
     assertArrayEquals(greyPixels, decodedImage.getChannel().get(0));
     new File(outputFileName).delete();
   }
+
+  @Test
+  public void testEncodeDeepImageScalesToEightBits() throws IOException {
+    int[][] greyPixels = {{0, 257, 32768}, {65535, 65280, 128}};
+    ImageInterface image = ImageFactory.createImage(Collections.singletonList(greyPixels));
+    String outputFileName = "test_output.png";
+    fileAdapter.encodeAndSaveImage(outputFileName, image, ImageFormats.PNG);
+    ImageInterface decodedImage = fileAdapter.decodeImage(outputFileName);
+    assertArrayEquals(new int[][]{{0, 1, 128}, {255, 254, 0}}, decodedImage.getChannel(0));
+    new File(outputFileName).delete();
+  }
+
+  @Test
+  public void testDecodeByteGrayImageKeepsSamples() throws IOException {
+    BufferedImage testImage = new BufferedImage(4, 1, BufferedImage.TYPE_BYTE_GRAY);
+    testImage.getRaster().setSamples(0, 0, 4, 1, 0, new int[]{0, 64, 128, 200});
+    File testImageFile = new File("gray_image.png");
+    ImageIO.write(testImage, "png", testImageFile);
+    ImageInterface decodedImage = fileAdapter.decodeImage("gray_image.png");
+    assertEquals(1, decodedImage.getChannelCount());
+    assertArrayEquals(new int[][]{{0, 64, 128, 200}}, decodedImage.getChannel(0));
+    testImageFile.delete();
+  }
+
+  @Test
+  public void testDecodeImageWithAlpha() throws IOException {
+    BufferedImage testImage = new BufferedImage(2, 1, BufferedImage.TYPE_4BYTE_ABGR);
+    testImage.setRGB(0, 0, 0x80102030);
+    testImage.setRGB(1, 0, 0xFF405060);
+    File testImageFile = new File("alpha_image.png");
+    ImageIO.write(testImage, "png", testImageFile);
+    ImageInterface decodedImage = fileAdapter.decodeImage("alpha_image.png");
+    assertArrayEquals(new int[][]{{0x10, 0x40}}, decodedImage.getChannel(0));
+    assertArrayEquals(new int[][]{{0x20, 0x50}}, decodedImage.getChannel(1));
+    assertArrayEquals(new int[][]{{0x30, 0x60}}, decodedImage.getChannel(2));
+    testImageFile.delete();
+  }
+
+  @Test
+  public void testDecodeIndexedImage() throws IOException {
+    BufferedImage testImage = new BufferedImage(3, 1, BufferedImage.TYPE_BYTE_INDEXED);
+    testImage.setRGB(0, 0, 0xFF0000);
+    testImage.setRGB(1, 0, 0x00FF00);
+    testImage.setRGB(2, 0, 0x0000FF);
+    int[] expected = new int[3];
+    testImage.getRGB(0, 0, 3, 1, expected, 0, 3);
+    File testImageFile = new File("indexed_image.png");
+    ImageIO.write(testImage, "png", testImageFile);
+    ImageInterface decodedImage = fileAdapter.decodeImage("indexed_image.png");
+    for (int j = 0; j < 3; j++) {
+      assertEquals((expected[j] >> 16) & 0xff, decodedImage.getPixel(0, 0, j));
+      assertEquals((expected[j] >> 8) & 0xff, decodedImage.getPixel(1, 0, j));
+      assertEquals(expected[j] & 0xff, decodedImage.getPixel(2, 0, j));
+    }
+    testImageFile.delete();
+  }
+
+  @Test
+  public void testDecodeRegionWithSubsampling() throws IOException {
+    int[][] red = new int[9][11];
+    int[][] green = new int[9][11];
+    int[][] blue = new int[9][11];
+    for (int i = 0; i < 9; i++) {
+      for (int j = 0; j < 11; j++) {
+        red[i][j] = i * 11 + j;
+        green[i][j] = 100 + i;
+        blue[i][j] = 200 + j;
+      }
+    }
+    ImageInterface image = ImageFactory.createImage(Arrays.asList(red, green, blue));
+    String outputFileName = "test_output.png";
+    fileAdapter.encodeAndSaveImage(outputFileName, image, ImageFormats.PNG);
+
+    ImageInterface decodedImage = fileAdapter.decodeImage(outputFileName,
+        new Rectangle(2, 1, 7, 5), 3);
+    assertEquals(2, decodedImage.getHeight());
+    assertEquals(3, decodedImage.getWidth());
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < 3; j++) {
+        assertEquals(red[1 + 3 * i][2 + 3 * j], decodedImage.getPixel(0, i, j));
+        assertEquals(green[1 + 3 * i][2 + 3 * j], decodedImage.getPixel(1, i, j));
+        assertEquals(blue[1 + 3 * i][2 + 3 * j], decodedImage.getPixel(2, i, j));
+      }
+    }
+
+    decodedImage = IOFileFactory.decodeImage(outputFileName, null, 2);
+    assertEquals(5, decodedImage.getHeight());
+    assertEquals(6, decodedImage.getWidth());
+    assertEquals(red[8][10], decodedImage.getPixel(0, 4, 5));
+    new File(outputFileName).delete();
+  }
+
+  @Test
+  public void testDecodeRegionOutsideImage() throws IOException {
+    ImageInterface image = ImageFactory.createImage(Collections.singletonList(new int[4][4]));
+    String outputFileName = "test_output.png";
+    fileAdapter.encodeAndSaveImage(outputFileName, image, ImageFormats.PNG);
+    try {
+      fileAdapter.decodeImage(outputFileName, new Rectangle(2, 2, 3, 1), 1);
+      fail("A region outside the image should be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Region should lie inside the 4x4 image", e.getMessage());
+    } finally {
+      new File(outputFileName).delete();
+    }
+  }
+
+  @Test
+  public void testJpegExtensionWritesJpeg() throws IOException {
+    ImageInterface image = createGradientImage(64, 48);
+    IOFileFactory.encodeAndSaveImage("test_output.jpg", image,
+        new SaveOptionsBuilder().setQuality(95).build());
+    byte[] best = Files.readAllBytes(new File("test_output.jpg").toPath());
+    assertEquals((byte) 0xFF, best[0]);
+    assertEquals((byte) 0xD8, best[1]);
+    IOFileFactory.encodeAndSaveImage("test_output.jpg", image,
+        new SaveOptionsBuilder().setQuality(10).build());
+    long smallest = Files.size(new File("test_output.jpg").toPath());
+    assertTrue(smallest < best.length);
+
+    ImageInterface decodedImage = fileAdapter.decodeImage("test_output.jpg");
+    assertEquals(48, decodedImage.getHeight());
+    assertEquals(64, decodedImage.getWidth());
+    new File("test_output.jpg").delete();
+  }
+
+  @Test
+  public void testPngCompressionLevel() throws IOException {
+    ImageInterface image = createGradientImage(64, 48);
+    fileAdapter.encodeAndSaveImage("test_output.png", image, ImageFormats.PNG,
+        new SaveOptionsBuilder().setFastest().build());
+    long fastest = Files.size(new File("test_output.png").toPath());
+    ImageInterface decodedImage = fileAdapter.decodeImage("test_output.png");
+    for (int c = 0; c < 3; c++) {
+      assertArrayEquals(image.getChannel(c), decodedImage.getChannel(c));
+    }
+    fileAdapter.encodeAndSaveImage("test_output.png", image, ImageFormats.PNG,
+        new SaveOptionsBuilder().setCompressionLevel(9).build());
+    assertTrue(Files.size(new File("test_output.png").toPath()) < fastest);
+    new File("test_output.png").delete();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testQualityForPng() throws IOException {
+    IOFileFactory.encodeAndSaveImage("test_output.png", createGradientImage(4, 4),
+        new SaveOptionsBuilder().setQuality(50).build());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompressionForJpeg() throws IOException {
+    IOFileFactory.encodeAndSaveImage("test_output.jpeg", createGradientImage(4, 4),
+        new SaveOptionsBuilder().setCompressionLevel(1).build());
+  }
+
+  private ImageInterface createGradientImage(int width, int height) {
+    int[][] red = new int[height][width];
+    int[][] green = new int[height][width];
+    int[][] blue = new int[height][width];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        red[i][j] = (i * 5 + j * 3) % 256;
+        green[i][j] = (i * 7) % 256;
+        blue[i][j] = (j * 11 + i) % 256;
+      }
+    }
+    return ImageFactory.createImage(Arrays.asList(red, green, blue));
+  }
 }
@@ -0,0 +1,202 @@
+package model.imageio;
+
+import static model.image.TestImages.createRandomImage;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import commonlabels.ImageFormats;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import model.image.ImageInterface;
+import model.operations.pixeloffset.CompressedImage;
+import model.operations.pixeloffset.CompressionOperation;
+import model.operations.pixeloffset.WaveletCoefficients;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the HaarFileAdapter class.
+ */
+public class HaarFileAdapterTest {
+
+  private static final String OUTPUT_FILE = "test_output.haar";
+
+  private HaarFileAdapter fileAdapter;
+
+  @Before
+  public void setUp() {
+    fileAdapter = new HaarFileAdapter();
+  }
+
+  @After
+  public void tearDown() {
+    new File(OUTPUT_FILE).delete();
+  }
+
+  @Test
+  public void testUncompressedImageRoundTrip() throws IOException {
+    ImageInterface image = createRandomImage(50, 64, 3);
+    fileAdapter.encodeAndSaveImage(OUTPUT_FILE, image, ImageFormats.HAAR);
+    ImageInterface decodedImage = fileAdapter.decodeImage(OUTPUT_FILE);
+    for (int c = 0; c < 3; c++) {
+      assertArrayEquals(image.getChannel(c), decodedImage.getChannel(c));
+    }
+  }
+
+  @Test
+  public void testCompressedImageRoundTrip() throws IOException {
+    ImageInterface image = createRandomImage(100, 37, 3);
+    ImageInterface compressed = new CompressionOperation().apply(image, "80");
+    fileAdapter.encodeAndSaveImage(OUTPUT_FILE, compressed, ImageFormats.HAAR);
+    assertTrue(Files.size(new File(OUTPUT_FILE).toPath()) < 100 * 37 * 3);
+
+    ImageInterface decodedImage = fileAdapter.decodeImage(OUTPUT_FILE);
+    assertEquals(100, decodedImage.getHeight());
+    assertEquals(37, decodedImage.getWidth());
+    assertEqualWithinOne(compressed, decodedImage);
+
+    // Saving the decoded image again writes the same coefficients
+    byte[] saved = Files.readAllBytes(new File(OUTPUT_FILE).toPath());
+    fileAdapter.encodeAndSaveImage(OUTPUT_FILE, decodedImage, ImageFormats.HAAR);
+    assertArrayEquals(saved, Files.readAllBytes(new File(OUTPUT_FILE).toPath()));
+  }
+
+  @Test
+  public void testTiledCompressedImageRoundTrip() throws IOException {
+    ImageInterface image = createRandomImage(70, 45, 1);
+    ImageInterface compressed = new CompressionOperation(16).apply(image, "50");
+    IOFileFactory.encodeAndSaveImage(OUTPUT_FILE, compressed);
+    ImageInterface decodedImage = IOFileFactory.decodeImage(OUTPUT_FILE);
+    assertTrue(decodedImage instanceof CompressedImage);
+    assertEquals(16, ((CompressedImage) decodedImage).getCoefficients().getTileSize());
+    assertEqualWithinOne(compressed, decodedImage);
+  }
+
+  @Test
+  public void testPreviewAveragesBlocks() throws IOException {
+    ImageInterface image = createRandomImage(37, 21, 3);
+    fileAdapter.encodeAndSaveImage(OUTPUT_FILE, image, ImageFormats.HAAR);
+    WaveletCoefficients coefficients = fileAdapter.readCoefficients(OUTPUT_FILE);
+    assertEqualWithinOne(image, coefficients.preview(0));
+
+    ImageInterface preview = coefficients.preview(2);
+    assertEquals(10, preview.getHeight());
+    assertEquals(6, preview.getWidth());
+    for (int c = 0; c < 3; c++) {
+      for (int i = 0; i < preview.getHeight(); i++) {
+        for (int j = 0; j < preview.getWidth(); j++) {
+          double sum = 0;
+          int count = 0;
+          for (int k = 4 * i; k < Math.min(4 * i + 4, 37); k++) {
+            for (int l = 4 * j; l < Math.min(4 * j + 4, 21); l++) {
+              sum += image.getPixel(c, k, l);
+              count++;
+            }
+          }
+          assertEquals(sum / count, preview.getPixel(c, i, j), 1);
+        }
+      }
+    }
+
+    preview = coefficients.preview(10);
+    assertEquals(1, preview.getHeight());
+    assertEquals(1, preview.getWidth());
+  }
+
+  @Test
+  public void testTiledPreview() throws IOException {
+    ImageInterface image = createRandomImage(70, 45, 1);
+    IOFileFactory.encodeAndSaveImage(OUTPUT_FILE,
+        new CompressionOperation(16).apply(image, "0"));
+    ImageInterface preview = IOFileFactory.decodeImagePreview(OUTPUT_FILE, 3);
+    assertEquals(9, preview.getHeight());
+    assertEquals(6, preview.getWidth());
+    double sum = 0;
+    for (int k = 64; k < 70; k++) {
+      for (int l = 40; l < 45; l++) {
+        sum += image.getPixel(0, k, l);
+      }
+    }
+    assertEquals(sum / 30, preview.getPixel(0, 8, 5), 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPreviewFromOtherFormat() throws IOException {
+    IOFileFactory.decodeImagePreview("test_output.ppm", 1);
+  }
+
+  @Test(expected = IOException.class)
+  public void testDecodeInvalidFile() throws IOException {
+    Files.write(new File(OUTPUT_FILE).toPath(), new byte[]{'P', '3', ' ', '1'});
+    fileAdapter.decodeImage(OUTPUT_FILE);
+  }
+
+  @Test
+  public void testDecodeDamagedFiles() throws IOException {
+    // A 2x2 image in 2x2 tiles has one stream, which is missing
+    assertDamaged(2, 2, 1, 2, new byte[0], "unexpected end of file");
+    // A 46340x46340 color image in tiles of one pixel has more streams than an int can count
+    assertDamaged(46340, 46340, 3, 1, stream(0), "unexpected end of file");
+    assertDamaged(1 << 16, 1 << 16, 1, 0, stream(0), "unsupported dimensions or tile size");
+    assertDamaged(4, 4, 1, Integer.MAX_VALUE, stream(0), "unsupported dimensions or tile size");
+    assertDamaged(4, 4, 1, 0, stream(-1), "stream 0 has an invalid length");
+    assertDamaged(4, 4, 1, 0, stream(Integer.MAX_VALUE), "stream 0 has an invalid length");
+    // A count of zeros with no value after it, and a value cut off after its first byte
+    assertDamaged(4, 4, 1, 0, stream(1, 3), "stream 0 is truncated");
+    assertDamaged(4, 4, 1, 0, stream(2, 3, 0x81), "stream 0 is truncated");
+    int[] endless = new int[12];
+    Arrays.fill(endless, 0x81);
+    assertDamaged(4, 4, 1, 0, stream(12, endless), "stream 0 is truncated");
+  }
+
+  /**
+   * The bytes of a stream with the given declared length and the given contents are returned by
+   * this method.
+   */
+  private byte[] stream(int length, int... contents) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(length);
+    for (int value : contents) {
+      out.writeByte(value);
+    }
+    return bytes.toByteArray();
+  }
+
+  private void assertDamaged(int height, int width, int channelCount, int tileSize,
+      byte[] streams, String message) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new FileOutputStream(OUTPUT_FILE))) {
+      out.writeBytes("HAAR");
+      out.writeByte(1);
+      out.writeInt(height);
+      out.writeInt(width);
+      out.writeInt(channelCount);
+      out.writeInt(tileSize);
+      out.write(streams);
+    }
+    try {
+      fileAdapter.decodeImage(OUTPUT_FILE);
+      fail("A damaged file should not be decoded");
+    } catch (IOException e) {
+      assertEquals("Invalid wavelet file: " + message, e.getMessage());
+    }
+  }
+
+  private void assertEqualWithinOne(ImageInterface expected, ImageInterface actual) {
+    for (int c = 0; c < expected.getChannelCount(); c++) {
+      for (int i = 0; i < expected.getHeight(); i++) {
+        for (int j = 0; j < expected.getWidth(); j++) {
+          assertEquals(expected.getPixel(c, i, j), actual.getPixel(c, i, j), 1);
+        }
+      }
+    }
+  }
+}
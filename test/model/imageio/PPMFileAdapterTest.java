@@ -1,18 +1,24 @@
 package model.imageio;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import commonlabels.ImageFormats;
 
+import java.awt.Rectangle;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 
+import model.image.CommonImage;
 import model.image.ImageFactory;
 import model.image.ImageInterface;
+import model.image.PackedImage.PackedImageBuilder;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -95,6 +101,34 @@ public class PPMFileAdapterTest {
     assertTrue(Files.deleteIfExists(file.toPath()));
   }
 
+  @Test
+  public void testDecodeImageWithCommentsAndBlankLines() throws IOException {
+    String testFileName = "test_image.ppm";
+    String ppmContent = "P3\n# created by hand\n2 1 # width and height\n\n255\n"
+        + "  10 20 30\t# first pixel\r\n40 50\n60\n";
+    Files.write(new File(testFileName).toPath(), ppmContent.getBytes());
+
+    ImageInterface decodedImage = fileAdapter.decodeImage(testFileName);
+
+    assertArrayEquals(new int[][]{{10, 40}}, decodedImage.getChannel().get(0));
+    assertArrayEquals(new int[][]{{20, 50}}, decodedImage.getChannel().get(1));
+    assertArrayEquals(new int[][]{{30, 60}}, decodedImage.getChannel().get(2));
+    assertTrue(Files.deleteIfExists(new File(testFileName).toPath()));
+  }
+
+  @Test
+  public void testDecodeTruncatedImage() throws IOException {
+    String testFileName = "test_image.ppm";
+    Files.write(new File(testFileName).toPath(), "P3 2 2 255 1 2 3 4 5".getBytes());
+    try {
+      fileAdapter.decodeImage(testFileName);
+      fail("Truncated file should not be decoded");
+    } catch (IOException e) {
+      assertTrue(e.getMessage().contains("unexpected end of file"));
+    }
+    assertTrue(Files.deleteIfExists(new File(testFileName).toPath()));
+  }
+
   @Test
   public void testEncodeAndSaveGrayscaleImage() throws IOException {
     int width = 3;
@@ -122,4 +156,164 @@ public class PPMFileAdapterTest {
     assertTrue(Files.deleteIfExists(file.toPath()));
   }
 
+  @Test
+  public void testBinaryColorRoundTrip() throws IOException {
+    int[][] red = {{0, 255, 7}, {12, 200, 99}};
+    int[][] green = {{1, 2, 3}, {4, 5, 6}};
+    int[][] blue = {{250, 128, 64}, {32, 16, 8}};
+    ImageInterface image = ImageFactory.createImage(Arrays.asList(red, green, blue));
+    String outputFileName = "test_output.ppm";
+    IOFileFactory.encodeAndSaveImage(outputFileName, image);
+
+    byte[] bytes = Files.readAllBytes(new File(outputFileName).toPath());
+    String header = "P6\n3 2\n255\n";
+    assertEquals(header, new String(bytes, 0, header.length(), StandardCharsets.US_ASCII));
+    assertEquals(header.length() + 3 * 2 * 3, bytes.length);
+
+    ImageInterface decodedImage = IOFileFactory.decodeImage(outputFileName);
+    assertArrayEquals(red, decodedImage.getChannel(0));
+    assertArrayEquals(green, decodedImage.getChannel(1));
+    assertArrayEquals(blue, decodedImage.getChannel(2));
+    assertTrue(Files.deleteIfExists(new File(outputFileName).toPath()));
+  }
+
+  @Test
+  public void testBinaryGrayscaleRoundTrip() throws IOException {
+    int[][] grey = {{0, 64, 128, 255}, {1, 2, 3, 4}};
+    ImageInterface image = ImageFactory.createImage(Collections.singletonList(grey));
+    for (String outputFileName : new String[]{"test_output.ppm", "test_output.pgm"}) {
+      IOFileFactory.encodeAndSaveImage(outputFileName, image);
+      byte[] bytes = Files.readAllBytes(new File(outputFileName).toPath());
+      assertEquals("P5", new String(bytes, 0, 2, StandardCharsets.US_ASCII));
+      assertEquals("P5\n4 2\n255\n".length() + 8, bytes.length);
+
+      ImageInterface decodedImage = IOFileFactory.decodeImage(outputFileName);
+      assertEquals(1, decodedImage.getChannelCount());
+      assertArrayEquals(grey, decodedImage.getChannel(0));
+      assertTrue(Files.deleteIfExists(new File(outputFileName).toPath()));
+    }
+  }
+
+  @Test
+  public void testBinarySixteenBitRoundTrip() throws IOException {
+    PackedImageBuilder builder = new PackedImageBuilder(2, 2, 3, 16);
+    int[] values = {0, 300, 65535, 1024};
+    for (int c = 0; c < 3; c++) {
+      for (int index = 0; index < 4; index++) {
+        builder.setPixel(c, index, values[(index + c) % 4]);
+      }
+    }
+    ImageInterface image = builder.build();
+    String outputFileName = "test_output.ppm";
+    fileAdapter.encodeAndSaveImage(outputFileName, image, ImageFormats.PPM_BINARY);
+    assertEquals("P6\n2 2\n65535\n".length() + 2 * 2 * 3 * 2,
+        Files.size(new File(outputFileName).toPath()));
+
+    ImageInterface decodedImage = fileAdapter.decodeImage(outputFileName);
+    for (int c = 0; c < 3; c++) {
+      assertArrayEquals(image.getChannel(c), decodedImage.getChannel(c));
+    }
+    assertTrue(Files.deleteIfExists(new File(outputFileName).toPath()));
+  }
+
+  @Test
+  public void testMaximumValueFollowsBitDepth() throws IOException {
+    int[][] deep = {{0, 300}, {65535, 1024}};
+    int[][] shallow = {{0, 30}, {255, 102}};
+    String outputFileName = "test_output.pgm";
+    for (int[][] grey : Arrays.asList(deep, shallow)) {
+      ImageInterface image = new CommonImage.ImageBuilder().addChannel(grey).build();
+      int maxValue = grey == deep ? 65535 : 255;
+      for (ImageFormats format : Arrays.asList(ImageFormats.PGM, ImageFormats.PPM)) {
+        fileAdapter.encodeAndSaveImage(outputFileName, image, format);
+        String header = new String(Files.readAllBytes(new File(outputFileName).toPath()), 0, 14,
+            StandardCharsets.US_ASCII).replaceAll("\\s+", " ");
+        assertTrue(header, header.startsWith((format == ImageFormats.PGM ? "P5" : "P3")
+            + " 2 2 " + maxValue + " "));
+        assertArrayEquals(grey, fileAdapter.decodeImage(outputFileName).getChannel(0));
+      }
+    }
+    assertTrue(Files.deleteIfExists(new File(outputFileName).toPath()));
+  }
+
+  @Test
+  public void testPlainSamplesAreWrittenInDecimal() throws IOException {
+    int[][] grey = {{0, 9, 10}, {255, 65535, 99999}, {100000, -1, Integer.MIN_VALUE}};
+    ImageInterface image = new CommonImage.ImageBuilder().addChannel(grey).build();
+    String outputFileName = "test_output.ppm";
+    fileAdapter.encodeAndSaveImage(outputFileName, image, ImageFormats.PPM);
+    String[] lines = new String(Files.readAllBytes(new File(outputFileName).toPath()),
+        StandardCharsets.US_ASCII).split(System.lineSeparator());
+    assertEquals("0 0 0 9 9 9 10 10 10 ", lines[3]);
+    assertEquals("255 255 255 65535 65535 65535 99999 99999 99999 ", lines[4]);
+    assertEquals("100000 100000 100000 -1 -1 -1 -2147483648 -2147483648 -2147483648 ",
+        lines[5]);
+    assertTrue(Files.deleteIfExists(new File(outputFileName).toPath()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSaveColorImageAsPgm() throws IOException {
+    ImageInterface image = ImageFactory.createImage(Arrays.asList(new int[][]{{1, 2}},
+        new int[][]{{3, 4}}, new int[][]{{5, 6}}));
+    IOFileFactory.encodeAndSaveImage("test_output.pgm", image);
+  }
+
+  @Test
+  public void testDecodeTruncatedBinaryFile() throws IOException {
+    String testFileName = "test_image.ppm";
+    Files.write(new File(testFileName).toPath(),
+        "P6\n4 4\n255\n0123456789".getBytes(StandardCharsets.US_ASCII));
+    try {
+      fileAdapter.decodeImage(testFileName);
+      fail("A truncated file should not be decoded");
+    } catch (IOException e) {
+      assertEquals("Invalid PPM file: unexpected end of file", e.getMessage());
+    } finally {
+      Files.deleteIfExists(new File(testFileName).toPath());
+    }
+  }
+
+  @Test
+  public void testDecodeRegionWithSubsampling() throws IOException {
+    int[][] grey = new int[6][7];
+    for (int i = 0; i < 6; i++) {
+      for (int j = 0; j < 7; j++) {
+        grey[i][j] = i * 7 + j;
+      }
+    }
+    ImageInterface image = ImageFactory.createImage(Collections.singletonList(grey));
+    String outputFileName = "test_output.pgm";
+    IOFileFactory.encodeAndSaveImage(outputFileName, image);
+    ImageInterface decodedImage = IOFileFactory.decodeImage(outputFileName,
+        new Rectangle(1, 2, 6, 4), 2);
+    assertArrayEquals(new int[][]{{15, 17, 19}, {29, 31, 33}}, decodedImage.getChannel(0));
+    assertTrue(Files.deleteIfExists(new File(outputFileName).toPath()));
+  }
+
+  @Test
+  public void testDecodeDeepRegion() throws IOException {
+    int[][] grey = {{0, 300, 7}, {65535, 1024, 256}, {9, 65535, 2}};
+    String outputFileName = "test_output.pgm";
+    IOFileFactory.encodeAndSaveImage(outputFileName,
+        ImageFactory.createImage(Collections.singletonList(grey)));
+    ImageInterface decodedImage = IOFileFactory.decodeImage(outputFileName,
+        new Rectangle(0, 1, 2, 2), 1);
+    assertEquals(16, decodedImage.getBitDepth());
+    assertArrayEquals(new int[][]{{65535, 1024}, {9, 65535}}, decodedImage.getChannel(0));
+    assertTrue(Files.deleteIfExists(new File(outputFileName).toPath()));
+  }
+
+  @Test
+  public void testAsciiSaveOption() throws IOException {
+    int[][] grey = {{0, 64}, {128, 255}};
+    ImageInterface image = ImageFactory.createImage(Collections.singletonList(grey));
+    String outputFileName = "test_output.ppm";
+    IOFileFactory.encodeAndSaveImage(outputFileName, image,
+        new SaveOptions.SaveOptionsBuilder().setAscii(true).build());
+    byte[] bytes = Files.readAllBytes(new File(outputFileName).toPath());
+    assertEquals("P3", new String(bytes, 0, 2, StandardCharsets.US_ASCII));
+    assertArrayEquals(grey, IOFileFactory.decodeImage(outputFileName).getChannel(0));
+    assertTrue(Files.deleteIfExists(new File(outputFileName).toPath()));
+  }
+
 }
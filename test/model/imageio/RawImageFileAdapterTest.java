@@ -0,0 +1,121 @@
+package model.imageio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import commonlabels.ImageFormats;
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import model.image.CommonImage;
+import model.image.ImageFactory;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the RawImageFileAdapter class.
+ */
+public class RawImageFileAdapterTest {
+
+  private static final String OUTPUT_FILE = "test_output.rawimg";
+
+  private RawImageFileAdapter fileAdapter;
+
+  @Before
+  public void setUp() {
+    fileAdapter = new RawImageFileAdapter();
+  }
+
+  @After
+  public void tearDown() {
+    new File(OUTPUT_FILE).delete();
+  }
+
+  @Test
+  public void testEncodeAndDecodeColorImage() throws IOException {
+    int[][] red = {{255, 0, 7}, {0, 255, 9}};
+    int[][] green = {{0, 255, 1}, {255, 0, 2}};
+    int[][] blue = {{0, 0, 128}, {255, 255, 64}};
+    ImageInterface image = ImageFactory.createImage(Arrays.asList(red, green, blue));
+    fileAdapter.encodeAndSaveImage(OUTPUT_FILE, image, ImageFormats.RAWIMG);
+
+    // The header page is followed by one page per plane
+    assertEquals(3 * 4096 + 6, Files.size(new File(OUTPUT_FILE).toPath()));
+    ImageInterface decodedImage = fileAdapter.decodeImage(OUTPUT_FILE);
+    assertEquals(3, decodedImage.getChannelCount());
+    assertArrayEquals(red, decodedImage.getChannel(0));
+    assertArrayEquals(green, decodedImage.getChannel(1));
+    assertArrayEquals(blue, decodedImage.getChannel(2));
+  }
+
+  @Test
+  public void testEncodeAndDecodeDeepImage() throws IOException {
+    int[][] grey = {{0, 300}, {65535, 1024}};
+    ImageInterface image = ImageFactory.createImage(Collections.singletonList(grey));
+    IOFileFactory.encodeAndSaveImage(OUTPUT_FILE, image);
+    ImageInterface decodedImage = IOFileFactory.decodeImage(OUTPUT_FILE);
+    assertEquals(16, ((PackedImage) decodedImage).getBitDepth());
+    assertArrayEquals(grey, decodedImage.getChannel(0));
+  }
+
+  @Test
+  public void testEncodeDeepImageOfAnyKind() throws IOException {
+    int[][] grey = {{0, 300}, {65535, 1024}};
+    ImageInterface image = new CommonImage.ImageBuilder().addChannel(grey).build();
+    fileAdapter.encodeAndSaveImage(OUTPUT_FILE, image, ImageFormats.RAWIMG);
+    ImageInterface decodedImage = fileAdapter.decodeImage(OUTPUT_FILE);
+    assertEquals(16, decodedImage.getBitDepth());
+    assertArrayEquals(grey, decodedImage.getChannel(0));
+  }
+
+  @Test
+  public void testDecodeRegion() throws IOException {
+    int[][] grey = new int[4][5];
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 5; j++) {
+        grey[i][j] = i * 5 + j;
+      }
+    }
+    IOFileFactory.encodeAndSaveImage(OUTPUT_FILE,
+        ImageFactory.createImage(Collections.singletonList(grey)));
+    ImageInterface decodedImage = IOFileFactory.decodeImage(OUTPUT_FILE,
+        new Rectangle(1, 1, 3, 2), 1);
+    assertArrayEquals(new int[][]{{6, 7, 8}, {11, 12, 13}}, decodedImage.getChannel(0));
+  }
+
+  @Test
+  public void testOverwriteKeepsMappedImage() throws IOException {
+    int[][] first = {{1, 2}, {3, 4}};
+    int[][] second = {{5, 6}, {7, 8}};
+    fileAdapter.encodeAndSaveImage(OUTPUT_FILE,
+        ImageFactory.createImage(Collections.singletonList(first)), ImageFormats.RAWIMG);
+    ImageInterface decodedImage = fileAdapter.decodeImage(OUTPUT_FILE);
+    fileAdapter.encodeAndSaveImage(OUTPUT_FILE,
+        ImageFactory.createImage(Collections.singletonList(second)), ImageFormats.RAWIMG);
+    assertArrayEquals(first, decodedImage.getChannel(0));
+    assertArrayEquals(second, fileAdapter.decodeImage(OUTPUT_FILE).getChannel(0));
+    assertFalse(new File(OUTPUT_FILE + ".tmp").exists());
+  }
+
+  @Test(expected = IOException.class)
+  public void testDecodeTruncatedFile() throws IOException {
+    IOFileFactory.encodeAndSaveImage(OUTPUT_FILE,
+        ImageFactory.createImage(Collections.singletonList(new int[][]{{1, 2}, {3, 4}})));
+    byte[] bytes = Files.readAllBytes(new File(OUTPUT_FILE).toPath());
+    Files.write(new File(OUTPUT_FILE).toPath(), Arrays.copyOf(bytes, 100));
+    fileAdapter.decodeImage(OUTPUT_FILE);
+  }
+
+  @Test(expected = IOException.class)
+  public void testDecodeInvalidFile() throws IOException {
+    Files.write(new File(OUTPUT_FILE).toPath(), new byte[]{'P', '3', ' ', '1'});
+    fileAdapter.decodeImage(OUTPUT_FILE);
+  }
+}
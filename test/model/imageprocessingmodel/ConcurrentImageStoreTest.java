@@ -0,0 +1,76 @@
+package model.imageprocessingmodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.image.ImageFactory;
+import model.image.ImageInterface;
+import model.imageio.IOFileFactory;
+import org.junit.Test;
+
+/**
+ * This class tests the ConcurrentImageStore class.
+ */
+public class ConcurrentImageStoreTest {
+
+  private final ImageInterface image = ImageFactory.createImage(
+      Collections.singletonList(new int[][]{{1, 2}, {3, 4}}));
+
+  @Test
+  public void testPutIfAbsent() {
+    ConcurrentImageStore store = new ConcurrentImageStore();
+    assertNull(store.get("a"));
+    assertTrue(store.putIfAbsent("a", image));
+    assertFalse(store.putIfAbsent("a", image));
+    assertTrue(store.contains("a"));
+    assertSame(image, store.get("a"));
+  }
+
+  @Test
+  public void testOnlyOneRacingCreatorWins() throws Exception {
+    IOFileFactory.encodeAndSaveImage("test_concurrent.ppm", image);
+    ImageProcessorModel model = new ImageProcessorModel(new ConcurrentImageStore());
+    model.loadImage("test_concurrent.ppm", "source");
+    new File("test_concurrent.ppm").delete();
+
+    int threads = 8;
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Boolean>> results = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      int amount = i;
+      results.add(pool.submit(() -> {
+        start.await();
+        // Every thread also creates a name of its own, which always succeeds
+        model.brightenImage("source", "own" + amount, String.valueOf(amount));
+        try {
+          model.brightenImage("source", "shared", String.valueOf(amount));
+          return true;
+        } catch (IllegalArgumentException e) {
+          return false;
+        }
+      }));
+    }
+    start.countDown();
+    int winners = 0;
+    for (Future<Boolean> result : results) {
+      winners += result.get() ? 1 : 0;
+    }
+    pool.shutdown();
+    assertEquals(1, winners);
+    for (int i = 0; i < threads; i++) {
+      assertEquals(1 + i, model.getImage("own" + i).getPixel(0, 0, 0));
+    }
+  }
+}
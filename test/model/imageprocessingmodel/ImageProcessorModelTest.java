@@ -1,8 +1,16 @@
 package model.imageprocessingmodel;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import model.image.CommonImage;
 import model.image.ImageInterface;
@@ -218,4 +226,157 @@ public class ImageProcessorModelTest {
     imageProcessorModel.mergeImage(Collections.singletonList(initialImageName), initialImageName);
   }
 
+  @Test
+  public void testLoadPrefetchedImage() throws IOException {
+    imageProcessorModel.prefetchImage(imagePath);
+    imageProcessorModel.loadImage(imagePath, "prefetched");
+    assertArrayEquals(imageProcessorModel.getImage(initialImageName).getChannel(2),
+        imageProcessorModel.getImage("prefetched").getChannel(2));
+  }
+
+  @Test(expected = IOException.class)
+  public void testLoadFailedPrefetch() throws IOException {
+    imageProcessorModel.prefetchImage("missing_image.png");
+    imageProcessorModel.loadImage("missing_image.png", "missing");
+  }
+
+  @Test
+  public void testDiscardPrefetchedImages() throws IOException {
+    imageProcessorModel.prefetchImage("missing_image.png");
+    imageProcessorModel.discardPrefetchedImages();
+    imageProcessorModel.loadImage(imagePath, "loaded");
+    assertNotNull(imageProcessorModel.getImage("loaded"));
+  }
+
+  @Test
+  public void testSaveDiscardsStalePrefetch() throws IOException {
+    imageProcessorModel.saveImage("test_stale_prefetch.png", initialImageName);
+    imageProcessorModel.prefetchImage("./test_stale_prefetch.png");
+    // A failed load leaves the prefetch of the file behind
+    try {
+      imageProcessorModel.loadImage("test_stale_prefetch.png", initialImageName);
+      fail("Loading into an existing image should fail");
+    } catch (IllegalArgumentException e) {
+      // Expected
+    }
+    imageProcessorModel.blurImage(initialImageName, "blurred", "100");
+    imageProcessorModel.saveImage("test_stale_prefetch.png", "blurred");
+    imageProcessorModel.loadImage("test_stale_prefetch.png", "reloaded");
+    assertArrayEquals(imageProcessorModel.getImage("blurred").getChannel(2),
+        imageProcessorModel.getImage("reloaded").getChannel(2));
+    new File("test_stale_prefetch.png").delete();
+  }
+
+  @Test
+  public void testWriteBehindSaveIsReadBack() throws IOException {
+    imageProcessorModel.setWriteBehind(true);
+    imageProcessorModel.blurImage(initialImageName, "blurred", "100");
+    imageProcessorModel.saveImage("test_write_behind.png", "blurred");
+    imageProcessorModel.saveImage("test_write_behind.png", initialImageName);
+    // The load waits for both saves, so it reads the image saved last
+    imageProcessorModel.loadImage("test_write_behind.png", "reloaded");
+    assertArrayEquals(imageProcessorModel.getImage(initialImageName).getChannel(2),
+        imageProcessorModel.getImage("reloaded").getChannel(2));
+    imageProcessorModel.setWriteBehind(false);
+    new File("test_write_behind.png").delete();
+  }
+
+  @Test
+  public void testWriteBehindFailureIsReportedByFlush() throws IOException {
+    imageProcessorModel.setWriteBehind(true);
+    imageProcessorModel.saveImage("no_such_directory/out.png", initialImageName);
+    try {
+      imageProcessorModel.flushSaves();
+      fail("A failed background save should be reported");
+    } catch (IOException e) {
+      assertTrue(e.getMessage().startsWith("Failed to save no_such_directory/out.png"));
+    }
+    // The failure is reported only once
+    imageProcessorModel.flushSaves();
+  }
+
+  @Test
+  public void testSpilledImagesAreReadBack() throws IOException {
+    ImageProcessorModel spillingModel = new ImageProcessorModel(new SpillingImageStore(0));
+    spillingModel.loadImage(imagePath, initialImageName);
+    spillingModel.horizontalFlipImage(initialImageName, "flipped");
+    spillingModel.horizontalFlipImage("flipped", "restored");
+    assertArrayEquals(imageProcessorModel.getImage(initialImageName).getChannel(0),
+        spillingModel.getImage("restored").getChannel(0));
+  }
+
+  @Test
+  public void testLazyImagesMatchEagerImages() throws IOException {
+    ImageProcessorModel lazyModel = new ImageProcessorModel();
+    lazyModel.loadImage(imagePath, initialImageName);
+    lazyModel.setLazy(true);
+    lazyModel.blurImage(initialImageName, "blurred");
+    lazyModel.sepiaImage("blurred", "sepia");
+    lazyModel.rgbSplitImage("sepia", Arrays.asList("red", "green", "blue"));
+    imageProcessorModel.blurImage(initialImageName, "blurred");
+    imageProcessorModel.sepiaImage("blurred", "sepia");
+    imageProcessorModel.rgbSplitImage("sepia", Arrays.asList("red", "green", "blue"));
+    assertArrayEquals(imageProcessorModel.getImage("green").getChannel(0),
+        lazyModel.getImage("green").getChannel(0));
+  }
+
+  @Test
+  public void testFusedLazyImagesMatchEagerImages() throws IOException {
+    ImageProcessorModel lazyModel = new ImageProcessorModel();
+    lazyModel.loadImage(imagePath, initialImageName);
+    lazyModel.setLazy(true);
+    for (ImageProcessorModel model : Arrays.asList(lazyModel, imageProcessorModel)) {
+      model.brightenImage(initialImageName, "bright", "30");
+      model.levelAdjustImage("bright", "levels", "10 120 250");
+      model.sepiaImage("levels", "sepia");
+      model.brightenImage("sepia", "dark", "-50");
+      model.lumaImage("dark", "luma");
+    }
+    // The last image is computed in one pass, and the images in between on their own
+    assertArrayEquals(imageProcessorModel.getImage("luma").getChannel(0),
+        lazyModel.getImage("luma").getChannel(0));
+    assertArrayEquals(imageProcessorModel.getImage("sepia").getChannel(2),
+        lazyModel.getImage("sepia").getChannel(2));
+  }
+
+  @Test
+  public void testResultCacheOnlyRecomputesChangedCommands() throws IOException {
+    ResultCache cache = new ResultCache(1024 * 1024);
+    ImageProcessorModel first = new ImageProcessorModel(new InMemoryImageStore(), cache);
+    ImageProcessorModel second = new ImageProcessorModel(new InMemoryImageStore(), cache);
+    for (ImageProcessorModel model : Arrays.asList(first, second)) {
+      model.loadImage(imagePath, initialImageName);
+      model.blurImage(initialImageName, "blurred");
+      model.brightenImage("blurred", "bright", model == first ? "10" : "20");
+      model.sepiaImage("bright", "sepia");
+      model.horizontalFlipImage("blurred", "flipped");
+    }
+    assertSame(first.getImage("blurred"), second.getImage("blurred"));
+    assertSame(first.getImage("flipped"), second.getImage("flipped"));
+    assertNotSame(first.getImage("bright"), second.getImage("bright"));
+    assertNotSame(first.getImage("sepia"), second.getImage("sepia"));
+
+    // The changed command computes the same image as a model without a cache
+    imageProcessorModel.blurImage(initialImageName, "blurred");
+    imageProcessorModel.brightenImage("blurred", "bright", "20");
+    imageProcessorModel.sepiaImage("bright", "sepia");
+    assertArrayEquals(imageProcessorModel.getImage("sepia").getChannel(1),
+        second.getImage("sepia").getChannel(1));
+  }
+
+  @Test
+  public void testLazyImageIsOnlyComputedWhenUsed() throws IOException {
+    imageProcessorModel.setLazy(true);
+    // Sepia needs 3 channels, which is only checked when the image is computed
+    imageProcessorModel.valueImage(initialImageName, "value");
+    imageProcessorModel.sepiaImage("value", "unused");
+    imageProcessorModel.sepiaImage("value", "used");
+    try {
+      imageProcessorModel.saveImage("test_lazy.png", "used");
+      fail("Saving the image should compute it");
+    } catch (IllegalArgumentException e) {
+      assertFalse(new File("test_lazy.png").exists());
+    }
+  }
+
 }
@@ -0,0 +1,141 @@
+package model.imageprocessingmodel;
+
+import static model.image.TestImages.createRandomImage;
+import static model.image.TestImages.createUniformImage;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+import model.imageio.IOFileFactory;
+import model.operations.pixeloffset.CompressedImage;
+import model.operations.pixeloffset.CompressionOperation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the ResultCache class and the keys it is used with.
+ */
+public class ResultCacheTest {
+
+  private Path cacheDirectory;
+
+  @Before
+  public void setUp() throws IOException {
+    cacheDirectory = Files.createTempDirectory("cache-test");
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = cacheDirectory.toFile().listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    cacheDirectory.toFile().delete();
+  }
+
+  @Test
+  public void testLeastRecentlyUsedImageIsDropped() {
+    ResultCache cache = new ResultCache(200);
+    ImageInterface first = createUniformImage(1);
+    cache.put("a", first);
+    cache.put("b", createUniformImage(2));
+    assertSame(first, cache.get("a"));
+    cache.put("c", createUniformImage(3));
+    assertEquals(200, cache.getHeapBytes());
+    assertSame(first, cache.get("a"));
+    assertNull(cache.get("b"));
+    assertNull(cache.get("d"));
+  }
+
+  @Test
+  public void testImagesAreReadBackFromTheDirectory() {
+    new ResultCache(0, cacheDirectory).put("a", createUniformImage(7));
+    assertEquals(1, cacheDirectory.toFile().list().length);
+
+    ImageInterface image = new ResultCache(0, cacheDirectory).get("a");
+    assertTrue(((PackedImage) image).isBufferBacked());
+    assertArrayEquals(createUniformImage(7).getChannel(0), image.getChannel(0));
+  }
+
+  @Test
+  public void testWrittenImagesAreKeptMapped() {
+    ResultCache cache = new ResultCache(1000, cacheDirectory);
+    cache.put("a", createUniformImage(7));
+    assertEquals(0, cache.getHeapBytes());
+    ImageInterface image = cache.get("a");
+    assertTrue(((PackedImage) image).isBufferBacked());
+    assertArrayEquals(createUniformImage(7).getChannel(0), image.getChannel(0));
+  }
+
+  @Test
+  public void testRerunOverTheSameDirectorySavesTheSameFiles() throws IOException {
+    IOFileFactory.encodeAndSaveImage("test_cache_source.png", createRandomImage(16, 16, 1));
+    byte[][] saved = new byte[2][];
+    for (int run = 0; run < 2; run++) {
+      ImageProcessorModel model = new ImageProcessorModel(new InMemoryImageStore(),
+          new ResultCache(0, cacheDirectory));
+      model.loadImage("test_cache_source.png", "source");
+      model.compressImage("source", "compressed", "50");
+      model.saveImage("test_cache_result.haar", "compressed");
+      saved[run] = Files.readAllBytes(Path.of("test_cache_result.haar"));
+    }
+    new File("test_cache_source.png").delete();
+    new File("test_cache_result.haar").delete();
+    assertArrayEquals(saved[0], saved[1]);
+  }
+
+  @Test
+  public void testCachedCompressionHasTheComputedPixels() throws IOException {
+    ImageInterface image = createRandomImage(120, 77, 3);
+    ImageInterface computed = new CompressionOperation().apply(image, "60");
+    IOFileFactory.encodeAndSaveImage("test_cache_source.png", image);
+    ImageInterface[] compressed = new ImageInterface[2];
+    for (int run = 0; run < 2; run++) {
+      ImageProcessorModel model = new ImageProcessorModel(new InMemoryImageStore(),
+          new ResultCache(0, cacheDirectory));
+      model.loadImage("test_cache_source.png", "source");
+      model.compressImage("source", "compressed", "60");
+      compressed[run] = model.getImage("compressed");
+    }
+    new File("test_cache_source.png").delete();
+    // The second run takes the image from the files of the first
+    assertTrue(compressed[1] instanceof CompressedImage);
+    for (int c = 0; c < 3; c++) {
+      assertArrayEquals(computed.getChannel(c), compressed[0].getChannel(c));
+      assertArrayEquals(computed.getChannel(c), compressed[1].getChannel(c));
+    }
+  }
+
+  @Test
+  public void testKeysFollowContentAndParameters() {
+    assertEquals(ContentHash.of(createUniformImage(5)), ContentHash.of(createUniformImage(5)));
+    assertNotEquals(ContentHash.of(createUniformImage(5)), ContentHash.of(createUniformImage(6)));
+
+    List<String> sources = Collections.singletonList(ContentHash.of(createUniformImage(5)));
+    assertEquals(ContentHash.combine("levels", "10 20  30", sources),
+        ContentHash.combine("levels", " 10 20 30", sources));
+    assertNotEquals(ContentHash.combine("levels", "10 20 30", sources),
+        ContentHash.combine("levels", "10 20 40", sources));
+    assertNotEquals(ContentHash.combine("levels", "10 20 30", sources),
+        ContentHash.combine("brighten", "10 20 30", sources));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeBudget() {
+    new ResultCache(-1);
+  }
+}
@@ -0,0 +1,99 @@
+package model.imageprocessingmodel;
+
+import static model.image.TestImages.createUniformImage;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import model.image.CommonImage;
+import model.image.ImageInterface;
+import model.image.PackedImage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the SpillingImageStore class.
+ */
+public class SpillingImageStoreTest {
+
+  private Path spillDirectory;
+
+  @Before
+  public void setUp() throws IOException {
+    spillDirectory = Files.createTempDirectory("spill-test");
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = spillDirectory.toFile().listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    spillDirectory.toFile().delete();
+  }
+
+  private static boolean isSpilled(ImageInterface image) {
+    return ((PackedImage) image).isBufferBacked();
+  }
+
+  @Test
+  public void testImagesUnderBudgetStayOnHeap() {
+    SpillingImageStore store = new SpillingImageStore(200, spillDirectory);
+    store.put("a", createUniformImage(1));
+    store.put("b", createUniformImage(2));
+    assertEquals(200, store.getHeapBytes());
+    assertFalse(isSpilled(store.get("a")));
+    assertEquals(0, spillDirectory.toFile().list().length);
+  }
+
+  @Test
+  public void testLeastRecentlyUsedImageIsSpilled() {
+    SpillingImageStore store = new SpillingImageStore(200, spillDirectory);
+    store.put("a", createUniformImage(1));
+    store.put("b", createUniformImage(2));
+    // Reading a makes b the least recently used image
+    store.get("a");
+    store.put("c", createUniformImage(3));
+    assertEquals(200, store.getHeapBytes());
+    assertTrue(isSpilled(store.get("b")));
+    assertFalse(isSpilled(store.get("a")));
+    assertArrayEquals(createUniformImage(2).getChannel(0), store.get("b").getChannel(0));
+    assertEquals(1, spillDirectory.toFile().list().length);
+  }
+
+  @Test
+  public void testReplacingSpilledImageDeletesSpillFile() {
+    SpillingImageStore store = new SpillingImageStore(0, spillDirectory);
+    store.put("a", createUniformImage(1));
+    assertTrue(isSpilled(store.get("a")));
+    assertEquals(1, spillDirectory.toFile().list().length);
+    store.put("a", createUniformImage(4));
+    assertEquals(4, store.get("a").getPixel(0, 9, 9));
+    assertEquals(1, spillDirectory.toFile().list().length);
+    assertEquals(0, store.getHeapBytes());
+  }
+
+  @Test
+  public void testUnpackedImagesStayOnHeap() {
+    SpillingImageStore store = new SpillingImageStore(0, spillDirectory);
+    ImageInterface image = new CommonImage.ImageBuilder()
+        .addChannel(new int[][]{{-1, 70000}}).build();
+    store.put("a", image);
+    assertTrue(store.contains("a"));
+    assertEquals(8, store.getHeapBytes());
+    assertEquals(70000, store.get("a").getPixel(0, 0, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeBudget() {
+    new SpillingImageStore(-1, spillDirectory);
+  }
+}
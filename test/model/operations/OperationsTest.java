@@ -1,10 +1,16 @@
 package model.operations;
 
+import static model.image.TestImages.createRandomImage;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
 import model.image.ImageFactory;
 import model.image.ImageInterface;
 import model.operations.colorrepresentation.Intensity;
@@ -12,12 +18,20 @@ import model.operations.colorrepresentation.Value;
 import model.operations.colortransformation.Greyscale;
 import model.operations.colortransformation.Sepia;
 import model.operations.filters.BlurFilter;
+import model.operations.filters.ConvolutionFilter;
+import model.operations.filters.SeparableKernel;
 import model.operations.filters.SharpenFilter;
 import model.operations.merge.MergeSingleChannelImages;
+import model.operations.operatorutil.OperatorUtil;
+import model.operations.parallel.RowBandScheduler;
 import model.operations.pixeloffset.BrightnessOperation;
+import model.operations.pixeloffset.CoefficientThreshold;
 import model.operations.pixeloffset.CompressionOperation;
+import model.operations.pixeloffset.HaarTransform;
+import model.operations.pointwise.FusedPointwiseOperation;
 import model.operations.rotation.HorizontalFlipOperation;
 import model.operations.rotation.VerticalFlipOperation;
+import model.operations.split.PartialImageOperation;
 import model.operations.split.SplitImageOperation;
 import model.operations.visualization.ColorCorrection;
 import model.operations.visualization.HistogramVisualization;
@@ -161,6 +175,121 @@ public class OperationsTest {
     assertEqualImages(imageAfterValue, newImage);
   }
 
+  @Test
+  public void testParallelFiltersMatchSerial() {
+    ImageInterface image = createRandomImage(203, 157, 3);
+    assertEqualImages(new BlurFilter(new RowBandScheduler(1)).apply(image),
+        new BlurFilter(new RowBandScheduler(8)).apply(image));
+    assertEqualImages(new SharpenFilter(new RowBandScheduler(1)).apply(image),
+        new SharpenFilter(new RowBandScheduler(8)).apply(image));
+  }
+
+  @Test
+  public void testSeparableBlurMatchesFullKernel() {
+    ImageInterface image = createRandomImage(61, 47, 3);
+    BlurFilter blur = new BlurFilter(6);
+    assertMatchesDirectConvolution(image, blur.getFilter(), blur.apply(image));
+  }
+
+  @Test
+  public void testConvolveRectangularKernel() {
+    ImageInterface image = createRandomImage(37, 29, 3);
+    double[][] kernel = {{0, -1, 2, -1, 0}, {1, 0.5, -0.25, 0.5, 1}, {-2, 0, 1, 0, 0.75}};
+    ConvolutionFilter filter = new ConvolutionFilter(kernel);
+    assertNull(filter.getRowKernel());
+    assertMatchesDirectConvolution(image, kernel, filter.apply(image));
+  }
+
+  @Test
+  public void testConvolveLargeKernelWithFft() {
+    ImageInterface image = createRandomImage(131, 97, 3);
+    Random random = new Random(7);
+    double[][] kernel = new double[21][21];
+    for (double[] row : kernel) {
+      for (int l = 0; l < row.length; l++) {
+        row[l] = random.nextDouble() / 200;
+      }
+    }
+    kernel[10][10] = -0.5;
+    ConvolutionFilter filter = new ConvolutionFilter(kernel, new RowBandScheduler(4));
+    assertNull(filter.getRowKernel());
+    assertMatchesDirectConvolution(image, kernel, filter.apply(image));
+  }
+
+  @Test
+  public void testConvolveSeparableKernel() {
+    ImageInterface image = createRandomImage(40, 33, 1);
+    double[][] kernel = SeparableKernel.outerProduct(new double[]{1, 2, 1},
+        new double[]{-1, 0, 1});
+    ConvolutionFilter filter = new ConvolutionFilter(kernel);
+    assertEquals(3, filter.getRowKernel().length);
+    assertMatchesDirectConvolution(image, kernel, filter.apply(image));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConvolveEvenKernel() {
+    new ConvolutionFilter(new double[][]{{1, 1}, {1, 1}});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConvolveRaggedKernel() {
+    new ConvolutionFilter(new double[][]{{1, 1, 1}, {1}, {1, 1, 1}});
+  }
+
+  @Test
+  public void testParseInlineKernel() {
+    double[][] kernel = OperatorUtil.parseKernel("0,-1,0;-1,5,-1;0,-1,0");
+    assertEquals(3, kernel.length);
+    assertEquals(5, kernel[1][1], 0);
+    assertEquals(-1, kernel[2][1], 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseInvalidKernel() {
+    OperatorUtil.parseKernel("1,a,1");
+  }
+
+  @Test
+  public void testSeparableBlurKeepsFlatInterior() {
+    int[][] channel = new int[40][40];
+    for (int[] row : channel) {
+      Arrays.fill(row, 200);
+    }
+    ImageInterface newImage = new BlurFilter(15)
+        .apply(ImageFactory.createImage(Collections.singletonList(channel)));
+    assertEquals(200, newImage.getPixel(0, 20, 20));
+  }
+
+  @Test
+  public void testSeparableBlurLargerThanImage() {
+    ImageInterface image = createRandomImage(3, 5, 1);
+    ImageInterface newImage = new BlurFilter(15).apply(image, "100");
+    assertEquals(3, newImage.getHeight());
+    assertEquals(5, newImage.getWidth());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBlurRadius() {
+    new BlurFilter(0);
+  }
+
+  @Test
+  public void testDecomposeKernel() {
+    double[][] parts = SeparableKernel.decompose(new BlurFilter().getFilter());
+    double[][] product = SeparableKernel.outerProduct(parts[0], parts[1]);
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 3; j++) {
+        assertEquals(new BlurFilter().getFilter()[i][j], product[i][j], 1e-12);
+      }
+    }
+    assertNull(SeparableKernel.decompose(new SharpenFilter().getFilter()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidParallelism() {
+    new RowBandScheduler(0);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testBlurInvalidPercentage() {
     int[][] channel = {{100, 50, 60, 150}, {20, 60, 40, 30}, {50, 90, 70, 82}, {74, 66, 90, 58}};
@@ -205,6 +334,154 @@ public class OperationsTest {
     assertEqualImages(expectedImage, newImage);
   }
 
+  @Test
+  public void testCompressionRectangularImage() {
+    ImageInterface image = createRandomImage(100, 37, 3);
+    ImageInterface newImage = new CompressionOperation().apply(image, "0");
+    assertEqualImages(image, newImage);
+    newImage = new CompressionOperation().apply(image, "60");
+    assertEquals(100, newImage.getHeight());
+    assertEquals(37, newImage.getWidth());
+  }
+
+  @Test
+  public void testCompressionTiles() {
+    ImageInterface image = createRandomImage(203, 157, 3);
+    assertEqualImages(image, new CompressionOperation(64).apply(image, "0"));
+    assertEqualImages(new CompressionOperation(64, new RowBandScheduler(1)).apply(image, "70"),
+        new CompressionOperation(64, new RowBandScheduler(8)).apply(image, "70"));
+
+    // A single tile covering the image matches compressing the whole image
+    ImageInterface square = createRandomImage(64, 64, 1);
+    assertEqualImages(new CompressionOperation().apply(square, "50"),
+        new CompressionOperation(64).apply(square, "50"));
+  }
+
+  @Test
+  public void testFusedPointwiseMatchesSequentialOperations() {
+    ImageInterface image = createRandomImage(61, 47, 3);
+    ImageInterface expectedImage = new BrightnessOperation().apply(image, "40");
+    expectedImage = new LevelAdjustment().apply(expectedImage, "20 100 200");
+    expectedImage = new BrightnessOperation().apply(expectedImage, "-30");
+    expectedImage = new Sepia().apply(expectedImage);
+    expectedImage = new SplitImageOperation().apply(expectedImage, 1);
+    expectedImage = new Value().apply(expectedImage);
+    ImageInterface newImage = new FusedPointwiseOperation(new RowBandScheduler(4)).apply(image,
+        List.of(new BrightnessOperation().toStage("40"),
+            new LevelAdjustment().toStage("20 100 200"),
+            new BrightnessOperation().toStage("-30"), new Sepia().toStage(),
+            new SplitImageOperation().toStage(1), new Value().toStage()));
+    assertEqualImages(expectedImage, newImage);
+  }
+
+  @Test
+  public void testFusedPointwiseOnDeepImage() {
+    int[][] channel = {{0, 300, 1000}, {65535, 128, 255}};
+    ImageInterface image = ImageFactory.createImage(Collections.singletonList(channel));
+    ImageInterface expectedImage = new BrightnessOperation().apply(image, "10");
+    expectedImage = new LevelAdjustment().apply(expectedImage, "10 50 240");
+    ImageInterface newImage = new FusedPointwiseOperation().apply(image,
+        List.of(new BrightnessOperation().toStage("10"),
+            new LevelAdjustment().toStage("10 50 240")));
+    assertEqualImages(expectedImage, newImage);
+  }
+
+  @Test
+  public void testFusedPointwiseWithoutChanges() {
+    ImageInterface image = createRandomImage(5, 7, 1);
+    assertSame(image, new FusedPointwiseOperation().apply(image,
+        List.of(new Value().toStage(), new Intensity().toStage())));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFusedPointwiseWithTooFewChannels() {
+    ImageInterface image = createRandomImage(5, 7, 3);
+    new FusedPointwiseOperation().apply(image,
+        List.of(new Value().toStage(), new Sepia().toStage()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompressionInvalidTileSize() {
+    new CompressionOperation(1);
+  }
+
+  @Test
+  public void testHaarTransformRoundTrip() {
+    double[][] matrix = {{4, 2}, {6, 0}};
+    HaarTransform transform = new HaarTransform(2);
+    transform.forward(matrix);
+    assertEquals(6, matrix[0][0], 1e-12);
+    assertEquals(2 / Math.sqrt(2), matrix[0][1], 1e-12);
+    assertEquals(0, matrix[1][0], 1e-12);
+    assertEquals(6 / Math.sqrt(2), matrix[1][1], 1e-12);
+    transform.inverse(matrix);
+    assertEquals(4, matrix[0][0], 1e-12);
+    assertEquals(2, matrix[0][1], 1e-12);
+    assertEquals(6, matrix[1][0], 1e-12);
+    assertEquals(0, matrix[1][1], 1e-12);
+
+    Random random = new Random(11);
+    double[][] large = new double[128][128];
+    for (double[] row : large) {
+      for (int j = 0; j < row.length; j++) {
+        row[j] = random.nextInt(256);
+      }
+    }
+    double[][] copy = new double[128][];
+    for (int i = 0; i < large.length; i++) {
+      copy[i] = large[i].clone();
+    }
+    transform = new HaarTransform(128);
+    transform.forward(large);
+    transform.inverse(large);
+    for (int i = 0; i < large.length; i++) {
+      for (int j = 0; j < large.length; j++) {
+        assertEquals(copy[i][j], large[i][j], 1e-9);
+      }
+    }
+  }
+
+  @Test
+  public void testCoefficientThresholdMatchesSortedDistinctValues() {
+    Random random = new Random(17);
+    for (int trial = 0; trial < 200; trial++) {
+      int height = 1 + random.nextInt(12);
+      int width = 1 + random.nextInt(12);
+      // Few distinct values give many ties, and the first trials are all zero
+      int range = trial < 10 ? 1 : 1 + random.nextInt(trial % 2 == 0 ? 5 : 1000);
+      List<double[][]> channels = new ArrayList<>();
+      for (int c = 0; c < 1 + random.nextInt(3); c++) {
+        double[][] channel = new double[height][width];
+        for (double[] row : channel) {
+          for (int j = 0; j < width; j++) {
+            row[j] = (random.nextInt(2 * range - 1) - range + 1) / 16.0;
+          }
+        }
+        channels.add(channel);
+      }
+      for (double factor : new double[]{0, 1, 0.5, random.nextDouble()}) {
+        assertEquals(sortedThreshold(channels, factor),
+            CoefficientThreshold.select(channels, factor), 0);
+      }
+    }
+  }
+
+  /**
+   * The threshold as it was chosen before CoefficientThreshold, from a sorted set of the distinct
+   * absolute values, is returned by this method.
+   */
+  private double sortedThreshold(List<double[][]> channels, double factor) {
+    TreeSet<Double> uniqueValues = new TreeSet<>(Double::compareTo);
+    for (double[][] channel : channels) {
+      for (double[] row : channel) {
+        Arrays.stream(row).map(Math::abs).forEach(uniqueValues::add);
+      }
+    }
+    int thresholdIndex = Math
+        .min(uniqueValues.size() - 1, (int) Math.abs(factor * uniqueValues.size()));
+    return new ArrayList<>(uniqueValues).get(thresholdIndex);
+  }
+
   @Test
   public void testCompressionOperatorFor0Percent() {
     int[][] redChannel = {{255, 255, 255}, {255, 255, 255}, {255, 255, 255}};
@@ -845,15 +1122,100 @@ public class OperationsTest {
         imageAfterValue2));
   }
 
+  @Test
+  public void testFlipsKeepDeepSamples() {
+    ImageInterface image = createDeepImage(1);
+    ImageInterface flipped = new HorizontalFlipOperation().apply(image);
+    assertEquals(16, flipped.getBitDepth());
+    assertEqualImages(image, new HorizontalFlipOperation().apply(flipped));
+    assertEqualImages(image,
+        new VerticalFlipOperation().apply(new VerticalFlipOperation().apply(image)));
+  }
+
+  @Test
+  public void testSplitAndMergeKeepDeepSamples() {
+    ImageInterface image = createDeepImage(3);
+    List<ImageInterface> components = new ArrayList<>();
+    for (int c = 0; c < 3; c++) {
+      ImageInterface component = new SplitImageOperation().apply(image, c);
+      assertEquals(16, component.getBitDepth());
+      assertEquals(image.getPixel(c, 1, 2), component.getPixel(c, 1, 2));
+      components.add(ImageFactory.createImage(
+          Collections.singletonList(component.getChannel().get(c))));
+    }
+    assertEqualImages(image, new MergeSingleChannelImages().apply(components));
+  }
+
+  @Test
+  public void testColorRepresentationsKeepDeepSamples() {
+    int[][] redChannel = {{300, 0}, {65535, 1000}};
+    int[][] greenChannel = {{600, 255}, {0, 1000}};
+    int[][] blueChannel = {{900, 256}, {0, 1001}};
+    ImageInterface image = ImageFactory.createImage(
+        List.of(redChannel, greenChannel, blueChannel));
+    assertEqualImages(ImageFactory.createImage(
+            Collections.singletonList(new int[][]{{900, 256}, {65535, 1001}})),
+        new Value().apply(image));
+    assertEqualImages(ImageFactory.createImage(
+            Collections.singletonList(new int[][]{{600, 170}, {21845, 1000}})),
+        new Intensity().apply(image));
+  }
+
+  @Test
+  public void testPartialImageKeepsDeepSamples() {
+    ImageInterface image = createDeepImage(3);
+    ImageInterface newImage = new BlurFilter().apply(image);
+    ImageInterface partialImage = new PartialImageOperation().apply(List.of(image, newImage),
+        "50");
+    int half = image.getWidth() / 2;
+    for (int i = 0; i < image.getHeight(); i++) {
+      assertEquals(newImage.getPixel(0, i, half - 1), partialImage.getPixel(0, i, half - 1));
+      assertEquals(image.getPixel(0, i, half), partialImage.getPixel(0, i, half));
+    }
+  }
+
+  private ImageInterface createDeepImage(int channelCount) {
+    List<int[][]> channels = new ArrayList<>();
+    for (int c = 0; c < channelCount; c++) {
+      channels.add(new int[][]{{300 + c, 600, 900, 1000}, {1000, 0, 257, 65535 - c}});
+    }
+    return ImageFactory.createImage(channels);
+  }
+
+  private void assertMatchesDirectConvolution(ImageInterface image, double[][] kernel,
+      ImageInterface newImage) {
+    int rowRadius = kernel.length / 2;
+    int columnRadius = kernel[0].length / 2;
+    for (int c = 0; c < image.getChannelCount(); c++) {
+      for (int i = 0; i < image.getHeight(); i++) {
+        for (int j = 0; j < image.getWidth(); j++) {
+          double sum = 0;
+          for (int k = 0; k < kernel.length; k++) {
+            for (int l = 0; l < kernel[0].length; l++) {
+              int row = i - rowRadius + k;
+              int col = j - columnRadius + l;
+              if (row >= 0 && row < image.getHeight() && col >= 0 && col < image.getWidth()) {
+                sum += kernel[k][l] * image.getPixel(c, row, col);
+              }
+            }
+          }
+          assertEquals(Math.round(Math.min(Math.max(sum, 0), 255)), newImage.getPixel(c, i, j),
+              1);
+        }
+      }
+    }
+  }
+
   private void assertEqualImages(ImageInterface imageAfterIntensity, ImageInterface newImage) {
     assertEquals(imageAfterIntensity.getHeight(), newImage.getHeight());
     assertEquals(imageAfterIntensity.getWidth(), newImage.getWidth());
-    assertEquals(imageAfterIntensity.getChannel().size(), newImage.getChannel().size());
-    for (int i = 0; i < imageAfterIntensity.getChannel().size(); i++) {
-      for (int j = 0; j < imageAfterIntensity.getChannel().get(i).length; j++) {
-        for (int k = 0; k < imageAfterIntensity.getChannel().get(i)[j].length; k++) {
-          assertEquals(imageAfterIntensity.getChannel().get(i)[j][k],
-              newImage.getChannel().get(i)[j][k]);
+    List<int[][]> expectedChannels = imageAfterIntensity.getChannel();
+    List<int[][]> channels = newImage.getChannel();
+    assertEquals(expectedChannels.size(), channels.size());
+    for (int i = 0; i < expectedChannels.size(); i++) {
+      for (int j = 0; j < expectedChannels.get(i).length; j++) {
+        for (int k = 0; k < expectedChannels.get(i)[j].length; k++) {
+          assertEquals(expectedChannels.get(i)[j][k], channels.get(i)[j][k]);
         }
       }
     }